@@ -0,0 +1,249 @@
+package com.runescape;
+
+import java.util.*;
+
+/**
+ * Times the renderer's hot paths against the synthetic cache. Each benchmark is warmed up, then run for a number of
+ * timed iterations, and reported as the mean time per operation with its standard deviation across iterations.
+ *
+ * <pre>
+ * java -cp out com.runescape.Benchmarks [-w warmups] [-i iterations] [-t millis] [-c cache] [name...]
+ * </pre>
+ *
+ * Names select every benchmark starting with them, so {@code raster} runs all the triangle fills.
+ *
+ * @author Dane
+ */
+public final class Benchmarks {
+
+	/**
+	 * A timed operation. The result is folded into a sink so the work can't be optimized away.
+	 */
+	public interface Op {
+		int run();
+	}
+
+	private static final class Benchmark {
+		final String name;
+		final int opsPerCall;
+		final Op op;
+
+		Benchmark(String name, int opsPerCall, Op op) {
+			this.name = name;
+			this.opsPerCall = opsPerCall;
+			this.op = op;
+		}
+	}
+
+	private final List<Benchmark> benchmarks = new ArrayList<>();
+	private int sink;
+
+	private int warmups = 3;
+	private int iterations = 5;
+	private long millis = 1000;
+
+	public static void main(String[] args) throws Exception {
+		Benchmarks b = new Benchmarks();
+		String cache = SyntheticCache.DEFAULT_PATH;
+		List<String> filters = new ArrayList<>();
+
+		for (int n = 0; n < args.length; n++) {
+			switch (args[n]) {
+				case "-w":
+					b.warmups = Integer.parseInt(args[++n]);
+					break;
+				case "-i":
+					b.iterations = Integer.parseInt(args[++n]);
+					break;
+				case "-t":
+					b.millis = Long.parseLong(args[++n]);
+					break;
+				case "-c":
+					cache = args[++n];
+					break;
+				default:
+					filters.add(args[n]);
+					break;
+			}
+		}
+
+		b.setup(new SyntheticScene(cache));
+		System.out.println("scanlines: " + Scanlines.get().getClass().getSimpleName());
+		System.out.printf("%-28s %14s %12s %14s%n", "benchmark", "ns/op", "error", "ops/s");
+
+		for (Benchmark bm : b.benchmarks) {
+			if (filters.isEmpty() || filters.stream().anyMatch(bm.name::startsWith)) {
+				b.measure(bm);
+			}
+		}
+
+		System.out.println("sink " + b.sink);
+		System.exit(0);
+	}
+
+	private void add(String name, Op op) {
+		add(name, 1, op);
+	}
+
+	private void add(String name, int opsPerCall, Op op) {
+		benchmarks.add(new Benchmark(name, opsPerCall, op));
+	}
+
+	private void measure(Benchmark bm) {
+		for (int n = 0; n < warmups; n++) {
+			iterate(bm);
+		}
+
+		double[] results = new double[iterations];
+		double mean = 0;
+
+		for (int n = 0; n < iterations; n++) {
+			results[n] = iterate(bm);
+			mean += results[n];
+		}
+
+		mean /= iterations;
+
+		double variance = 0;
+		for (double r : results) {
+			variance += (r - mean) * (r - mean);
+		}
+
+		double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+		System.out.printf("%-28s %14.1f %12.1f %14.0f%n", bm.name, mean, error, 1e9 / mean);
+	}
+
+	/**
+	 * @return the mean nanoseconds per op over one iteration.
+	 */
+	private double iterate(Benchmark bm) {
+		long deadline = System.nanoTime() + millis * 1_000_000L;
+		long start = System.nanoTime();
+		long calls = 0;
+		long now;
+
+		do {
+			sink += bm.op.run();
+			calls++;
+		} while ((now = System.nanoTime()) < deadline);
+
+		return (double) (now - start) / (calls * bm.opsPerCall);
+	}
+
+	private void setup(SyntheticScene scene) {
+		final int w = SyntheticScene.WIDTH;
+		final int h = SyntheticScene.HEIGHT;
+		final int[] pixels = new int[w * h];
+
+		Graphics2D.prepare(pixels, w, h);
+		Graphics3D.prepareOffsets(w, h);
+
+		// span fills over a whole frame, one op per frame
+		final Scanlines active = Scanlines.get();
+		final Scanlines scalar = new Scanlines.Scalar();
+
+		add("scanlines.fill", () -> fillFrame(active, pixels, w, h, false));
+		add("scanlines.fill.scalar", () -> fillFrame(scalar, pixels, w, h, false));
+		add("scanlines.blend", () -> fillFrame(active, pixels, w, h, true));
+		add("scanlines.blend.scalar", () -> fillFrame(scalar, pixels, w, h, true));
+
+		// triangle fills, one op per triangle
+		final int[][] triangles = SyntheticScene.createTriangles(1000, w, h, new Random(194));
+
+		add("raster.shaded", triangles.length, () -> {
+			Graphics3D.alpha = 0;
+			for (int[] t : triangles) {
+				Graphics3D.testX = t[21] != 0;
+				Graphics3D.fillShadedTriangle(t[0], t[1], t[2], t[3], t[4], t[5], t[6], t[7], t[8]);
+			}
+			return pixels[w * (h / 2) + w / 2];
+		});
+
+		add("raster.textured", triangles.length, () -> {
+			Graphics3D.alpha = 0;
+			for (int[] t : triangles) {
+				Graphics3D.testX = t[21] != 0;
+				Graphics3D.fillTexturedTriangle(t[1], t[3], t[5], t[0], t[2], t[4], t[9], t[10], t[11], t[12], t[13], t[14], t[15], t[16], t[17], t[18], t[19], t[20], t[22]);
+			}
+			return pixels[w * (h / 2) + w / 2];
+		});
+
+		// a single model in front of the camera, turning a little each op
+		final RenderContext modelContext = new RenderContext(pixels, w, h);
+		final Model sphere = SyntheticScene.createSphere(240, 24, 32, false);
+		final Model prioritized = SyntheticScene.createSphere(240, 24, 32, true);
+		final int[] yaw = new int[1];
+
+		add("model.draw", () -> {
+			yaw[0] = yaw[0] + 8 & 0x7ff;
+			sphere.draw(modelContext, 0, yaw[0], 0, 0, 240, 800, 0);
+			return pixels[w * (h / 2) + w / 2];
+		});
+
+		add("model.draw.priorities", () -> {
+			yaw[0] = yaw[0] + 8 & 0x7ff;
+			prioritized.draw(modelContext, 0, yaw[0], 0, 0, 240, 800, 0);
+			return pixels[w * (h / 2) + w / 2];
+		});
+
+		// the whole region, orbiting its center
+		final RenderContext sceneContext = new RenderContext(pixels, w, h);
+		SceneGraph.init(sceneContext, w, h, 500, 800);
+
+		final SceneGraph graph = scene.build();
+		scene.addModels(SyntheticScene.createSphere(48, 10, 16, false), 4);
+
+		final int focusX = (SyntheticScene.BASE_TILE + 32) * 128;
+		final int focusZ = (SyntheticScene.BASE_TILE + 32) * 128;
+		final int focusY = scene.getLandY(focusX, focusZ) - 50;
+		final int[] cameraYaw = new int[1];
+
+		add("scene.draw", () -> {
+			cameraYaw[0] = cameraYaw[0] + 16 & 0x7ff;
+			int[] camera = SyntheticScene.orbit(focusX, focusY, focusZ, cameraYaw[0], 340, 1600);
+			graph.draw(sceneContext, camera[0], camera[1], camera[2], 340, cameraYaw[0], 3);
+			return pixels[w * (h / 2) + w / 2];
+		});
+
+		// a still camera, drawing the same frame again with and without the projection cache
+		final int[] still = SyntheticScene.orbit(focusX, focusY, focusZ, 256, 340, 1600);
+
+		add("scene.draw.still", () -> {
+			graph.cacheProjections = false;
+			graph.draw(sceneContext, still[0], still[1], still[2], 340, 256, 3);
+			return pixels[w * (h / 2) + w / 2];
+		});
+
+		add("scene.draw.still.cached", () -> {
+			graph.cacheProjections = true;
+			graph.draw(sceneContext, still[0], still[1], still[2], 340, 256, 3);
+			return pixels[w * (h / 2) + w / 2];
+		});
+
+		// generating the visibility maps, without the cache directory
+		add("scene.init", () -> SceneGraph.createVisibilityMaps(w, h, 500, 800)[7][31][0] != 0 ? 1 : 0);
+
+		// reading and building the landscape into a fresh graph
+		add("scene.build", () -> scene.build().tileCountX);
+
+		// unpacking the archive and decompressing its body
+		final byte[] jag = scene.jag;
+		final int unpackedSize = (jag[0] & 0xff) << 16 | (jag[1] & 0xff) << 8 | (jag[2] & 0xff);
+		final int packedSize = (jag[3] & 0xff) << 16 | (jag[4] & 0xff) << 8 | (jag[5] & 0xff);
+		final byte[] dst = new byte[unpackedSize];
+
+		add("archive.read", () -> new Archive(jag).fileCount);
+		add("bzip2.read", () -> BZip2InputStream.read(dst, unpackedSize, jag, packedSize, 6));
+	}
+
+	private static int fillFrame(Scanlines s, int[] pixels, int w, int h, boolean blend) {
+		for (int y = 0; y < h; y++) {
+			if (blend) {
+				s.blend(pixels, y * w, w, 0x3F6F9F, 96);
+			} else {
+				s.fill(pixels, y * w, w, 0x3F6F9F + y);
+			}
+		}
+		return pixels[pixels.length - 1];
+	}
+}
@@ -0,0 +1,276 @@
+package com.runescape;
+
+import java.util.*;
+
+/**
+ * Checks that {@link SceneGraph#relight} leaves every model the same as lighting the whole graph again. A random
+ * layout of walls, locations and ground decorations built from boxes that share vertices with their neighbours is lit
+ * once, then a location is added or removed and relit in place, and the result is compared against a graph lit from
+ * scratch with the same layout. Only visible triangles are compared, since a hidden triangle keeps whatever colors it
+ * had before it was hidden.
+ *
+ * <pre>
+ * java -cp out com.runescape.RelightCheck [-e edits] [-r seed]
+ * </pre>
+ *
+ * The exit code is 1 if any edit differs.
+ *
+ * @author Dane
+ */
+public final class RelightCheck {
+
+	private static final int WALL = 0;
+	private static final int LOCATION = 1;
+	private static final int GROUND_DECORATION = 2;
+
+	/**
+	 * The tiles the layout covers, leaving room for the merges to reach past it.
+	 */
+	private static final int MIN_TILE = 1;
+	private static final int MAX_TILE = 30;
+
+	private static final int[][] BOX_TRIANGLES = {{0, 1, 2}, {0, 2, 3}, {4, 6, 5}, {4, 7, 6}, {0, 4, 5}, {0, 5, 1}, {1, 5, 6}, {1, 6, 2}, {2, 6, 7}, {2, 7, 3}, {3, 7, 4}, {3, 4, 0}};
+
+	public static void main(String[] args) {
+		int edits = 100;
+		long seed = 194;
+
+		for (int n = 0; n < args.length; n++) {
+			switch (args[n]) {
+				case "-e":
+					edits = Integer.parseInt(args[++n]);
+					break;
+				case "-r":
+					seed = Long.parseLong(args[++n]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[n]);
+			}
+		}
+
+		Random random = new Random(seed);
+		List<Placement> layout = createLayout(random);
+		int mismatches = 0;
+
+		for (int edit = 0; edit < edits; edit++) {
+			List<Placement> placements = new ArrayList<>(layout);
+			SceneGraph graph = build(placements, true);
+
+			Placement p;
+
+			if ((edit & 1) == 0) {
+				p = placements.remove(random.nextInt(placements.size()));
+				p.remove(graph);
+			} else {
+				p = Placement.create(random, MIN_TILE + 1, MAX_TILE - 2);
+
+				if (!p.add(graph)) {
+					edit--;
+					continue;
+				}
+
+				placements.add(p);
+			}
+
+			graph.relight(-50, -10, -50, 64, 768, p.tileX, p.tileZ, p.tileX + p.size - 1, p.tileZ + p.size - 1);
+
+			String relit = describe(graph);
+			String expected = describe(build(placements, false));
+
+			if (!relit.equals(expected)) {
+				System.out.println("edit " + edit + ": " + ((edit & 1) == 0 ? "removing " : "adding ") + p + " differs from a full build");
+				mismatches++;
+			}
+		}
+
+		System.out.println(edits + " edits, " + mismatches + " differ from a full build");
+		System.exit(mismatches == 0 ? 0 : 1);
+	}
+
+	private static List<Placement> createLayout(Random random) {
+		List<Placement> layout = new ArrayList<>();
+
+		for (int plane = 0; plane < 2; plane++) {
+			for (int x = MIN_TILE; x < MAX_TILE; x++) {
+				for (int z = MIN_TILE; z < MAX_TILE; z++) {
+					if (random.nextInt(3) != 0) {
+						layout.add(Placement.create(random, plane, x, z));
+					}
+				}
+			}
+		}
+		return layout;
+	}
+
+	/**
+	 * Adds a layout to a new graph and lights it, dropping the placements that didn't fit.
+	 */
+	private static SceneGraph build(List<Placement> placements, boolean keepUnlitModels) {
+		SceneGraph graph = new SceneGraph(104, 104, 4, new int[4][105][105]);
+		graph.keepUnlitModels = keepUnlitModels;
+		placements.removeIf(p -> !p.add(graph));
+		graph.applyLighting(-50, -10, -50, 64, 768);
+		return graph;
+	}
+
+	/**
+	 * @return the colors of every visible triangle and which triangles are hidden, for every model in walk order.
+	 */
+	private static String describe(SceneGraph graph) {
+		StringBuilder b = new StringBuilder();
+
+		for (Tile[][] plane : graph.planeTiles) {
+			for (Tile[] column : plane) {
+				for (Tile t : column) {
+					if (t == null) {
+						continue;
+					}
+
+					if (t.wall != null) {
+						describe(b, t.wall.model1);
+						describe(b, t.wall.model2);
+					}
+
+					for (int n = 0; n < t.locationCount; n++) {
+						Location l = t.locs[n];
+
+						// a location covering more than one tile is described once
+						if (l != null && l.minTileX == t.x && l.minTileZ == t.z) {
+							describe(b, l.model);
+						}
+					}
+
+					if (t.groundDecoration != null) {
+						describe(b, t.groundDecoration.model);
+					}
+				}
+			}
+		}
+		return b.toString();
+	}
+
+	private static void describe(StringBuilder b, Model m) {
+		if (m == null) {
+			return;
+		}
+
+		for (int t = 0; t < m.triangleCount; t++) {
+			if (m.triangleInfo[t] == -1) {
+				b.append("-,");
+			} else {
+				b.append(m.colorA[t]).append(' ').append(m.colorB[t]).append(' ').append(m.colorC[t]).append(',');
+			}
+		}
+		b.append(m.normals == null ? '\n' : '?');
+	}
+
+	/**
+	 * Creates an unlit box standing on the tiles it covers, with its corners on the tile corners.
+	 */
+	private static Model createBox(int size, int height, int color) {
+		Model m = new Model();
+		m.vertexCount = 8;
+		m.vertexX = new int[8];
+		m.vertexY = new int[8];
+		m.vertexZ = new int[8];
+
+		int half = size * 64;
+
+		for (int n = 0; n < 4; n++) {
+			int x = (n == 1 || n == 2) ? half : -half;
+			int z = (n >= 2) ? half : -half;
+
+			m.vertexX[n] = m.vertexX[n + 4] = x;
+			m.vertexZ[n] = m.vertexZ[n + 4] = z;
+			m.vertexY[n + 4] = -height;
+		}
+
+		m.triangleCount = BOX_TRIANGLES.length;
+		m.triangleVertexA = new int[m.triangleCount];
+		m.triangleVertexB = new int[m.triangleCount];
+		m.triangleVertexC = new int[m.triangleCount];
+		m.unmodifiedTriangleColor = new int[m.triangleCount];
+		m.triangleInfo = new int[m.triangleCount];
+
+		for (int t = 0; t < m.triangleCount; t++) {
+			m.triangleVertexA[t] = BOX_TRIANGLES[t][0];
+			m.triangleVertexB[t] = BOX_TRIANGLES[t][1];
+			m.triangleVertexC[t] = BOX_TRIANGLES[t][2];
+			m.unmodifiedTriangleColor[t] = color + (t << 10);
+		}
+
+		m.applyLighting(64, 768, -50, -10, -50, false);
+		return m;
+	}
+
+	private static final class Placement {
+
+		final int type;
+		final int plane;
+		final int tileX;
+		final int tileZ;
+		final int size;
+		final int height;
+		final boolean twoWalls;
+
+		Placement(int type, int plane, int tileX, int tileZ, int size, int height, boolean twoWalls) {
+			this.type = type;
+			this.plane = plane;
+			this.tileX = tileX;
+			this.tileZ = tileZ;
+			this.size = size;
+			this.height = height;
+			this.twoWalls = twoWalls;
+		}
+
+		static Placement create(Random random, int min, int max) {
+			return create(random, random.nextInt(2), min + random.nextInt(max - min), min + random.nextInt(max - min));
+		}
+
+		static Placement create(Random random, int plane, int tileX, int tileZ) {
+			int type = random.nextInt(3);
+			int size = type == LOCATION && random.nextInt(4) == 0 ? 2 + random.nextInt(2) : 1;
+			return new Placement(type, plane, tileX, tileZ, size, 100 + random.nextInt(3) * 50, random.nextBoolean());
+		}
+
+		/**
+		 * @return false if the tiles already have one of this type.
+		 */
+		boolean add(SceneGraph graph) {
+			Tile t = graph.planeTiles[plane][tileX][tileZ];
+
+			if (type == WALL) {
+				if (t != null && t.wall != null) {
+					return false;
+				}
+
+				graph.addWall(createBox(1, height, 4000), twoWalls ? createBox(1, height / 2, 9000) : null, plane, tileX, tileZ, 0, 0x40000000, (byte) 0, 1, 2);
+				return true;
+			} else if (type == LOCATION) {
+				return graph.addLocation(createBox(size, height, 20000), null, tileX, tileZ, size, size, 0, plane, 0, 0x40000000, (byte) 10);
+			} else {
+				if (t != null && t.groundDecoration != null) {
+					return false;
+				}
+
+				graph.addGroundDecoration(createBox(1, 10, 30000), plane, tileX, tileZ, 0, (byte) 22, 0x40000000);
+				return true;
+			}
+		}
+
+		void remove(SceneGraph graph) {
+			if (type == WALL) {
+				graph.removeWall(tileX, tileZ, plane);
+			} else if (type == LOCATION) {
+				graph.removeLocations(tileX, tileZ, plane);
+			} else {
+				graph.removeGroundDecoration(tileX, tileZ, plane);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return (type == WALL ? "wall" : type == LOCATION ? "location" : "ground decoration") + " at " + plane + ", " + tileX + ", " + tileZ;
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package com.runescape;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * Renders the synthetic region along a scripted camera path with no display, writing the time taken and a checksum of
+ * {@link Graphics2D#target} for every frame. Passing a previous run as the golden file checks each frame is still
+ * pixel for pixel the same.
+ *
+ * <pre>
+ * java -cp out com.runescape.RenderHarness [-c cache] [-f frames] [-t threads] [-s still] [-p] [-o out.csv] [-g golden.csv]
+ * </pre>
+ *
+ * {@code -s} holds the camera for that many frames at each position, and {@code -p} turns on
+ * {@link SceneGraph#cacheProjections}.
+ *
+ * The output has a {@code frame,nanos,crc,drawn,culled,occluded} line per frame, the last three being the loc counts
+ * of {@link SceneGraph}. The exit code is 1 if any frame differs from the golden file.
+ *
+ * @author Dane
+ */
+public final class RenderHarness {
+
+	public static void main(String[] args) throws IOException {
+		String cache = SyntheticCache.DEFAULT_PATH;
+		String output = null;
+		String golden = null;
+		int frames = 256;
+		int threads = 1;
+		int still = 1;
+		boolean cacheProjections = false;
+
+		for (int n = 0; n < args.length; n++) {
+			switch (args[n]) {
+				case "-c":
+					cache = args[++n];
+					break;
+				case "-f":
+					frames = Integer.parseInt(args[++n]);
+					break;
+				case "-t":
+					threads = Integer.parseInt(args[++n]);
+					break;
+				case "-s":
+					still = Integer.parseInt(args[++n]);
+					break;
+				case "-p":
+					cacheProjections = true;
+					break;
+				case "-o":
+					output = args[++n];
+					break;
+				case "-g":
+					golden = args[++n];
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[n]);
+			}
+		}
+
+		SyntheticScene scene = new SyntheticScene(cache);
+		int w = SyntheticScene.WIDTH;
+		int h = SyntheticScene.HEIGHT;
+		int[] pixels = new int[w * h];
+
+		Graphics2D.prepare(pixels, w, h);
+		Graphics3D.prepareOffsets(w, h);
+		Graphics3D.setRasterThreads(threads);
+		SceneGraph.init(w, h, 500, 800);
+
+		SceneGraph graph = scene.build();
+		graph.cacheProjections = cacheProjections;
+		scene.addModels(SyntheticScene.createSphere(48, 10, 16, false), 4);
+
+		long[] nanos = new long[frames];
+		long[] crcs = new long[frames];
+		int[][] locCounts = new int[frames][3];
+		CRC32 crc = new CRC32();
+		ByteBuffer bytes = ByteBuffer.allocate(pixels.length * 4);
+
+		for (int frame = 0; frame < frames; frame++) {
+			int[] camera = getCamera(scene, frame / still * still, frames);
+
+			long start = System.nanoTime();
+			Graphics2D.clear();
+			graph.draw(camera[0], camera[1], camera[2], camera[3], camera[4], 3);
+			nanos[frame] = System.nanoTime() - start;
+
+			locCounts[frame][0] = graph.drawnLocCount;
+			locCounts[frame][1] = graph.culledLocCount;
+			locCounts[frame][2] = graph.occludedLocCount;
+
+			bytes.clear();
+			bytes.asIntBuffer().put(pixels);
+			crc.reset();
+			crc.update(bytes);
+			crcs[frame] = crc.getValue();
+		}
+
+		if (output != null) {
+			try (PrintWriter out = new PrintWriter(new FileWriter(output))) {
+				out.println("frame,nanos,crc,drawn,culled,occluded");
+				for (int frame = 0; frame < frames; frame++) {
+					int[] c = locCounts[frame];
+					out.println(frame + "," + nanos[frame] + "," + Long.toHexString(crcs[frame]) + "," + c[0] + "," + c[1] + "," + c[2]);
+				}
+			}
+		}
+
+		long[] sorted = nanos.clone();
+		Arrays.sort(sorted);
+		long total = 0;
+		long[] locTotals = new long[3];
+
+		for (int frame = 0; frame < frames; frame++) {
+			total += nanos[frame];
+
+			for (int n = 0; n < 3; n++) {
+				locTotals[n] += locCounts[frame][n];
+			}
+		}
+
+		System.out.printf("frames %d, threads %d%n", frames, threads);
+		System.out.printf("landscape built in %.3f ms%n", scene.buildTime / 1e6);
+		System.out.printf("mean %.3f ms, p50 %.3f ms, p95 %.3f ms, max %.3f ms%n", total / 1e6 / frames, sorted[frames / 2] / 1e6, sorted[frames * 95 / 100] / 1e6, sorted[frames - 1] / 1e6);
+		System.out.printf("locs per frame: %.1f drawn, %.1f culled, %.1f occluded%n", (double) locTotals[0] / frames, (double) locTotals[1] / frames, (double) locTotals[2] / frames);
+
+		int mismatches = 0;
+		if (golden != null) {
+			mismatches = compare(golden, crcs);
+			System.out.println(mismatches == 0 ? "all frames match " + golden : mismatches + " frames differ from " + golden);
+		}
+
+		System.exit(mismatches == 0 ? 0 : 1);
+	}
+
+	/**
+	 * Orbits the middle of the region twice, sweeping the pitch and zoom, so every visibility map angle gets used.
+	 *
+	 * @return the camera as {@code {x, y, z, pitch, yaw}}.
+	 */
+	private static int[] getCamera(SyntheticScene scene, int frame, int frames) {
+		int focusX = (SyntheticScene.BASE_TILE + 32) * 128;
+		int focusZ = (SyntheticScene.BASE_TILE + 32) * 128;
+		int focusY = scene.getLandY(focusX, focusZ) - 50;
+
+		int yaw = (frame * 4096 / frames) & 0x7ff;
+		int sweep = (frame * 2048 / frames) & 0x7ff;
+		int pitch = 128 + (255 * (Model.sin[sweep] + 65536) >> 17);
+		int distance = 600 + (1000 * (Model.cos[sweep] + 65536) >> 17);
+
+		int[] position = SyntheticScene.orbit(focusX, focusY, focusZ, yaw, pitch, distance);
+		return new int[] { position[0], position[1], position[2], pitch, yaw };
+	}
+
+	/**
+	 * @return the number of frames whose checksum differs from, or is missing in, the golden file.
+	 */
+	private static int compare(String golden, long[] crcs) throws IOException {
+		List<String> lines = Files.readAllLines(Paths.get(golden));
+		int mismatches = 0;
+
+		for (int frame = 0; frame < crcs.length; frame++) {
+			if (frame + 1 >= lines.size()) {
+				mismatches++;
+				continue;
+			}
+
+			String[] cols = lines.get(frame + 1).split(",");
+			if (Long.parseLong(cols[2], 16) != crcs[frame]) {
+				System.out.println("frame " + frame + " differs");
+				mismatches++;
+			}
+		}
+		return mismatches;
+	}
+
+}
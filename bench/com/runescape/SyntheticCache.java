@@ -0,0 +1,265 @@
+package com.runescape;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Writes {@code bench/synthetic.jag}, a small archive holding just enough for the renderer to run without the real
+ * cache: four textures, a handful of floors and one 64x64 landscape square. The archive is compressed as a whole, the
+ * same way the real config archive is, so loading it exercises {@link BZip2InputStream} too.
+ *
+ * <p>
+ * The output is checked in, so this only needs running again if the layout changes. It shells out to the
+ * {@code bzip2} command since the client only carries a decoder.
+ *
+ * @author Dane
+ */
+public final class SyntheticCache {
+
+	public static final String DEFAULT_PATH = "bench/synthetic.jag";
+
+	/**
+	 * The name of the landscape square.
+	 */
+	public static final String LAND = "m50_50";
+
+	public static final int TEXTURE_COUNT = 4;
+
+	/**
+	 * The floors, in order. Land data refers to them by position.
+	 */
+	private static final String[] FLOOR_NAMES = { "grass", "dirt", "sand", "water", "stone", "road" };
+	private static final int[] FLOOR_RGB = { 0x3A7A2A, 0x6E5A3C, 0xC8B48C, 0x2C4C8C, 0x707070, 0x5A5A5A };
+	private static final int[] FLOOR_TEXTURE = { -1, -1, -1, -1, 1, 2 };
+
+	private static final int GRASS = 0;
+	private static final int DIRT = 1;
+	private static final int SAND = 2;
+	private static final int WATER = 3;
+	private static final int STONE = 4;
+	private static final int ROAD = 5;
+
+	public static void main(String[] args) throws IOException {
+		String path = args.length > 0 ? args[0] : DEFAULT_PATH;
+		byte[] jag = create();
+
+		try (FileOutputStream out = new FileOutputStream(path)) {
+			out.write(jag);
+		}
+
+		System.out.println("Wrote " + jag.length + " bytes to " + path);
+	}
+
+	/**
+	 * @return the packed archive.
+	 */
+	public static byte[] create() throws IOException {
+		Map<String, byte[]> files = new LinkedHashMap<>();
+		byte[] index = textureIndex();
+
+		for (int n = 0; n < TEXTURE_COUNT; n++) {
+			files.put(n + ".dat", texture(n));
+		}
+
+		files.put("index.dat", index);
+		files.put("flo.dat", floors());
+		files.put(LAND, landscape());
+
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(body);
+		out.writeShort(files.size());
+
+		for (Map.Entry<String, byte[]> e : files.entrySet()) {
+			out.writeInt(StringUtil.getHash(e.getKey()));
+			writeMedium(out, e.getValue().length);
+			writeMedium(out, e.getValue().length);
+		}
+
+		for (byte[] data : files.values()) {
+			out.write(data);
+		}
+
+		byte[] unpacked = body.toByteArray();
+		byte[] packed = compress(unpacked);
+
+		ByteArrayOutputStream jag = new ByteArrayOutputStream();
+		out = new DataOutputStream(jag);
+		writeMedium(out, unpacked.length);
+		writeMedium(out, packed.length);
+		out.write(packed);
+		return jag.toByteArray();
+	}
+
+	/**
+	 * Every texture shares a single index entry: 128x128, a full 15 color palette and no clipping.
+	 */
+	private static byte[] textureIndex() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		for (int n = 0; n < TEXTURE_COUNT; n++) {
+			out.writeShort(128);
+			out.writeShort(128);
+			out.write(16);
+
+			Random r = new Random(n * 31 + 7);
+			for (int c = 1; c < 16; c++) {
+				int rgb = (0x40 + r.nextInt(0xA0)) << 16 | (0x40 + r.nextInt(0xA0)) << 8 | (0x40 + r.nextInt(0xA0));
+				writeMedium(out, rgb);
+			}
+
+			out.write(0);
+			out.write(0);
+			out.writeShort(128);
+			out.writeShort(128);
+			out.write(0);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static byte[] texture(int n) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		// offset of this texture's entry within index.dat
+		out.writeShort(n * (2 + 2 + 1 + 15 * 3 + 1 + 1 + 2 + 2 + 1));
+
+		for (int y = 0; y < 128; y++) {
+			for (int x = 0; x < 128; x++) {
+				int c;
+				switch (n) {
+					case 0:
+						c = ((x >> 4) + (y >> 4) & 1) == 0 ? 1 : 2;
+						break;
+					case 1:
+						c = 1 + ((x * 7 + y * 13 + (x ^ y)) % 15);
+						break;
+					case 2:
+						c = (y & 31) < 2 || ((x + (y >> 5 & 1) * 32) & 63) < 2 ? 3 : 4 + ((x + y) & 3);
+						break;
+					default:
+						c = 1 + (int) (7 + 7 * Math.sin(x / 9.0) * Math.cos(y / 11.0));
+						break;
+				}
+				out.write(c);
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private static byte[] floors() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeShort(FLOOR_NAMES.length);
+
+		for (int n = 0; n < FLOOR_NAMES.length; n++) {
+			out.write(1);
+			writeMedium(out, FLOOR_RGB[n]);
+
+			if (FLOOR_TEXTURE[n] >= 0) {
+				out.write(2);
+				out.write(FLOOR_TEXTURE[n]);
+			}
+
+			out.write(6);
+			out.write(FLOOR_NAMES[n].getBytes("ISO-8859-1"));
+			out.write(10);
+			out.write(0);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Rolling grass with a dirt and sand blend, a pond, a textured road running north to south and a stone yard. The
+	 * upper planes are empty.
+	 */
+	private static byte[] landscape() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		for (int plane = 0; plane < 4; plane++) {
+			for (int x = 0; x < 64; x++) {
+				for (int y = 0; y < 64; y++) {
+					if (plane != 0) {
+						out.write(0);
+						continue;
+					}
+
+					int pondX = x - 18;
+					int pondY = y - 44;
+					int pond = pondX * pondX + pondY * pondY;
+
+					int underlay = GRASS;
+					if (pond < 100) {
+						underlay = SAND;
+					} else if (((x * 5 + y * 3) & 15) < 3 || (x > 44 && y < 20)) {
+						underlay = DIRT;
+					}
+
+					out.write(82 + underlay);
+
+					if (pond < 49) {
+						writeOverlay(out, 0, 0, WATER);
+					} else if (x >= 30 && x < 34) {
+						writeOverlay(out, 0, 0, ROAD);
+					} else if (x >= 46 && x < 58 && y >= 6 && y < 18) {
+						boolean edge = x == 46 || x == 57 || y == 6 || y == 17;
+						writeOverlay(out, edge ? 1 : 0, (x + y) & 3, STONE);
+					}
+
+					if (pond < 49) {
+						// flat water surface
+						out.write(1);
+						out.write(30);
+					} else {
+						out.write(0);
+					}
+				}
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static void writeOverlay(ByteArrayOutputStream out, int shape, int rotation, int floor) {
+		out.write(2 + shape * 4 + rotation);
+		out.write(floor + 1);
+	}
+
+	private static void writeMedium(DataOutputStream out, int i) throws IOException {
+		out.write(i >> 16);
+		out.write(i >> 8);
+		out.write(i);
+	}
+
+	/**
+	 * Compresses with the {@code bzip2} command, dropping the stream header since {@link BZip2InputStream} expects
+	 * headerless blocks.
+	 */
+	private static byte[] compress(byte[] src) throws IOException {
+		Process p = new ProcessBuilder("bzip2", "-c", "-1").start();
+
+		try (OutputStream in = p.getOutputStream()) {
+			in.write(src);
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (InputStream out = p.getInputStream()) {
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = out.read(buffer)) != -1) {
+				bytes.write(buffer, 0, read);
+			}
+		}
+
+		try {
+			if (p.waitFor() != 0) {
+				throw new IOException("bzip2 exited with " + p.exitValue());
+			}
+		} catch (InterruptedException e) {
+			throw new IOException(e);
+		}
+
+		byte[] packed = bytes.toByteArray();
+		return Arrays.copyOfRange(packed, 4, packed.length);
+	}
+
+}
@@ -0,0 +1,302 @@
+package com.runescape;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Loads the synthetic cache written by {@link SyntheticCache} and builds a region from it, so the renderer can be
+ * driven without a client, a server or the real cache.
+ *
+ * @author Dane
+ */
+public final class SyntheticScene {
+
+	/**
+	 * Where the landscape square is placed within the 104x104 region.
+	 */
+	public static final int BASE_TILE = 20;
+
+	public static final int WIDTH = 512;
+	public static final int HEIGHT = 334;
+
+	private static boolean configured;
+
+	public final byte[] jag;
+	public final Archive archive;
+
+	public final int[][][] heightmaps = new int[4][105][105];
+	public final byte[][][] renderflags = new byte[4][104][104];
+	public final CollisionMap[] collisions = new CollisionMap[4];
+	public SceneGraph graph;
+
+	/**
+	 * How long the last {@link #build()} spent in {@link Scene#buildLandscape(CollisionMap[], SceneGraph)}.
+	 */
+	public long buildTime;
+
+	/**
+	 * Reads the archive and, the first time, loads its textures and floors and sets up the palette.
+	 *
+	 * @param path the archive path.
+	 */
+	public SyntheticScene(String path) throws IOException {
+		this(Files.readAllBytes(Paths.get(path)));
+	}
+
+	/**
+	 * Reads the archive and, the first time, loads its textures and floors and sets up the palette.
+	 *
+	 * @param jag the archive.
+	 */
+	public SyntheticScene(byte[] jag) {
+		this.jag = jag;
+		this.archive = new Archive(jag);
+		configure(archive);
+	}
+
+	private static synchronized void configure(Archive archive) {
+		if (configured) {
+			return;
+		}
+
+		Graphics3D.lowmemory = false;
+		SceneGraph.lowmemory = false;
+		Scene.lowmemory = false;
+
+		Graphics3D.unpackTextures(archive);
+		Graphics3D.generatePalette(0.8);
+		Graphics3D.setupPools(20);
+		FloorType.unpack(archive);
+		configured = true;
+	}
+
+	/**
+	 * Reads the landscape and builds a fresh graph from it.
+	 *
+	 * @return the graph.
+	 */
+	public SceneGraph build() {
+		for (int plane = 0; plane < 4; plane++) {
+			collisions[plane] = new CollisionMap(104, 104);
+		}
+
+		graph = new SceneGraph(104, 104, 4, heightmaps);
+		graph.setup(0);
+
+		Scene s = new Scene(104, 104, renderflags, heightmaps);
+		s.readLandscape(archive.getShared(SyntheticCache.LAND), BASE_TILE, BASE_TILE, 0, 0);
+		s.buildLandscape(collisions, graph);
+		buildTime = s.buildTime;
+		return graph;
+	}
+
+	/**
+	 * Places a sphere on a grid across the landscape, skipping the water and the road.
+	 *
+	 * @param model the model to place.
+	 * @param spacing the tiles between each.
+	 * @return the number placed.
+	 */
+	public int addModels(Model model, int spacing) {
+		int count = 0;
+
+		for (int x = BASE_TILE + 2; x < BASE_TILE + 62; x += spacing) {
+			for (int z = BASE_TILE + 2; z < BASE_TILE + 62; z += spacing) {
+				int localX = x - BASE_TILE;
+				int localZ = z - BASE_TILE;
+				int pondX = localX - 18;
+				int pondZ = localZ - 44;
+
+				if ((localX >= 30 && localX < 34) || pondX * pondX + pondZ * pondZ < 100) {
+					continue;
+				}
+
+				int bitset = x + (z << 7) + (count << 14) + 0x40000000;
+				graph.addLocation(model, null, x, z, 1, 1, heightmaps[0][x][z], 0, (x * 97 + z * 31) & 0x7ff, bitset, (byte) 0);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param sceneX the scene x.
+	 * @param sceneZ the scene z.
+	 * @return the interpolated height of the ground plane.
+	 */
+	public int getLandY(int sceneX, int sceneZ) {
+		int tileX = sceneX >> 7;
+		int tileZ = sceneZ >> 7;
+		int localX = sceneX & 0x7f;
+		int localZ = sceneZ & 0x7f;
+		int[][] h = heightmaps[0];
+
+		int southY = h[tileX][tileZ] * (128 - localX) + h[tileX + 1][tileZ] * localX >> 7;
+		int northY = h[tileX][tileZ + 1] * (128 - localX) + h[tileX + 1][tileZ + 1] * localX >> 7;
+		return southY * (128 - localZ) + northY * localZ >> 7;
+	}
+
+	/**
+	 * Places the camera on an orbit around a point, the same way the client follows the player.
+	 *
+	 * @param x the focus x.
+	 * @param y the focus y.
+	 * @param z the focus z.
+	 * @param cameraYaw the camera yaw.
+	 * @param cameraPitch the camera pitch.
+	 * @param distance the orbit distance.
+	 * @return the camera position as {@code {x, y, z}}.
+	 */
+	public static int[] orbit(int x, int y, int z, int cameraYaw, int cameraPitch, int distance) {
+		int pitch = 2048 - cameraPitch & 0x7ff;
+		int yaw = 2048 - cameraYaw & 0x7ff;
+
+		int offsetX = 0;
+		int offsetY = 0;
+		int offsetZ = distance;
+
+		if (pitch != 0) {
+			int pitchSin = Model.sin[pitch];
+			int pitchCos = Model.cos[pitch];
+			int w = offsetY * pitchCos - offsetZ * pitchSin >> 16;
+			offsetZ = offsetY * pitchSin + offsetZ * pitchCos >> 16;
+			offsetY = w;
+		}
+
+		if (yaw != 0) {
+			int yawSin = Model.sin[yaw];
+			int yawCos = Model.cos[yaw];
+			int w = offsetZ * yawSin + offsetX * yawCos >> 16;
+			offsetZ = offsetZ * yawCos - offsetX * yawSin >> 16;
+			offsetX = w;
+		}
+
+		return new int[] { x - offsetX, y - offsetY, z - offsetZ };
+	}
+
+	/**
+	 * Builds a lit UV sphere resting on the origin.
+	 *
+	 * @param radius the radius.
+	 * @param rings the number of rings, pole to pole.
+	 * @param segments the number of segments around.
+	 * @param priorities whether to give the triangles draw priorities, banded by ring.
+	 * @return the model.
+	 */
+	public static Model createSphere(int radius, int rings, int segments, boolean priorities) {
+		Model m = new Model();
+		m.vertexCount = 2 + (rings - 1) * segments;
+		m.vertexX = new int[m.vertexCount];
+		m.vertexY = new int[m.vertexCount];
+		m.vertexZ = new int[m.vertexCount];
+
+		m.vertexY[0] = -radius * 2;
+		m.vertexY[1] = 0;
+
+		for (int r = 1; r < rings; r++) {
+			double phi = Math.PI * r / rings;
+			for (int s = 0; s < segments; s++) {
+				double theta = 2.0 * Math.PI * s / segments;
+				int v = 2 + (r - 1) * segments + s;
+				m.vertexX[v] = (int) (Math.sin(phi) * Math.cos(theta) * radius);
+				m.vertexY[v] = (int) (-Math.cos(phi) * radius) - radius;
+				m.vertexZ[v] = (int) (Math.sin(phi) * Math.sin(theta) * radius);
+			}
+		}
+
+		m.triangleCount = segments * 2 + (rings - 2) * segments * 2;
+		m.triangleVertexA = new int[m.triangleCount];
+		m.triangleVertexB = new int[m.triangleCount];
+		m.triangleVertexC = new int[m.triangleCount];
+		m.unmodifiedTriangleColor = new int[m.triangleCount];
+
+		if (priorities) {
+			m.trianglePriorities = new int[m.triangleCount];
+		}
+
+		int t = 0;
+		for (int r = 0; r < rings; r++) {
+			for (int s = 0; s < segments; s++) {
+				int next = (s + 1) % segments;
+				int upper = 2 + (r - 1) * segments;
+				int lower = 2 + r * segments;
+				int color = ((r * 5 + s * 3) & 0x3f) << 10 | 5 << 7 | 80;
+
+				if (r == 0) {
+					t = addTriangle(m, t, 0, lower + next, lower + s, color);
+				} else if (r == rings - 1) {
+					t = addTriangle(m, t, upper + s, upper + next, 1, color);
+				} else {
+					t = addTriangle(m, t, upper + s, upper + next, lower + next, color);
+					t = addTriangle(m, t, upper + s, lower + next, lower + s, color);
+				}
+
+				if (priorities) {
+					for (int n = (r == 0 || r == rings - 1) ? 1 : 2; n > 0; n--) {
+						m.trianglePriorities[t - n] = r * 12 / rings;
+					}
+				}
+			}
+		}
+
+		m.applyLighting(64, 768, -50, -10, -50, true);
+		return m;
+	}
+
+	private static int addTriangle(Model m, int t, int a, int b, int c, int color) {
+		m.triangleVertexA[t] = a;
+		m.triangleVertexB[t] = b;
+		m.triangleVertexC[t] = c;
+		m.unmodifiedTriangleColor[t] = color;
+		return t + 1;
+	}
+
+	/**
+	 * Generates triangles spread across the viewport, packed as the screen coordinates, three 16 bit HSL colors,
+	 * three lightnesses, the nine texture space coordinates, whether any vertex is off screen, and a texture index.
+	 *
+	 * @param count the triangle count.
+	 * @param w the viewport width.
+	 * @param h the viewport height.
+	 * @param r the random source.
+	 * @return the triangles.
+	 */
+	public static int[][] createTriangles(int count, int w, int h, Random r) {
+		int[][] triangles = new int[count][23];
+		int centerX = w / 2;
+		int centerY = h / 2;
+
+		for (int n = 0; n < count; n++) {
+			int[] t = triangles[n];
+			int baseX = r.nextInt(1600) - 800;
+			int baseY = r.nextInt(1200) - 600;
+			int baseZ = 400 + r.nextInt(1200);
+			int hs = r.nextInt(512) << 7;
+			boolean offscreen = false;
+
+			for (int v = 0; v < 3; v++) {
+				int x = baseX + r.nextInt(300) - 150;
+				int y = baseY + r.nextInt(300) - 150;
+				int z = Math.max(100, baseZ + r.nextInt(200) - 100);
+				int screenX = centerX + (x << 9) / z;
+
+				t[v * 2] = screenX;
+				t[v * 2 + 1] = centerY + (y << 9) / z;
+				t[6 + v] = hs | (16 + r.nextInt(96));
+				t[9 + v] = r.nextInt(127);
+				t[12 + v] = x;
+				t[15 + v] = y;
+				t[18 + v] = z;
+
+				if (screenX < 0 || screenX >= w) {
+					offscreen = true;
+				}
+			}
+
+			t[21] = offscreen ? 1 : 0;
+			t[22] = n & 3;
+		}
+		return triangles;
+	}
+}
@@ -0,0 +1,44 @@
+package com.runescape;
+
+import java.io.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Unpacks the synthetic cache: constructing an {@link Archive}, and decompressing its body alone with
+ * {@link BZip2InputStream}.
+ *
+ * @author Dane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ArchiveBenchmark {
+
+	private byte[] jag;
+	private byte[] dst;
+	private int unpackedSize;
+	private int packedSize;
+
+	@Setup
+	public void setup() throws IOException {
+		jag = BenchmarkCache.open().jag;
+		unpackedSize = (jag[0] & 0xff) << 16 | (jag[1] & 0xff) << 8 | (jag[2] & 0xff);
+		packedSize = (jag[3] & 0xff) << 16 | (jag[4] & 0xff) << 8 | (jag[5] & 0xff);
+		dst = new byte[unpackedSize];
+	}
+
+	@Benchmark
+	public Archive construct() {
+		return new Archive(jag);
+	}
+
+	@Benchmark
+	public byte[] bzip2Read() {
+		BZip2InputStream.read(dst, unpackedSize, jag, packedSize, 6);
+		return dst;
+	}
+}
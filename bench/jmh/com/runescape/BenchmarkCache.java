@@ -0,0 +1,28 @@
+package com.runescape;
+
+import java.io.*;
+
+/**
+ * Opens the synthetic cache the benchmark jar is built with, so every run measures the same data whatever directory
+ * it's started from.
+ *
+ * @author Dane
+ */
+final class BenchmarkCache {
+
+	private BenchmarkCache() {
+	}
+
+	/**
+	 * @return the scene of the bundled synthetic cache, with its textures and floors loaded.
+	 * @throws IOException if the cache isn't bundled.
+	 */
+	static SyntheticScene open() throws IOException {
+		try (InputStream in = BenchmarkCache.class.getResourceAsStream("/synthetic.jag")) {
+			if (in == null) {
+				throw new FileNotFoundException("synthetic.jag is not on the classpath");
+			}
+			return new SyntheticScene(in.readAllBytes());
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.runescape;
+
+import java.io.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Draws a single sphere in front of the camera, turning it a little each time so the depth sort sees a different
+ * order. Covers the projection, the depth bucket sort and, with priorities, the regrouping by priority.
+ *
+ * @author Dane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ModelBenchmark {
+
+	private int[] pixels;
+	private RenderContext context;
+	private Model sphere;
+	private Model prioritized;
+	private int yaw;
+
+	@Setup
+	public void setup() throws IOException {
+		BenchmarkCache.open();
+
+		pixels = new int[SyntheticScene.WIDTH * SyntheticScene.HEIGHT];
+		context = new RenderContext(pixels, SyntheticScene.WIDTH, SyntheticScene.HEIGHT);
+		sphere = SyntheticScene.createSphere(240, 24, 32, false);
+		prioritized = SyntheticScene.createSphere(240, 24, 32, true);
+	}
+
+	@Benchmark
+	public int draw() {
+		yaw = yaw + 8 & 0x7ff;
+		sphere.draw(context, 0, yaw, 0, 0, 240, 800, 0);
+		return pixels[pixels.length / 2];
+	}
+
+	@Benchmark
+	public int drawPriorities() {
+		yaw = yaw + 8 & 0x7ff;
+		prioritized.draw(context, 0, yaw, 0, 0, 240, 800, 0);
+		return pixels[pixels.length / 2];
+	}
+}
@@ -0,0 +1,61 @@
+package com.runescape;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Fills the same spread of triangles across the viewport through the static {@link Graphics3D} fills. Scores are per
+ * triangle.
+ *
+ * @author Dane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RasterBenchmark {
+
+	private static final int TRIANGLES = 1000;
+
+	private int[] pixels;
+	private int[][] triangles;
+
+	@Setup
+	public void setup() throws IOException {
+		BenchmarkCache.open();
+
+		int w = SyntheticScene.WIDTH;
+		int h = SyntheticScene.HEIGHT;
+
+		pixels = new int[w * h];
+		Graphics2D.prepare(pixels, w, h);
+		Graphics3D.prepareOffsets(w, h);
+		Graphics3D.alpha = 0;
+
+		triangles = SyntheticScene.createTriangles(TRIANGLES, w, h, new Random(194));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TRIANGLES)
+	public int fillShadedTriangle() {
+		for (int[] t : triangles) {
+			Graphics3D.testX = t[21] != 0;
+			Graphics3D.fillShadedTriangle(t[0], t[1], t[2], t[3], t[4], t[5], t[6], t[7], t[8]);
+		}
+		return pixels[pixels.length / 2];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TRIANGLES)
+	public int fillTexturedTriangle() {
+		for (int[] t : triangles) {
+			Graphics3D.testX = t[21] != 0;
+			Graphics3D.fillTexturedTriangle(t[1], t[3], t[5], t[0], t[2], t[4], t[9], t[10], t[11], t[12], t[13], t[14], t[15], t[16], t[17], t[18], t[19], t[20], t[22]);
+		}
+		return pixels[pixels.length / 2];
+	}
+}
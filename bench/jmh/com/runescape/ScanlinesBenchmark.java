@@ -0,0 +1,55 @@
+package com.runescape;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Fills and blends every row of a 512x334 viewport through each {@link Scanlines} backend, so the vector backend can
+ * be compared against the scalar one on the same JVM. Scores are per frame.
+ *
+ * @author Dane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ScanlinesBenchmark {
+
+	private static final int WIDTH = 512;
+	private static final int HEIGHT = 334;
+
+	@Param({"vector", "scalar"})
+	public String backend;
+
+	private Scanlines scanlines;
+	private int[] pixels;
+
+	@Setup
+	public void setup() throws ReflectiveOperationException {
+		if (backend.equals("vector")) {
+			// fail rather than quietly measuring the scalar fallback Scanlines.get() would pick
+			scanlines = Class.forName("com.runescape.VectorScanlines").asSubclass(Scanlines.class).getDeclaredConstructor().newInstance();
+		} else {
+			scanlines = new Scanlines.Scalar();
+		}
+		pixels = new int[WIDTH * HEIGHT];
+	}
+
+	@Benchmark
+	public int fill() {
+		for (int y = 0; y < HEIGHT; y++) {
+			scanlines.fill(pixels, y * WIDTH, WIDTH, 0x3F6F9F + y);
+		}
+		return pixels[pixels.length - 1];
+	}
+
+	@Benchmark
+	public int blend() {
+		for (int y = 0; y < HEIGHT; y++) {
+			scanlines.blend(pixels, y * WIDTH, WIDTH, 0x3F6F9F, 96);
+		}
+		return pixels[pixels.length - 1];
+	}
+}
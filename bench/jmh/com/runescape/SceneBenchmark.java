@@ -0,0 +1,82 @@
+package com.runescape;
+
+import java.io.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Draws and builds the synthetic region: a frame while orbiting its center, the same frame again from a still camera
+ * with and without {@link SceneGraph#cacheProjections}, generating the visibility maps and building the landscape.
+ *
+ * @author Dane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SceneBenchmark {
+
+	private SyntheticScene scene;
+	private SceneGraph graph;
+	private RenderContext context;
+	private int[] pixels;
+
+	private int focusX, focusY, focusZ;
+	private int[] still;
+	private int cameraYaw;
+
+	@Setup
+	public void setup() throws IOException {
+		scene = BenchmarkCache.open();
+
+		int w = SyntheticScene.WIDTH;
+		int h = SyntheticScene.HEIGHT;
+
+		pixels = new int[w * h];
+		context = new RenderContext(pixels, w, h);
+		SceneGraph.init(context, w, h, 500, 800);
+
+		graph = scene.build();
+		scene.addModels(SyntheticScene.createSphere(48, 10, 16, false), 4);
+
+		focusX = (SyntheticScene.BASE_TILE + 32) * 128;
+		focusZ = (SyntheticScene.BASE_TILE + 32) * 128;
+		focusY = scene.getLandY(focusX, focusZ) - 50;
+		still = SyntheticScene.orbit(focusX, focusY, focusZ, 256, 340, 1600);
+	}
+
+	@Benchmark
+	public int draw() {
+		cameraYaw = cameraYaw + 16 & 0x7ff;
+		int[] camera = SyntheticScene.orbit(focusX, focusY, focusZ, cameraYaw, 340, 1600);
+		graph.cacheProjections = false;
+		graph.draw(context, camera[0], camera[1], camera[2], 340, cameraYaw, 3);
+		return pixels[pixels.length / 2];
+	}
+
+	@Benchmark
+	public int drawStill() {
+		graph.cacheProjections = false;
+		graph.draw(context, still[0], still[1], still[2], 340, 256, 3);
+		return pixels[pixels.length / 2];
+	}
+
+	@Benchmark
+	public int drawStillCached() {
+		graph.cacheProjections = true;
+		graph.draw(context, still[0], still[1], still[2], 340, 256, 3);
+		return pixels[pixels.length / 2];
+	}
+
+	@Benchmark
+	public long[][][] createVisibilityMaps() {
+		return SceneGraph.createVisibilityMaps(SyntheticScene.WIDTH, SyntheticScene.HEIGHT, 500, 800);
+	}
+
+	@Benchmark
+	public SceneGraph buildLandscape() {
+		return new SyntheticScene(scene.jag).build();
+	}
+}
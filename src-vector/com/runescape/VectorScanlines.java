@@ -0,0 +1,53 @@
+package com.runescape;
+
+import jdk.incubator.vector.*;
+
+/**
+ * The {@link Scanlines} backend built on the Vector API. Compiling it needs
+ * <code>--add-modules jdk.incubator.vector</code>, and so does running it; without the module {@link Scanlines} falls
+ * back to scalar.
+ *
+ * @author Dane
+ */
+final class VectorScanlines extends Scanlines {
+
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	@Override
+	public void fill(int[] dst, int off, int length, int rgb) {
+		int end = off + length;
+		int bound = off + SPECIES.loopBound(length);
+		IntVector v = IntVector.broadcast(SPECIES, rgb);
+
+		for (; off < bound; off += SPECIES.length()) {
+			v.intoArray(dst, off);
+		}
+
+		for (; off < end; off++) {
+			dst[off] = rgb;
+		}
+	}
+
+	@Override
+	public void blend(int[] dst, int off, int length, int rgb, int alpha) {
+		int end = off + length;
+		int bound = off + SPECIES.loopBound(length);
+		IntVector src = IntVector.broadcast(SPECIES, rgb);
+
+		for (; off < bound; off += SPECIES.length()) {
+			IntVector d = IntVector.fromArray(SPECIES, dst, off);
+			IntVector rb = d.and(0xFF00FF).mul(alpha).lanewise(VectorOperators.ASHR, 8).and(0xFF00FF);
+			IntVector g = d.and(0xFF00).mul(alpha).lanewise(VectorOperators.ASHR, 8).and(0xFF00);
+			src.add(rb).add(g).intoArray(dst, off);
+		}
+
+		for (; off < end; off++) {
+			dst[off] = (rgb + ((dst[off] & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * alpha >> 8 & 0xFF00));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "vector " + SPECIES;
+	}
+}
@@ -1,7 +1,11 @@
 package com.runescape;
 
+import java.util.*;
+
 public final class Archive {
 
+	public static final int INDEX_HASH = StringUtil.getHash("index.dat");
+
 	public byte[] data;
 	public int fileCount;
 	public int[] fileHash;
@@ -9,6 +13,20 @@ public final class Archive {
 	public int[] filePackedSize;
 	public int[] fileOffset;
 
+	/**
+	 * An open-addressed table of {@code file + 1}, keyed by name hash. Zero marks an empty slot.
+	 */
+	private int[] slots;
+	private int slotMask;
+
+	/**
+	 * Decompressed entries keyed by file index, least recently used first. Only compressed entries are cached since
+	 * stored ones can be sliced straight out of {@link #data}.
+	 */
+	private LinkedHashMap<Integer, byte[]> cache;
+	private int cacheWeight;
+	private int cacheMaxWeight;
+
 	public Archive(byte[] src) {
 		read(src);
 	}
@@ -42,6 +60,57 @@ public final class Archive {
 			fileOffset[n] = pos;
 			pos += filePackedSize[n];
 		}
+
+		int capacity = 1;
+		while (capacity < fileCount * 2) {
+			capacity <<= 1;
+		}
+
+		slots = new int[capacity];
+		slotMask = capacity - 1;
+
+		for (int n = 0; n < fileCount; n++) {
+			int slot = mix(fileHash[n]) & slotMask;
+
+			for (;;) {
+				int file = slots[slot] - 1;
+
+				if (file == -1) {
+					slots[slot] = n + 1;
+					break;
+				}
+
+				// duplicate names resolve to the first file, same as a linear scan would.
+				if (fileHash[file] == fileHash[n]) {
+					break;
+				}
+
+				slot = (slot + 1) & slotMask;
+			}
+		}
+	}
+
+	private static int mix(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * @param hash the name hash, as given by {@link StringUtil#getHash(String)}.
+	 * @return the index of the file, or -1 if there is none.
+	 */
+	public int indexOf(int hash) {
+		int slot = mix(hash) & slotMask;
+
+		for (;;) {
+			int file = slots[slot] - 1;
+
+			if (file == -1 || fileHash[file] == hash) {
+				return file;
+			}
+
+			slot = (slot + 1) & slotMask;
+		}
 	}
 
 	public byte[] get(String name) {
@@ -49,22 +118,128 @@ public final class Archive {
 	}
 
 	public byte[] get(String name, byte[] dst) {
-		int hash = StringUtil.getHash(name);
+		return get(StringUtil.getHash(name), dst);
+	}
 
-		for (int n = 0; n < fileCount; n++) {
-			if (fileHash[n] == hash) {
-				if (dst == null) {
-					dst = new byte[fileUnpackedSize[n]];
+	/**
+	 * Enables caching of decompressed entries for {@link #getShared(int)} and {@link #slice(int)}.
+	 *
+	 * @param maxWeight the maximum number of decompressed bytes to keep, or 0 to disable the cache.
+	 */
+	public synchronized void setCacheWeight(int maxWeight) {
+		if (maxWeight <= 0) {
+			cache = null;
+		} else if (cache == null) {
+			cache = new LinkedHashMap<>(16, 0.75f, true);
+		}
+		cacheMaxWeight = maxWeight;
+		cacheWeight = 0;
+
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	public byte[] getShared(String name) {
+		return getShared(StringUtil.getHash(name));
+	}
+
+	/**
+	 * Unlike {@link #get(int, byte[])} the returned array may be shared with other callers and the archive's cache, so
+	 * it must not be modified. Compressed entries are only decompressed again once they've been evicted.
+	 *
+	 * @param hash the name hash, as given by {@link StringUtil#getHash(String)}.
+	 * @return the file data, or {@code null} if there is no such file.
+	 */
+	public byte[] getShared(int hash) {
+		int n = indexOf(hash);
+
+		if (n == -1) {
+			return null;
+		}
+
+		if (fileUnpackedSize[n] == filePackedSize[n]) {
+			return get(hash, null);
+		}
+		return getDecompressed(n);
+	}
+
+	public Buffer slice(String name) {
+		return slice(StringUtil.getHash(name));
+	}
+
+	/**
+	 * Stored entries are read straight out of {@link #data} and cost no copy. Compressed entries are read from their
+	 * (possibly cached) decompressed data. Either way the buffer must only be read from.
+	 *
+	 * @param hash the name hash, as given by {@link StringUtil#getHash(String)}.
+	 * @return a buffer over the file, or {@code null} if there is no such file.
+	 */
+	public Buffer slice(int hash) {
+		int n = indexOf(hash);
+
+		if (n == -1) {
+			return null;
+		}
+
+		if (fileUnpackedSize[n] == filePackedSize[n]) {
+			return new Buffer(data, fileOffset[n], fileUnpackedSize[n]);
+		}
+		return new Buffer(getDecompressed(n));
+	}
+
+	private byte[] getDecompressed(int n) {
+		synchronized (this) {
+			if (cache != null) {
+				byte[] b = cache.get(n);
+				if (b != null) {
+					return b;
+				}
+			}
+		}
+
+		byte[] dst = new byte[fileUnpackedSize[n]];
+		BZip2InputStream.read(dst, fileUnpackedSize[n], data, filePackedSize[n], fileOffset[n]);
+
+		synchronized (this) {
+			if (cache != null && dst.length <= cacheMaxWeight) {
+				if (cache.put(n, dst) == null) {
+					cacheWeight += dst.length;
 				}
 
-				if (fileUnpackedSize[n] != filePackedSize[n]) {
-					BZip2InputStream.read(dst, fileUnpackedSize[n], data, filePackedSize[n], fileOffset[n]);
-				} else {
-					System.arraycopy(data, fileOffset[n], dst, 0, fileUnpackedSize[n]);
+				Iterator<byte[]> it = cache.values().iterator();
+				while (cacheWeight > cacheMaxWeight && it.hasNext()) {
+					cacheWeight -= it.next().length;
+					it.remove();
 				}
-				return dst;
 			}
 		}
-		return null;
+		return dst;
+	}
+
+	/**
+	 * Lets callers that look up the same file repeatedly hash its name once.
+	 *
+	 * @param hash the name hash, as given by {@link StringUtil#getHash(String)}.
+	 * @param dst the destination, or {@code null} to allocate one.
+	 * @return the file data, or {@code null} if there is no such file.
+	 */
+	public byte[] get(int hash, byte[] dst) {
+		int n = indexOf(hash);
+
+		if (n == -1) {
+			return null;
+		}
+
+		if (dst == null) {
+			dst = new byte[fileUnpackedSize[n]];
+		}
+
+		if (fileUnpackedSize[n] != filePackedSize[n]) {
+			BZip2InputStream.read(dst, fileUnpackedSize[n], data, filePackedSize[n], fileOffset[n]);
+		} else {
+			System.arraycopy(data, fileOffset[n], dst, 0, fileUnpackedSize[n]);
+		}
+		return dst;
 	}
 }
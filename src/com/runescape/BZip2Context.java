@@ -35,7 +35,7 @@ class BZip2Context {
 	int anInt469;
 	int[] anIntArray470 = new int[257];
 	int[] anIntArray471 = new int[257];
-	public static int[] anIntArray472;
+	int[] anIntArray472;
 	int anInt473;
 	boolean[] aBooleanArray474 = new boolean[256];
 	boolean[] aBooleanArray475 = new boolean[16];
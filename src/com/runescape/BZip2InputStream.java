@@ -2,8 +2,48 @@ package com.runescape;
 
 public final class BZip2InputStream {
 
+	/**
+	 * Idle contexts. Each holds around half a megabyte of tables, so they're recycled rather than reallocated on every
+	 * read and there's one per thread decompressing at once.
+	 */
+	private static final BZip2Context[] pool = new BZip2Context[8];
+	private static int poolSize;
+
+	private static BZip2Context acquire() {
+		synchronized (pool) {
+			if (poolSize > 0) {
+				BZip2Context c = pool[--poolSize];
+				pool[poolSize] = null;
+				return c;
+			}
+		}
+		return new BZip2Context();
+	}
+
+	private static void release(BZip2Context c) {
+		c.src = null;
+		c.dst = null;
+
+		synchronized (pool) {
+			if (poolSize < pool.length) {
+				pool[poolSize++] = c;
+			}
+		}
+	}
+
+	/**
+	 * Safe to call from any number of threads at once; every call decodes through its own context.
+	 */
 	public static int read(byte[] dst, int dstLen, byte[] src, int srcLen, int srcOff) {
-		BZip2Context c = new BZip2Context();
+		BZip2Context c = acquire();
+		try {
+			return read(c, dst, dstLen, src, srcLen, srcOff);
+		} finally {
+			release(c);
+		}
+	}
+
+	private static int read(BZip2Context c, byte[] dst, int dstLen, byte[] src, int srcLen, int srcOff) {
 		c.src = src;
 		c.srcOff = srcOff;
 		c.dst = dst;
@@ -17,6 +57,8 @@ public final class BZip2InputStream {
 		c.anInt456 = 0;
 		c.anInt457 = 0;
 		c.anInt464 = 0;
+		c.anInt459 = 0;
+		c.aByte458 = 0;
 		method244(c);
 		dstLen -= c.dstLen;
 		return dstLen;
@@ -27,7 +69,7 @@ public final class BZip2InputStream {
 		int i_3_ = c.anInt459;
 		int i_4_ = c.anInt469;
 		int i_5_ = c.anInt467;
-		int[] is = BZip2Context.anIntArray472;
+		int[] is = c.anIntArray472;
 		int i_6_ = c.anInt466;
 		byte[] is_7_ = c.dst;
 		int i_8_ = c.anInt454;
@@ -129,7 +171,7 @@ public final class BZip2InputStream {
 		c.anInt459 = i_3_;
 		c.anInt469 = i_4_;
 		c.anInt467 = i_5_;
-		BZip2Context.anIntArray472 = is;
+		c.anIntArray472 = is;
 		c.anInt466 = i_6_;
 		c.dst = is_7_;
 		c.anInt454 = i_8_;
@@ -142,8 +184,8 @@ public final class BZip2InputStream {
 		int[] is_33_ = null;
 		int[] is_34_ = null;
 		c.anInt463 = 1;
-		if (BZip2Context.anIntArray472 == null) {
-			BZip2Context.anIntArray472 = new int[c.anInt463 * 100000];
+		if (c.anIntArray472 == null) {
+			c.anIntArray472 = new int[c.anInt463 * 100000];
 		}
 		boolean bool_35_ = true;
 		while (bool_35_) {
@@ -323,7 +365,7 @@ public final class BZip2InputStream {
 					i_37_ = (c.aByteArray476[(c.aByteArray477[c.anIntArray478[0]] & 0xff)]);
 					c.anIntArray468[i_37_ & 0xff] += i_73_;
 					for (/**/; i_73_ > 0; i_73_--) {
-						BZip2Context.anIntArray472[i_67_] = i_37_ & 0xff;
+						c.anIntArray472[i_67_] = i_37_ & 0xff;
 						i_67_++;
 					}
 				} else {
@@ -369,7 +411,7 @@ public final class BZip2InputStream {
 						}
 					}
 					c.anIntArray468[(c.aByteArray476[i_36_ & 0xff] & 0xff)]++;
-					BZip2Context.anIntArray472[i_67_] = c.aByteArray476[i_36_ & 0xff] & 0xff;
+					c.anIntArray472[i_67_] = c.aByteArray476[i_36_ & 0xff] & 0xff;
 					i_67_++;
 					if (i_62_ == 0) {
 						i_61_++;
@@ -399,13 +441,13 @@ public final class BZip2InputStream {
 				c.anIntArray470[i_87_] += c.anIntArray470[i_87_ - 1];
 			}
 			for (int i_88_ = 0; i_88_ < i_67_; i_88_++) {
-				i_37_ = (byte) (BZip2Context.anIntArray472[i_88_] & 0xff);
-				BZip2Context.anIntArray472[c.anIntArray470[i_37_ & 0xff]] |= i_88_ << 8;
+				i_37_ = (byte) (c.anIntArray472[i_88_] & 0xff);
+				c.anIntArray472[c.anIntArray470[i_37_ & 0xff]] |= i_88_ << 8;
 				c.anIntArray470[i_37_ & 0xff]++;
 			}
-			c.anInt466 = BZip2Context.anIntArray472[c.anInt465] >> 8;
+			c.anInt466 = c.anIntArray472[c.anInt465] >> 8;
 			c.anInt469 = 0;
-			c.anInt466 = BZip2Context.anIntArray472[c.anInt466];
+			c.anInt466 = c.anIntArray472[c.anInt466];
 			c.anInt467 = (byte) (c.anInt466 & 0xff);
 			c.anInt466 >>= 8;
 			c.anInt469++;
@@ -14,9 +14,9 @@ public final class BitmapFont extends Graphics2D {
 	public int height;
 
 	public BitmapFont(String name, Archive archive) {
-		Buffer dat = new Buffer(archive.get(name + ".dat", null));
-		Buffer idx = new Buffer(archive.get("index.dat", null));
-		idx.position = dat.readUShort() + 4;
+		Buffer dat = archive.slice(name + ".dat");
+		Buffer idx = archive.slice(Archive.INDEX_HASH);
+		idx.position = idx.offset + dat.readUShort() + 4;
 
 		int off = idx.read();
 
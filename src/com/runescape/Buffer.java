@@ -10,6 +10,12 @@ public final class Buffer extends QueueLink {
 	public int bitPos;
 	public IsaacRandom isaac;
 
+	/**
+	 * Where the readable data starts and how long it is, for a buffer made over part of an array by
+	 * {@link #Buffer(byte[], int, int)}. Positions are still absolute, so readers seek relative to the offset.
+	 */
+	public int offset, length;
+
 	private int start, varSize;
 
 	private static final int[] BITMASK;
@@ -66,6 +72,21 @@ public final class Buffer extends QueueLink {
 	public Buffer(byte[] src) {
 		data = src;
 		position = 0;
+		length = src.length;
+	}
+
+	/**
+	 * Creates a buffer over part of an array without copying it. The first read is at the offset.
+	 *
+	 * @param src the array.
+	 * @param offset the offset of the first byte.
+	 * @param length the number of bytes.
+	 */
+	public Buffer(byte[] src, int offset, int length) {
+		data = src;
+		position = offset;
+		this.offset = offset;
+		this.length = length;
 	}
 
 	public void startVarSize(int opcode, int bytes) {
@@ -8,6 +8,8 @@ import java.awt.event.*;
 import java.io.*;
 import java.math.*;
 import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.logging.*;
 import java.util.zip.*;
 import net.burtleburtle.bob.rand.*;
@@ -21,6 +23,17 @@ public class Game extends GameShell {
 
 	private static final Logger logger = Logger.getLogger(Game.class.getName());
 
+	/**
+	 * The decompressed bytes each sprite and font archive keeps around, so the index.dat shared by every sprite is
+	 * only decompressed once.
+	 */
+	private static final int ARCHIVE_CACHE_WEIGHT = 512 * 1024;
+
+	/**
+	 * The number of archives fetched and verified at once during startup.
+	 */
+	private static final int ARCHIVE_LOADER_THREADS = 4;
+
 	/* Constants */
 	public static final long serialVersionUID = -1412785310365267985L;
 
@@ -74,6 +87,12 @@ public class Game extends GameShell {
 	public int[] archiveCRC = new int[8];
 	public CRC32 crc32 = new CRC32();
 
+	/* Startup */
+	private Thread startupThread;
+	private String postedCaption;
+	private int postedPercent;
+	private int unpackPercent = 85;
+
 	/* Game */
 	public int gameAllowSpokenEffects;
 	public int gameWildernessLevel;
@@ -265,6 +284,39 @@ public class Game extends GameShell {
 	public Sprite mapdot3;
 	public Sprite[] mapfunctions = new Sprite[50];
 	public Sprite minimap;
+
+	/**
+	 * The minimap pixels of each plane of the current region, or <code>null</code> if the plane hasn't been drawn yet.
+	 */
+	public int[][] minimapPlanes = new int[4][];
+
+	/**
+	 * The tiles of each cached minimap plane which have changed since it was drawn.
+	 */
+	public boolean[][][] minimapDirty = new boolean[4][104][104];
+
+	/**
+	 * The <code>{minX, minZ, maxX, maxZ}</code> bounds of the dirty tiles of each minimap plane, or <code>null</code>
+	 * if the plane is clean.
+	 */
+	public int[][] minimapDirtyBounds = new int[4][];
+
+	/**
+	 * The pixels dirty minimap tiles are redrawn into before being copied to their plane.
+	 */
+	public int[] minimapScratch;
+
+	/**
+	 * How many tiles the largest minimap icon or mapscene spills past the tiles of the location drawing it. Set by
+	 * {@link #loadMedia(Archive)}.
+	 */
+	public int minimapSpriteReach;
+
+	/**
+	 * The size of the largest location drawing a minimap icon or mapscene. Set by {@link #loadConfigs(Archive)}.
+	 */
+	public int minimapLocSize = 1;
+
 	public int minimapDrawPhase;
 	public int minimapFunctionCount;
 	public Sprite[] minimapFunctions = new Sprite[1000];
@@ -546,6 +598,7 @@ public class Game extends GameShell {
 	}
 
 	public void loadFonts(Archive title) {
+		title.setCacheWeight(ARCHIVE_CACHE_WEIGHT);
 		fontSmall = new BitmapFont("p11", title);
 		fontNormal = new BitmapFont("p12", title);
 		fontBold = new BitmapFont("b12", title);
@@ -564,7 +617,8 @@ public class Game extends GameShell {
 	}
 
 	public void loadMedia(Archive media) {
-		drawProgress("Unpacking media", 80);
+		drawProgress("Unpacking media", unpackPercent);
+		media.setCacheWeight(ARCHIVE_CACHE_WEIGHT);
 		invback = new IndexedSprite(media, "invback", 0);
 		chatback = new IndexedSprite(media, "chatback", 0);
 		mapback = new IndexedSprite(media, "mapback", 0);
@@ -589,6 +643,21 @@ public class Game extends GameShell {
 		} catch (Exception exception) {
 			/* empty */
 		}
+
+		minimapSpriteReach = 0;
+
+		for (IndexedSprite s : mapscenes) {
+			if (s != null) {
+				minimapSpriteReach = Math.max(minimapSpriteReach, getMinimapSpriteReach(s.width, s.height, s.clipX, s.clipY));
+			}
+		}
+
+		for (Sprite s : mapfunctions) {
+			if (s != null) {
+				minimapSpriteReach = Math.max(minimapSpriteReach, getMinimapSpriteReach(s.width, s.height, s.clipX, s.clipY));
+			}
+		}
+
 		try {
 			for (int i = 0; i < 20; i++) {
 				hitmarks[i] = new Sprite(media, "hitmarks", i);
@@ -680,24 +749,50 @@ public class Game extends GameShell {
 	}
 
 	public void loadTextures(Archive textures) {
-		drawProgress("Unpacking textures", 85);
-		Graphics3D.unpackTextures(textures);
-		Graphics3D.generatePalette(0.8);
-		Graphics3D.setupPools(20);
+		drawProgress("Unpacking textures", unpackPercent);
+
+		StartupProfiler.time("Graphics3D.unpackTextures", () -> Graphics3D.unpackTextures(textures));
+
+		StartupProfiler.time("Graphics3D.generatePalette", () -> {
+			Graphics3D.generatePalette(0.8);
+			Graphics3D.setupPools(20);
+		});
 	}
 
 	public void loadModels(Archive models) {
-		drawProgress("Unpacking models", 85);
-		Model.load(models);
-		ModelExtension.unpack();
-		AnimationTransform.load(models);
-		AnimationFrame.load(models);
+		drawProgress("Unpacking models", unpackPercent);
+
+		StartupProfiler.time("Model.load", () -> Model.load(models));
+
+		StartupProfiler.time("ModelExtension.unpack", () -> {
+			ModelUnpackResult result = ModelExtension.unpack();
+
+			if (result != null) {
+				logger.log(Level.INFO, "{0}", result);
+			}
+		});
+
+		StartupProfiler.time("animations", () -> {
+			AnimationTransform.load(models);
+			AnimationFrame.load(models);
+		});
 	}
 
 	public void loadConfigs(Archive config) {
-		drawProgress("Unpacking config", 85);
+		drawProgress("Unpacking config", unpackPercent);
 		Animation.load(config);
 		LocationInfo.load(config);
+
+		minimapLocSize = 1;
+
+		for (int i = 0; i < LocationInfo.count; i++) {
+			LocationInfo c = LocationInfo.get(i);
+
+			if (c.mapscene != -1 || c.mapfunction != -1) {
+				minimapLocSize = Math.max(minimapLocSize, Math.max(c.sizeX, c.sizeZ));
+			}
+		}
+
 		FloorType.unpack(config);
 		ObjectInfo.load(config);
 		NPCInfo.load(config);
@@ -706,6 +801,23 @@ public class Game extends GameShell {
 		Varp.load(config);
 	}
 
+	/**
+	 * Returns how many tiles a minimap sprite spills past a one tile location it's centered on, which is as far as it
+	 * spills past any larger one.
+	 *
+	 * @param width the width.
+	 * @param height the height.
+	 * @param clipX the x the pixels are drawn at.
+	 * @param clipY the y the pixels are drawn at.
+	 * @return the tile count.
+	 */
+	private static int getMinimapSpriteReach(int width, int height, int clipX, int clipY) {
+		int x = ((4 - width) / 2) + clipX;
+		int y = ((4 - height) / 2) + clipY;
+		int spill = Math.max(Math.max(-x, x + width - 4), Math.max(-y, y + height - 4));
+		return (Math.max(spill, 0) + 3) / 4;
+	}
+
 	public void prepareRotatables() {
 		for (int y = 0; y < 33; y++) {
 			int min = 999;
@@ -763,36 +875,15 @@ public class Game extends GameShell {
 		}
 
 		try {
-			loadArchiveCRCs();
-
-			titleArchive = loadArchive("title screen", "title", archiveCRC[1], 10);
+			StartupProfiler.reset();
 
-			loadFonts(titleArchive);
-			loadTitleBackground();
-			loadTitleForeground();
+			StartupProfiler.time("CRC fetch", () -> loadArchiveCRCs());
 
-			Archive config = loadArchive("config", "config", archiveCRC[2], 20);
-			Archive widget = loadArchive("interface", "interface", archiveCRC[3], 30);
-			Archive media = loadArchive("2d graphics", "media", archiveCRC[4], 40);
-			Archive models = loadArchive("3d graphics", "models", archiveCRC[5], 50);
-			Archive textures = loadArchive("textures", "textures", archiveCRC[6], 60);
-
-			Censor.load(loadArchive("chat system", "wordenc", archiveCRC[7], 70));
-
-			initSceneComponents();
-
-			minimap = new Sprite(512, 512);
-
-			loadMedia(media);
-			loadTextures(textures);
-			loadModels(models);
-			loadConfigs(config);
-
-			drawProgress("Unpacking interfaces", 90);
-			Widget.load(new BitmapFont[]{fontSmall, fontNormal, fontBold, fontFancy}, media, widget);
+			loadArchives();
 
 			drawProgress("Preparing game engine", 95);
-			prepareRotatables();
+
+			StartupProfiler.time("prepareRotatables", () -> prepareRotatables());
 
 			Graphics3D.prepareOffsets(479, 96);
 			chatOffsets = Graphics3D.offsets;
@@ -803,13 +894,209 @@ public class Game extends GameShell {
 			Graphics3D.prepareOffsets(512, 334);
 			viewportOffsets = Graphics3D.offsets;
 
-			SceneGraph.init(512, 334, 500, 800);
+			StartupProfiler.time("SceneGraph.init", () -> SceneGraph.init(512, 334, 500, 800));
+
+			StartupProfiler.finish();
 		} catch (Exception e) {
 			errorLoading = true;
 			logger.log(Level.SEVERE, "Error starting game", e);
 		}
 	}
 
+	/**
+	 * Fetches and verifies every archive on a bounded pool. Each unpacking step runs on this thread as soon as its
+	 * archive is ready and the steps it reads the output of have run. The steps share static renderer state, so they
+	 * still run one at a time; only the fetching, CRC checks and decompression overlap.
+	 *
+	 * Subclasses adjust the steps by overriding {@link #unpackTitle(Archive)}, {@link #loadMedia(Archive)},
+	 * {@link #loadTextures(Archive)}, {@link #loadModels(Archive)}, {@link #loadConfigs(Archive)} and
+	 * {@link #isUnpackingInterfaces()}.
+	 *
+	 * @throws Exception if an archive failed to load or unpack.
+	 */
+	protected void loadArchives() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(ARCHIVE_LOADER_THREADS);
+		CompletionService<Archive> loaded = new ExecutorCompletionService<>(executor);
+		startupThread = Thread.currentThread();
+
+		try {
+			Future<Archive> title = loaded.submit(() -> loadArchive("title screen", "title", archiveCRC[1], 10));
+			Future<Archive> config = loaded.submit(() -> loadArchive("config", "config", archiveCRC[2], 20));
+			Future<Archive> media = loaded.submit(() -> loadArchive("2d graphics", "media", archiveCRC[4], 40));
+			Future<Archive> models = loaded.submit(() -> loadArchive("3d graphics", "models", archiveCRC[5], 50));
+			Future<Archive> textures = loaded.submit(() -> loadArchive("textures", "textures", archiveCRC[6], 60));
+
+			initSceneComponents();
+
+			minimap = new Sprite(512, 512);
+
+			// each step lists the steps whose output it reads: Animation.load reads the animation frames loadModels
+			// unpacks, and Widget.load reads the fonts, models and configs.
+			UnpackStep titleStep = new UnpackStep(() -> {
+				titleArchive = title.get();
+				StartupProfiler.time("title", () -> unpackTitle(titleArchive));
+			}, title);
+
+			UnpackStep mediaStep = new UnpackStep(() -> {
+				Archive a = media.get();
+				StartupProfiler.time("media", () -> loadMedia(a));
+			}, media);
+
+			UnpackStep texturesStep = new UnpackStep(() -> loadTextures(textures.get()), textures);
+			UnpackStep modelsStep = new UnpackStep(() -> loadModels(models.get()), models);
+
+			UnpackStep configStep = new UnpackStep(() -> {
+				Archive a = config.get();
+				StartupProfiler.time("configs", () -> loadConfigs(a));
+			}, config, modelsStep);
+
+			UnpackStep[] steps = {titleStep, mediaStep, texturesStep, modelsStep, configStep};
+			int archiveCount = 5;
+
+			if (isUnpackingInterfaces()) {
+				Future<Archive> widget = loaded.submit(() -> loadArchive("interface", "interface", archiveCRC[3], 30));
+				Future<Archive> wordenc = loaded.submit(() -> loadArchive("chat system", "wordenc", archiveCRC[7], 70));
+
+				UnpackStep censorStep = new UnpackStep(() -> {
+					Archive a = wordenc.get();
+					StartupProfiler.time("Censor.load", () -> Censor.load(a));
+				}, wordenc);
+
+				UnpackStep widgetStep = new UnpackStep(() -> {
+					drawProgress("Unpacking interfaces", unpackPercent);
+					StartupProfiler.time("Widget.load", () -> Widget.load(new BitmapFont[]{fontSmall, fontNormal, fontBold, fontFancy}, media.get(), widget.get()));
+				}, widget, titleStep, mediaStep, modelsStep, configStep);
+
+				steps = new UnpackStep[]{titleStep, mediaStep, texturesStep, modelsStep, configStep, censorStep, widgetStep};
+				archiveCount = 7;
+			}
+
+			int fetched = 0;
+			int done = 0;
+
+			while (done < steps.length) {
+				unpackPercent = 10 + (80 * (fetched + done)) / (archiveCount + steps.length);
+
+				UnpackStep next = null;
+
+				for (UnpackStep step : steps) {
+					if (step.isReady()) {
+						next = step;
+						break;
+					}
+				}
+
+				if (next == null) {
+					// nothing is ready to unpack, so wait for the next archive and draw whatever the loaders posted.
+					drawPostedProgress();
+
+					if (fetched < archiveCount && loaded.poll(50, TimeUnit.MILLISECONDS) != null) {
+						fetched++;
+					}
+					continue;
+				}
+
+				next.action.run();
+				next.done = true;
+				done++;
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		} finally {
+			startupThread = null;
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Unpacks the fonts and title screen. Runs before the steps that draw text.
+	 *
+	 * @param title the title archive.
+	 */
+	protected void unpackTitle(Archive title) {
+		loadFonts(title);
+		loadTitleBackground();
+		loadTitleForeground();
+	}
+
+	/**
+	 * @return true if {@link #loadArchives()} also unpacks the interfaces and chat filter, which only the client
+	 * itself uses.
+	 */
+	protected boolean isUnpackingInterfaces() {
+		return true;
+	}
+
+	/**
+	 * An unpacking step of {@link #loadArchives()}. It is ready once its archive has been fetched and every step whose
+	 * output it reads has run.
+	 */
+	private static final class UnpackStep {
+
+		final StartupProfiler.Action<Exception> action;
+		final Future<Archive> archive;
+		final UnpackStep[] after;
+		boolean done;
+
+		UnpackStep(StartupProfiler.Action<Exception> action, Future<Archive> archive, UnpackStep... after) {
+			this.action = action;
+			this.archive = archive;
+			this.after = after;
+		}
+
+		boolean isReady() {
+			if (done || !archive.isDone()) {
+				return false;
+			}
+
+			for (UnpackStep step : after) {
+				if (!step.done) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Archive loaders may run off the startup thread, where drawing would race the unpacking steps for the shared
+	 * {@link Graphics2D} target. Their progress is posted here instead and drawn by the startup thread.
+	 *
+	 * @param caption the caption.
+	 * @param percent the percent (0-100).
+	 */
+	public void postProgress(String caption, int percent) {
+		Thread t = startupThread;
+
+		if (t == null || t == Thread.currentThread()) {
+			drawProgress(caption, percent);
+			return;
+		}
+
+		synchronized (this) {
+			postedCaption = caption;
+			postedPercent = percent;
+		}
+	}
+
+	private void drawPostedProgress() {
+		String caption;
+		int percent;
+
+		synchronized (this) {
+			caption = postedCaption;
+			percent = postedPercent;
+			postedCaption = null;
+		}
+
+		if (caption != null) {
+			drawProgress(caption, percent);
+		}
+	}
+
 	/**
 	 * Attempts to load the archive data locally. If there is no local data stored, it will open a connection to the URL
 	 * of the archive and download it.
@@ -821,11 +1108,42 @@ public class Game extends GameShell {
 	 * @return the archive file.
 	 */
 	public Archive loadArchive(String archiveName, String archiveFile, int crc, int percent) {
+		byte[] data;
+
+		StartupProfiler.Phase p = StartupProfiler.begin("fetch " + archiveFile);
+
+		try {
+			data = fetchArchive(archiveName, archiveFile, crc, percent);
+		} finally {
+			p.end();
+		}
+
+		p = StartupProfiler.begin("decompress " + archiveFile);
+
+		try {
+			return new Archive(data);
+		} finally {
+			p.end();
+		}
+	}
+
+	/**
+	 * Reads an archive from the cache, or downloads it if it isn't there. Called from the archive loaders, so progress
+	 * must go through {@link #postProgress(String, int)}.
+	 *
+	 * @param archiveName the archive name.
+	 * @param archiveFile the archive file.
+	 * @param crc the archive crc.
+	 * @param percent the load percentage.
+	 * @return the archive data.
+	 */
+	protected byte[] fetchArchive(String archiveName, String archiveFile, int crc, int percent) {
 		int wait = 5;
 		byte[] data = Signlink.loadFile(archiveFile);
 
 		if (data != null) {
-			crc32.reset();
+			// local so that archives can be verified concurrently
+			CRC32 crc32 = new CRC32();
 			crc32.update(data);
 
 			int readcrc = (int) crc32.getValue();
@@ -836,11 +1154,11 @@ public class Game extends GameShell {
 		}
 
 		if (data != null) {
-			return new Archive(data);
+			return data;
 		}
 
 		while (data == null) {
-			drawProgress("Requesting " + archiveName, percent);
+			postProgress("Requesting " + archiveName, percent);
 
 			try {
 				int lastPercent = 0;
@@ -871,7 +1189,7 @@ public class Game extends GameShell {
 						int currentPercent = read * 100 / size;
 
 						if (currentPercent != lastPercent) {
-							drawProgress("Loading " + archiveName + " - " + currentPercent + "%", currentPercent);
+							postProgress("Loading " + archiveName + " - " + currentPercent + "%", currentPercent);
 						}
 
 						lastPercent = currentPercent;
@@ -883,7 +1201,7 @@ public class Game extends GameShell {
 				logger.log(Level.WARNING, "Error loading archive", e);
 
 				for (int s = wait; s > 0; s--) {
-					drawProgress(("Error loading - Will retry in " + s + " secs."), percent);
+					postProgress(("Error loading - Will retry in " + s + " secs."), percent);
 					try {
 						Thread.sleep(1000L);
 					} catch (Exception ex) {
@@ -898,7 +1216,7 @@ public class Game extends GameShell {
 			}
 		}
 		Signlink.saveFile(archiveFile, data);
-		return new Archive(data);
+		return data;
 	}
 
 	public final void loadTitleBackground() {
@@ -1005,6 +1323,7 @@ public class Game extends GameShell {
 
 			if (redraw) {
 				redraw = false;
+				ImageProducer.invalidate();
 
 				if (!flameThreadRunning) {
 					titleLeft.draw(graphics, 0, 0);
@@ -1107,6 +1426,7 @@ public class Game extends GameShell {
 
 	@Override
 	public void refresh() {
+		ImageProducer.invalidate();
 		redraw = true;
 	}
 
@@ -1137,6 +1457,7 @@ public class Game extends GameShell {
 			viewport = new ImageProducer(512, 334);
 			Graphics2D.clear();
 
+			ImageProducer.invalidate();
 			redraw = true;
 		}
 	}
@@ -1182,6 +1503,7 @@ public class Game extends GameShell {
 				loadTitleBackground();
 				loadTitleForeground();
 			}
+			ImageProducer.invalidate();
 			redraw = true;
 		}
 	}
@@ -1744,6 +2066,7 @@ public class Game extends GameShell {
 		titleCenter.draw(graphics, 214, 186);
 		if (redraw) {
 			redraw = false;
+			ImageProducer.invalidate();
 			titleTop.draw(graphics, 128, 0);
 			titleBottom.draw(graphics, 214, 386);
 			titleBottomLeft.draw(graphics, 0, 265);
@@ -2993,6 +3316,9 @@ public class Game extends GameShell {
 		if (redraw) {
 			redraw = false;
 
+			// the borders are only drawn here, so they must not be skipped as unchanged
+			ImageProducer.invalidate();
+
 			backleft1.draw(graphics, 0, 11);
 			backleft2.draw(graphics, 0, 375);
 			backright1.draw(graphics, 729, 5);
@@ -3220,7 +3546,7 @@ public class Game extends GameShell {
 
 		int topPlane = updateCamera(localPlayer.sceneX >> 7, localPlayer.sceneZ >> 7);
 
-		int startCycle = Graphics3D.cycle;
+		int startCycle = RenderContext.getDefault().texels.cycle;
 		Model.allowInput = true;
 		Model.hoverCount = 0;
 		Model.mouseX = mouseX - 8;
@@ -3580,7 +3906,7 @@ public class Game extends GameShell {
 			return;
 		}
 
-		if (Graphics3D.textureCycles[17] >= cycle) {
+		if (RenderContext.getDefault().texels.cycles[17] >= cycle) {
 			IndexedSprite i = (Graphics3D.textures[17]);
 			int len = ((i.width * i.height) - 1);
 			int shift = i.width * (sceneDelta * 2);
@@ -3736,6 +4062,12 @@ public class Game extends GameShell {
 
 	public void clearScene() {
 		lastScenePlane = -1;
+
+		for (int plane = 0; plane < 4; plane++) {
+			minimapPlanes[plane] = null;
+			minimapDirtyBounds[plane] = null;
+		}
+
 		temporaryLocs.clear();
 		animatedLocations.clear();
 		spotanims.clear();
@@ -3822,13 +4154,30 @@ public class Game extends GameShell {
 		}
 	}
 
+	/**
+	 * Shows the minimap of the provided plane. The plane is drawn in full the first time it is shown in a region and
+	 * is kept afterwards, so later calls only redraw the tiles that changed since.
+	 *
+	 * @param onPlane the plane.
+	 */
 	public final void createMinimap(int onPlane) {
-		int[] pixels = minimap.pixels;
-		int pixelLength = pixels.length;
+		int[] pixels = minimapPlanes[onPlane];
+
+		if (pixels != null) {
+			minimap.pixels = pixels;
+			redrawMinimap(onPlane);
+			updateMinimapFunctions();
+			return;
+		}
+
+		pixels = new int[minimap.width * minimap.height];
+		minimapPlanes[onPlane] = pixels;
+		minimap.pixels = pixels;
 
-		for (int n = 0; n < pixelLength; n++) {
-			pixels[n] = 0;
+		for (int x = 0; x < 104; x++) {
+			Arrays.fill(minimapDirty[onPlane][x], false);
 		}
+		minimapDirtyBounds[onPlane] = null;
 
 		for (int y = 1; y < 103; y++) {
 			int off = (103 - y) * (minimap.width * 4) + (52 + (48 * minimap.width));
@@ -3861,7 +4210,151 @@ public class Game extends GameShell {
 		}
 
 		viewport.prepare();
+		updateMinimapFunctions();
+	}
+
+	/**
+	 * Marks the minimap tiles within the provided bounds as changed on every cached plane the locations of the
+	 * provided plane may show up on.
+	 *
+	 * @param plane the plane of the location that changed.
+	 * @param minX the min tile x.
+	 * @param minZ the min tile z.
+	 * @param maxX the max tile x.
+	 * @param maxZ the max tile z.
+	 */
+	public final void setMinimapDirty(int plane, int minX, int minZ, int maxX, int maxZ) {
+		minX = Math.max(minX, 1);
+		minZ = Math.max(minZ, 1);
+		maxX = Math.min(maxX, 102);
+		maxZ = Math.min(maxZ, 102);
+
+		if (minX > maxX || minZ > maxZ) {
+			return;
+		}
+
+		// upper planes show on the plane below and bridges move their locations up a plane
+		for (int p = Math.max(plane - 1, 0); p <= Math.min(plane + 1, 3); p++) {
+			if (minimapPlanes[p] == null) {
+				continue;
+			}
+
+			for (int x = minX; x <= maxX; x++) {
+				for (int z = minZ; z <= maxZ; z++) {
+					minimapDirty[p][x][z] = true;
+				}
+			}
+
+			int[] bounds = minimapDirtyBounds[p];
+
+			if (bounds == null) {
+				minimapDirtyBounds[p] = new int[]{minX, minZ, maxX, maxZ};
+			} else {
+				bounds[0] = Math.min(bounds[0], minX);
+				bounds[1] = Math.min(bounds[1], minZ);
+				bounds[2] = Math.max(bounds[2], maxX);
+				bounds[3] = Math.max(bounds[3], maxZ);
+			}
+		}
+	}
+
+	/**
+	 * Redraws the dirty tiles of a cached minimap plane. The tiles are drawn into {@link #minimapScratch} along with
+	 * every location close enough to reach them, in the same order {@link #createMinimap(int)} uses, and only the
+	 * dirty 4x4 cells are copied back.
+	 *
+	 * @param onPlane the plane.
+	 */
+	public final void redrawMinimap(int onPlane) {
+		int[] bounds = minimapDirtyBounds[onPlane];
+
+		if (bounds == null) {
+			return;
+		}
+
+		minimapDirtyBounds[onPlane] = null;
+
+		boolean[][] dirty = minimapDirty[onPlane];
+		int[] pixels = minimapPlanes[onPlane];
+		int width = minimap.width;
+
+		if (minimapScratch == null || minimapScratch.length != pixels.length) {
+			minimapScratch = new int[pixels.length];
+		}
+
+		int[] scratch = minimapScratch;
+
+		// drawMinimapLoc draws onto the minimap sprite
+		minimap.pixels = scratch;
+
+		for (int y = bounds[1]; y <= bounds[3]; y++) {
+			for (int x = bounds[0]; x <= bounds[2]; x++) {
+				if (!dirty[x][y]) {
+					continue;
+				}
+
+				int off = (103 - y) * (width * 4) + (48 * width) + 48 + (x * 4);
+
+				for (int i = 0; i < 4; i++) {
+					Arrays.fill(scratch, off + (i * width), off + (i * width) + 4, 0);
+				}
+
+				if ((renderflags[onPlane][x][y] & 0x18) == 0) {
+					graph.drawMinimapTile(scratch, off, width, onPlane, x, y);
+				}
+
+				if (onPlane < 3 && (renderflags[onPlane + 1][x][y] & 0x8) != 0) {
+					graph.drawMinimapTile(scratch, off, width, onPlane + 1, x, y);
+				}
+			}
+		}
+
+		minimap.prepare();
+
+		// a location is drawn from its min tile, so it reaches further towards the max tiles
+		int reach = minimapSpriteReach;
+		int locReach = minimapSpriteReach + minimapLocSize - 1;
+		int minX = Math.max(bounds[0] - locReach, 1);
+		int minY = Math.max(bounds[1] - locReach, 1);
+		int maxX = Math.min(bounds[2] + reach, 102);
+		int maxY = Math.min(bounds[3] + reach, 102);
+
+		for (int y = minY; y <= maxY; y++) {
+			for (int x = minX; x <= maxX; x++) {
+				if ((renderflags[onPlane][x][y] & 0x18) == 0) {
+					drawMinimapLoc(x, y, onPlane);
+				}
+
+				if (onPlane < 3 && (renderflags[onPlane + 1][x][y] & 0x8) != 0) {
+					drawMinimapLoc(x, y, onPlane + 1);
+				}
+			}
+		}
+
+		viewport.prepare();
+		minimap.pixels = pixels;
+
+		for (int y = bounds[1]; y <= bounds[3]; y++) {
+			for (int x = bounds[0]; x <= bounds[2]; x++) {
+				if (!dirty[x][y]) {
+					continue;
+				}
+
+				dirty[x][y] = false;
 
+				int off = (103 - y) * (width * 4) + (48 * width) + 48 + (x * 4);
+
+				for (int i = 0; i < 4; i++) {
+					System.arraycopy(scratch, off + (i * width), pixels, off + (i * width), 4);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Collects the map functions of the ground decorations on the current plane.
+	 */
+	public final void updateMinimapFunctions() {
 		minimapFunctionCount = 0;
 
 		for (int x = 0; x < 104; x++) {
@@ -4720,8 +5213,6 @@ public class Game extends GameShell {
 				mapBaseX = (mapCenterChunkX - 6) * 8;
 				mapBaseY = (mapCenterChunkY - 6) * 8;
 
-				Signlink.setLoopRate(5);
-
 				int mapCount = (packetSize - 2) / 10;
 
 				mapLandData = new byte[mapCount][];
@@ -4785,7 +5276,6 @@ public class Game extends GameShell {
 					}
 				}
 				out.writeLength(len);
-				Signlink.setLoopRate(100);
 
 				int deltaX = mapBaseX - mapLastBaseX;
 				int deltaY = mapBaseY - mapLastBaseZ;
@@ -5359,8 +5849,11 @@ public class Game extends GameShell {
 	 * @param type the type of the location.
 	 * @param classtype the class type of the location.
 	 * @param rotation the rotation of the location.
+	 * @return the larger of the removed and the added location's size, in tiles.
 	 */
-	public final void addLoc(int index, int plane, int tileX, int tileZ, int type, int classtype, int rotation) {
+	public final int addLoc(int index, int plane, int tileX, int tileZ, int type, int classtype, int rotation) {
+		int size = 1;
+
 		if (!lowmemory || plane == currentPlane) {
 			int bitset = 0;
 			int lastIndex;
@@ -5384,6 +5877,8 @@ public class Game extends GameShell {
 			if (bitset != 0) {
 				int info = graph.getInfo(tileX, tileZ, plane, bitset);
 				lastIndex = bitset >> 14 & 0x7fff;
+				LocationInfo last = LocationInfo.get(lastIndex);
+				size = Math.max(last.sizeX, last.sizeZ);
 
 				if (classtype == 0) {
 					graph.removeWall(tileX, tileZ, plane);
@@ -5426,8 +5921,19 @@ public class Game extends GameShell {
 				}
 
 				Scene.addLoc(type, index, tileX, tileZ, plane, drawPlane, rotation, planeHeightmaps, graph, collisions[plane], animatedLocations);
+
+				LocationInfo c = LocationInfo.get(index);
+				size = Math.max(size, Math.max(c.sizeX, c.sizeZ));
+			}
+
+			if (classtype == LocationInfo.CLASS_WALL || classtype == LocationInfo.CLASS_NORMAL) {
+				int reach = minimapSpriteReach;
+				setMinimapDirty(plane, tileX - reach, tileZ - reach, tileX + size - 1 + reach, tileZ + size - 1 + reach);
+			} else if (classtype == LocationInfo.CLASS_GROUND_DECORATION && lastScenePlane != -1) {
+				updateMinimapFunctions();
 			}
 		}
+		return size;
 	}
 
 	public final void readSecondaryPacket(Buffer b, int type) {
@@ -8205,6 +8711,10 @@ public class Game extends GameShell {
 	}
 
 	public final void drawMinimap() {
+		if (lastScenePlane != -1) {
+			redrawMinimap(lastScenePlane);
+		}
+
 		maparea.prepare();
 
 		// player minimap position
@@ -13,6 +13,8 @@ public class Graphics2D extends QueueLink {
 	public static int centerX;
 	public static int centerY;
 
+	private static final Scanlines scanlines = Scanlines.get();
+
 	// used for drawing circles
 	private static final int[] vertexX = new int[64], vertexY = new int[64];
 
@@ -155,14 +157,15 @@ public class Graphics2D extends QueueLink {
 			h = bottom - y;
 		}
 
-		int stride = targetWidth - w;
+		if (w <= 0) {
+			return;
+		}
+
 		int off = x + y * targetWidth;
 
 		for (int i = -h; i < 0; i++) {
-			for (int j = -w; j < 0; j++) {
-				target[off++] = rgb;
-			}
-			off += stride;
+			scanlines.fill(target, off, w, rgb);
+			off += targetWidth;
 		}
 	}
 
@@ -182,9 +185,8 @@ public class Graphics2D extends QueueLink {
 			if (x + len > right) {
 				len = right - x;
 			}
-			int off = x + y * targetWidth;
-			for (int i = 0; i < len; i++) {
-				target[off + i] = rgb;
+			if (len > 0) {
+				scanlines.fill(target, x + y * targetWidth, len, rgb);
 			}
 		}
 	}
@@ -8,4 +8,5 @@ public final class GroundDecorationLocation {
 	Model model;
 	int bitset;
 	byte info;
+	ProjectionCache projection;
 }
@@ -16,11 +16,26 @@ import java.util.logging.Logger;
 public class ImageProducer extends Link {
 	
 	private static final Logger logger = Logger.getLogger(ImageProducer.class.getName());
+
+	/**
+	 * Bumped whenever what's on screen can no longer be trusted, e.g. after the window was exposed.
+	 */
+	private static volatile int epoch;
 	
 	public int[] pixels;
 	public int width;
 	public int height;
 	public BufferedImage image;
+
+	/**
+	 * The pixels as they were last drawn, and where they were drawn to. Only the rectangle that differs from them is
+	 * drawn again.
+	 */
+	private int[] presented;
+	private Graphics presentedGraphics;
+	private int presentedX;
+	private int presentedY;
+	private int presentedEpoch;
 	
 	public ImageProducer(int width, int height) {
 		this.width = width;
@@ -38,13 +53,98 @@ public class ImageProducer extends Link {
 		Graphics2D.prepare(pixels, width, height);
 	}
 	
+	/**
+	 * Makes every producer draw in full the next time, for when the screen has been painted over.
+	 */
+	public static void invalidate() {
+		epoch++;
+	}
+	
+	/**
+	 * Draws the pixels that changed since the last draw to the same place, or all of them if it's somewhere new or
+	 * the screen was invalidated.
+	 *
+	 * @param g the graphics.
+	 * @param x the x.
+	 * @param y the y.
+	 */
 	public void draw(Graphics g, int x, int y) {
 		if (g == null) {
 			logger.log(Level.SEVERE, "Missing graphics object");
 			return;
 		}
-		
-		g.drawImage(image, x, y, null);
+
+		int currentEpoch = epoch;
+
+		if (presented == null || g != presentedGraphics || x != presentedX || y != presentedY || currentEpoch != presentedEpoch) {
+			if (presented == null) {
+				presented = new int[pixels.length];
+			}
+
+			System.arraycopy(pixels, 0, presented, 0, pixels.length);
+			presentedGraphics = g;
+			presentedX = x;
+			presentedY = y;
+			presentedEpoch = currentEpoch;
+			g.drawImage(image, x, y, null);
+			return;
+		}
+
+		int minY = 0;
+		int maxY = height - 1;
+
+		while (minY <= maxY && rowEquals(minY)) {
+			minY++;
+		}
+
+		// unchanged
+		if (minY > maxY) {
+			return;
+		}
+
+		while (rowEquals(maxY)) {
+			maxY--;
+		}
+
+		int minX = width;
+		int maxX = -1;
+
+		for (int row = minY; row <= maxY; row++) {
+			int off = row * width;
+
+			for (int col = 0; col < minX; col++) {
+				if (pixels[off + col] != presented[off + col]) {
+					minX = col;
+					break;
+				}
+			}
+
+			for (int col = width - 1; col > maxX; col--) {
+				if (pixels[off + col] != presented[off + col]) {
+					maxX = col;
+					break;
+				}
+			}
+		}
+
+		for (int row = minY; row <= maxY; row++) {
+			int off = row * width + minX;
+			System.arraycopy(pixels, off, presented, off, maxX - minX + 1);
+		}
+
+		g.drawImage(image, x + minX, y + minY, x + maxX + 1, y + maxY + 1, minX, minY, maxX + 1, maxY + 1, null);
+	}
+
+	private boolean rowEquals(int row) {
+		int off = row * width;
+		int end = off + width;
+
+		for (; off < end; off++) {
+			if (pixels[off] != presented[off]) {
+				return false;
+			}
+		}
+		return true;
 	}
 	
 }
@@ -12,10 +12,10 @@ public final class IndexedSprite extends Graphics2D {
 	public int clipHeight;
 
 	public IndexedSprite(Archive archive, String name, int index) {
-		Buffer dat = new Buffer(archive.get(name + ".dat", null));
-		Buffer idx = new Buffer(archive.get("index.dat", null));
+		Buffer dat = archive.slice(name + ".dat");
+		Buffer idx = archive.slice(Archive.INDEX_HASH);
 
-		idx.position = dat.readUShort();
+		idx.position = idx.offset + dat.readUShort();
 
 		clipWidth = idx.readUShort();
 		clipHeight = idx.readUShort();
@@ -17,4 +17,5 @@ public final class Location {
 	int cycle;
 	int bitset;
 	byte info;
+	ProjectionCache projection;
 }
@@ -29,31 +29,6 @@ public class Model extends QueueLink {
 	public static Buffer obvertex2;
 	public static Buffer obaxis;
 
-	public static boolean[] testTriangleX = new boolean[2048];
-	public static boolean[] projectTriangle = new boolean[2048];
-
-	public static int[] vertexScreenX = new int[2048];
-	public static int[] vertexScreenY = new int[2048];
-	public static int[] vertexDepth = new int[2048];
-
-	public static int[] projectSceneX = new int[2048];
-	public static int[] projectSceneY = new int[2048];
-	public static int[] projectSceneZ = new int[2048];
-
-	public static int[] depthTriangleCount = new int[1500];
-	public static int[][] depthTriangles = new int[1500][512];
-
-	public static int[] priorityTriangleCounts = new int[12];
-	public static int[][] priorityTriangles = new int[12][2000];
-
-	public static int[] normalTrianglePriority = new int[2000];
-	public static int[] highTrianglePriority = new int[2000];
-	public static int[] lowPriorityDepth = new int[12];
-
-	public static int[] tmpX = new int[10];
-	public static int[] tmpY = new int[10];
-	public static int[] tmpColor = new int[10];
-
 	public static int transformX;
 	public static int transformY;
 	public static int transformZ;
@@ -117,6 +92,12 @@ public class Model extends QueueLink {
 	public Normal[] normals;
 	public Normal[] unmodifiedNormals;
 
+	/**
+	 * Where this model was lit in the walk of {@link SceneGraph#applyLighting}, or -1 when it has not been reached and
+	 * -2 when it was reached but not lit.
+	 */
+	int lightOrder = -1;
+
 	public static void unload() {
 		contexts = null;
 		obhead = null;
@@ -133,21 +114,7 @@ public class Model extends QueueLink {
 		obvertex1 = null;
 		obvertex2 = null;
 		obaxis = null;
-		testTriangleX = null;
-		projectTriangle = null;
-		vertexScreenX = null;
-		vertexScreenY = null;
-		vertexDepth = null;
-		projectSceneX = null;
-		projectSceneY = null;
-		projectSceneZ = null;
-		depthTriangleCount = null;
-		depthTriangles = null;
-		priorityTriangleCounts = null;
-		priorityTriangles = null;
-		normalTrianglePriority = null;
-		highTrianglePriority = null;
-		lowPriorityDepth = null;
+		RenderContext.unload();
 		sin = null;
 		cos = null;
 		palette = null;
@@ -1464,8 +1431,30 @@ public class Model extends QueueLink {
 	}
 
 	public final void draw(int pitch, int yaw, int roll, int cameraX, int cameraY, int cameraZ, int cameraPitch) {
-		final int centerX = Graphics3D.centerX;
-		final int centerY = Graphics3D.centerY;
+		draw(RenderContext.getDefault(), pitch, yaw, roll, cameraX, cameraY, cameraZ, cameraPitch);
+	}
+
+	/**
+	 * Draws this model on its own, such as for an item icon or a widget.
+	 *
+	 * @param ctx the context to draw with.
+	 * @param pitch the model pitch.
+	 * @param yaw the model yaw.
+	 * @param roll the model roll.
+	 * @param cameraX the camera x.
+	 * @param cameraY the camera y.
+	 * @param cameraZ the camera z.
+	 * @param cameraPitch the camera pitch.
+	 */
+	public final void draw(RenderContext ctx, int pitch, int yaw, int roll, int cameraX, int cameraY, int cameraZ, int cameraPitch) {
+		final int centerX = ctx.rasterizer.centerX;
+		final int centerY = ctx.rasterizer.centerY;
+		final int[] vertexScreenX = ctx.vertexScreenX;
+		final int[] vertexScreenY = ctx.vertexScreenY;
+		final int[] vertexDepth = ctx.vertexDepth;
+		final int[] projectSceneX = ctx.projectSceneX;
+		final int[] projectSceneY = ctx.projectSceneY;
+		final int[] projectSceneZ = ctx.projectSceneZ;
 
 		int pitchsin = sin[pitch];
 		int pitchcos = cos[pitch];
@@ -1522,10 +1511,39 @@ public class Model extends QueueLink {
 				projectSceneZ[v] = z;
 			}
 		}
-		draw(0, false, false);
+		draw(ctx, 0, false, false);
 	}
 
 	public final void draw(int yaw, int cameraPitchSine, int cameraPitchCosine, int cameraYawSine, int cameraYawCosine, int sceneX, int sceneY, int sceneZ, int bitset) {
+		draw(RenderContext.getDefault(), yaw, cameraPitchSine, cameraPitchCosine, cameraYawSine, cameraYawCosine, sceneX, sceneY, sceneZ, bitset);
+	}
+
+	/**
+	 * Draws this model as part of a scene. Only the default context picks the models under the mouse.
+	 *
+	 * @param ctx the context to draw with.
+	 * @param yaw the model yaw.
+	 * @param cameraPitchSine the camera pitch sine.
+	 * @param cameraPitchCosine the camera pitch cosine.
+	 * @param cameraYawSine the camera yaw sine.
+	 * @param cameraYawCosine the camera yaw cosine.
+	 * @param sceneX the x relative to the camera.
+	 * @param sceneY the y relative to the camera.
+	 * @param sceneZ the z relative to the camera.
+	 * @param bitset the bitset reported when picked.
+	 */
+	public final void draw(RenderContext ctx, int yaw, int cameraPitchSine, int cameraPitchCosine, int cameraYawSine, int cameraYawCosine, int sceneX, int sceneY, int sceneZ, int bitset) {
+		draw(ctx, yaw, cameraPitchSine, cameraPitchCosine, cameraYawSine, cameraYawCosine, sceneX, sceneY, sceneZ, bitset, null);
+	}
+
+	/**
+	 * Draws this model as part of a scene, reusing the projection from the last draw through the cache when nothing it
+	 * depends on has changed. The model must not be modified in place while cached.
+	 *
+	 * @param cache the projection of this placement, or null to always project.
+	 * @see #draw(RenderContext, int, int, int, int, int, int, int, int, int)
+	 */
+	final void draw(RenderContext ctx, int yaw, int cameraPitchSine, int cameraPitchCosine, int cameraYawSine, int cameraYawCosine, int sceneX, int sceneY, int sceneZ, int bitset, ProjectionCache cache) {
 		int cameraY = sceneZ * cameraYawCosine - sceneX * cameraYawSine >> 16;
 		int farZ = sceneY * cameraPitchSine + cameraY * cameraPitchCosine >> 16;
 		int distanceZ = boundLengthXZ * cameraPitchCosine >> 16;
@@ -1535,19 +1553,19 @@ public class Model extends QueueLink {
 			int i_254_ = sceneZ * cameraYawSine + sceneX * cameraYawCosine >> 16;
 			int minX = i_254_ - boundLengthXZ << 9;
 
-			if (minX / nearZ < Graphics2D.centerX) {
+			if (minX / nearZ < ctx.clipCenterX) {
 				int maxX = i_254_ + boundLengthXZ << 9;
 
-				if (maxX / nearZ > -Graphics2D.centerX) {
+				if (maxX / nearZ > -ctx.clipCenterX) {
 					int i_257_ = sceneY * cameraPitchCosine - cameraY * cameraPitchSine >> 16;
 					int i_258_ = boundLengthXZ * cameraPitchSine >> 16;
 					int maxY = i_257_ + i_258_ << 9;
 
-					if (maxY / nearZ > -Graphics2D.centerY) {
+					if (maxY / nearZ > -ctx.clipCenterY) {
 						int i_260_ = i_258_ + (maxBoundY * cameraPitchCosine >> 16);
 						int minY = i_257_ - i_260_ << 9;
 
-						if (minY / nearZ < Graphics2D.centerY) {
+						if (minY / nearZ < ctx.clipCenterY) {
 							int i_262_ = distanceZ + (maxBoundY * cameraPitchSine >> 16);
 							boolean project = false;
 
@@ -1557,7 +1575,7 @@ public class Model extends QueueLink {
 
 							boolean hasInput = false;
 
-							if (bitset > 0 && allowInput) {
+							if (bitset > 0 && allowInput && ctx.isDefault()) {
 								int zd = farZ - distanceZ;
 
 								if (zd <= Scene.NEAR_Z) {
@@ -1580,67 +1598,81 @@ public class Model extends QueueLink {
 									minY /= zd;
 								}
 
-								int x = mouseX - Graphics3D.centerX;
-								int y = mouseY - Graphics3D.centerY;
+								int x = mouseX - ctx.rasterizer.centerX;
+								int y = mouseY - ctx.rasterizer.centerY;
 
 								if (x > minX && x < maxX && y > minY && y < maxY) {
 									hasInput = true;
 								}
 							}
 
-							int cx = Graphics3D.centerX;
-							int cy = Graphics3D.centerY;
-
-							int yawsin = 0;
-							int yawcos = 0;
-
-							if (yaw != 0) {
-								yawsin = sin[yaw];
-								yawcos = cos[yaw];
-							}
-
-							for (int v = 0; v < vertexCount; v++) {
-								int x = vertexX[v];
-								int y = vertexY[v];
-								int z = vertexZ[v];
+							if (cache != null && cache.load(ctx, this, yaw, cameraPitchSine, cameraPitchCosine, cameraYawSine, cameraYawCosine, sceneX, sceneY, sceneZ)) {
+								project = cache.project;
+							} else {
+								int cx = ctx.rasterizer.centerX;
+								int cy = ctx.rasterizer.centerY;
+								int[] vertexScreenX = ctx.vertexScreenX;
+								int[] vertexScreenY = ctx.vertexScreenY;
+								int[] vertexDepth = ctx.vertexDepth;
+								int[] projectSceneX = ctx.projectSceneX;
+								int[] projectSceneY = ctx.projectSceneY;
+								int[] projectSceneZ = ctx.projectSceneZ;
+
+								int yawsin = 0;
+								int yawcos = 0;
 
 								if (yaw != 0) {
-									int w = z * yawsin + x * yawcos >> 16;
-									z = z * yawcos - x * yawsin >> 16;
-									x = w;
+									yawsin = sin[yaw];
+									yawcos = cos[yaw];
 								}
 
-								x += sceneX;
-								y += sceneY;
-								z += sceneZ;
+								for (int v = 0; v < vertexCount; v++) {
+									int x = vertexX[v];
+									int y = vertexY[v];
+									int z = vertexZ[v];
 
-								int w = z * cameraYawSine + x * cameraYawCosine >> 16;
-								z = z * cameraYawCosine - x * cameraYawSine >> 16;
-								x = w;
+									if (yaw != 0) {
+										int w = z * yawsin + x * yawcos >> 16;
+										z = z * yawcos - x * yawsin >> 16;
+										x = w;
+									}
 
-								w = y * cameraPitchCosine - z * cameraPitchSine >> 16;
-								z = y * cameraPitchSine + z * cameraPitchCosine >> 16;
-								y = w;
+									x += sceneX;
+									y += sceneY;
+									z += sceneZ;
 
-								vertexDepth[v] = z - farZ;
+									int w = z * cameraYawSine + x * cameraYawCosine >> 16;
+									z = z * cameraYawCosine - x * cameraYawSine >> 16;
+									x = w;
 
-								if (z >= Scene.NEAR_Z) {
-									vertexScreenX[v] = cx + (x << 9) / z;
-									vertexScreenY[v] = cy + (y << 9) / z;
-								} else {
-									vertexScreenX[v] = -5000;
-									project = true;
+									w = y * cameraPitchCosine - z * cameraPitchSine >> 16;
+									z = y * cameraPitchSine + z * cameraPitchCosine >> 16;
+									y = w;
+
+									vertexDepth[v] = z - farZ;
+
+									if (z >= Scene.NEAR_Z) {
+										vertexScreenX[v] = cx + (x << 9) / z;
+										vertexScreenY[v] = cy + (y << 9) / z;
+									} else {
+										vertexScreenX[v] = -5000;
+										project = true;
+									}
+
+									if (project || texturedCount > 0) {
+										projectSceneX[v] = x;
+										projectSceneY[v] = y;
+										projectSceneZ[v] = z;
+									}
 								}
 
-								if (project || texturedCount > 0) {
-									projectSceneX[v] = x;
-									projectSceneY[v] = y;
-									projectSceneZ[v] = z;
+								if (cache != null) {
+									cache.store(ctx, this, yaw, cameraPitchSine, cameraPitchCosine, cameraYawSine, cameraYawCosine, sceneX, sceneY, sceneZ, project);
 								}
 							}
 
 							try {
-								draw(bitset, project, hasInput);
+								draw(ctx, bitset, project, hasInput);
 							} catch (Exception e) {
 
 							}
@@ -1651,11 +1683,27 @@ public class Model extends QueueLink {
 		}
 	}
 
-	private void draw(int bitset, boolean projected, boolean hasInput) {
+	private void draw(RenderContext ctx, int bitset, boolean projected, boolean hasInput) {
+		ctx.ensureSortCapacity(triangleCount, minDepth);
+
+		final boolean[] testTriangleX = ctx.testTriangleX;
+		final boolean[] projectTriangle = ctx.projectTriangle;
+		final int[] vertexScreenX = ctx.vertexScreenX;
+		final int[] vertexScreenY = ctx.vertexScreenY;
+		final int[] vertexDepth = ctx.vertexDepth;
+		final int[] visibleTriangles = ctx.visibleTriangles;
+		final int[] visibleDepths = ctx.visibleDepths;
+		final int[] sortedTriangles = ctx.sortedTriangles;
+		final int[] sortedDepths = ctx.sortedDepths;
+		final int[] depthOffsets = ctx.depthOffsets;
+		final int rightX = ctx.rasterizer.rightX;
+
 		for (int d = 0; d < minDepth; d++) {
-			depthTriangleCount[d] = 0;
+			depthOffsets[d] = 0;
 		}
 
+		int visibleCount = 0;
+
 		for (int t = 0; t < triangleCount; t++) {
 			if (triangleInfo == null || triangleInfo[t] != -1) {
 				int a = triangleVertexA[t];
@@ -1668,7 +1716,12 @@ public class Model extends QueueLink {
 				if (projected && (x0 == -5000 || x1 == -5000 || x2 == -5000)) {
 					projectTriangle[t] = true;
 					int depth = ((vertexDepth[a] + vertexDepth[b] + vertexDepth[c]) / 3 + maxDepth);
-					depthTriangles[depth][depthTriangleCount[depth]++] = t;
+
+					if (depth >= 0 && depth < minDepth) {
+						visibleTriangles[visibleCount] = t;
+						visibleDepths[visibleCount++] = depth;
+						depthOffsets[depth]++;
+					}
 				} else {
 					if (hasInput && withinTriangle(mouseX, mouseY, vertexScreenY[a], vertexScreenY[b], vertexScreenY[c], x0, x1, x2)) {
 						hoveredBitsets[hoverCount++] = bitset;
@@ -1677,185 +1730,149 @@ public class Model extends QueueLink {
 
 					if (((x0 - x1) * (vertexScreenY[c] - vertexScreenY[b]) - ((vertexScreenY[a] - vertexScreenY[b]) * (x2 - x1))) > 0) {
 						projectTriangle[t] = false;
-						testTriangleX[t] = x0 < 0 || x1 < 0 || x2 < 0 || x0 > Graphics2D.rightX || x1 > Graphics2D.rightX || x2 > Graphics2D.rightX;
+						testTriangleX[t] = x0 < 0 || x1 < 0 || x2 < 0 || x0 > rightX || x1 > rightX || x2 > rightX;
 						int depth = ((vertexDepth[a] + vertexDepth[b] + vertexDepth[c]) / 3 + maxDepth);
-						depthTriangles[depth][depthTriangleCount[depth]++] = t;
+
+						// outside the model's bounds, which only a pitch or roll can cause. these were never drawn.
+						if (depth >= 0 && depth < minDepth) {
+							visibleTriangles[visibleCount] = t;
+							visibleDepths[visibleCount++] = depth;
+							depthOffsets[depth]++;
+						}
 					}
 				}
 			}
 		}
 
+		// turn the counts into write positions, furthest depth first
+		for (int d = minDepth - 1, position = 0; d >= 0; d--) {
+			int n = depthOffsets[d];
+			depthOffsets[d] = position;
+			position += n;
+		}
+
+		// stable, so triangles at the same depth keep their model order
+		for (int n = 0; n < visibleCount; n++) {
+			int depth = visibleDepths[n];
+			int position = depthOffsets[depth]++;
+			sortedTriangles[position] = visibleTriangles[n];
+			sortedDepths[position] = depth;
+		}
+
 		if (trianglePriorities == null) {
-			for (int d = minDepth - 1; d >= 0; d--) {
-				int n = depthTriangleCount[d];
-				if (n > 0) {
-					int[] triangles = depthTriangles[d];
-					for (int t = 0; t < n; t++) {
-						drawTriangle(triangles[t]);
-					}
-				}
+			for (int n = 0; n < visibleCount; n++) {
+				drawTriangle(ctx, sortedTriangles[n]);
 			}
 		} else {
+			final int[] priorityTriangles = ctx.priorityTriangles;
+			final int[] priorityDepths = ctx.priorityDepths;
+			final int[] priorityOffsets = ctx.priorityOffsets;
+			final int[] lowPriorityDepth = ctx.lowPriorityDepth;
+
 			for (int p = 0; p < 12; p++) {
-				priorityTriangleCounts[p] = 0;
+				priorityOffsets[p] = 0;
 				lowPriorityDepth[p] = 0;
 			}
 
-			for (int d = minDepth - 1; d >= 0; d--) {
-				int n = depthTriangleCount[d];
-				if (n > 0) {
-					int[] triangles = depthTriangles[d];
-					for (int m = 0; m < n; m++) {
-						int t = triangles[m];
-						int trianglePriority = trianglePriorities[t];
-						int priorityTriangle = priorityTriangleCounts[trianglePriority]++;
-						priorityTriangles[trianglePriority][priorityTriangle] = t;
-
-						if (trianglePriority < 10) {
-							lowPriorityDepth[trianglePriority] += d;
-						} else if (trianglePriority == 10) {
-							normalTrianglePriority[priorityTriangle] = d;
-						} else {
-							highTrianglePriority[priorityTriangle] = d;
-						}
-					}
-				}
+			for (int n = 0; n < visibleCount; n++) {
+				priorityOffsets[trianglePriorities[sortedTriangles[n]]]++;
 			}
 
-			int minPriority = 0;
-			if (priorityTriangleCounts[1] > 0 || priorityTriangleCounts[2] > 0) {
-				minPriority = ((lowPriorityDepth[1] + lowPriorityDepth[2]) / (priorityTriangleCounts[1] + priorityTriangleCounts[2]));
+			for (int p = 0, position = 0; p < 12; p++) {
+				int n = priorityOffsets[p];
+				priorityOffsets[p] = position;
+				position += n;
 			}
 
-			int halfPriority = 0;
-			if (priorityTriangleCounts[3] > 0 || priorityTriangleCounts[4] > 0) {
-				halfPriority = ((lowPriorityDepth[3] + lowPriorityDepth[4]) / (priorityTriangleCounts[3] + priorityTriangleCounts[4]));
-			}
+			for (int n = 0; n < visibleCount; n++) {
+				int t = sortedTriangles[n];
+				int d = sortedDepths[n];
+				int trianglePriority = trianglePriorities[t];
+				int position = priorityOffsets[trianglePriority]++;
+				priorityTriangles[position] = t;
+				priorityDepths[position] = d;
 
-			int maxPriority = 0;
-			if (priorityTriangleCounts[6] > 0 || priorityTriangleCounts[8] > 0) {
-				maxPriority = ((lowPriorityDepth[6] + lowPriorityDepth[8]) / (priorityTriangleCounts[6] + priorityTriangleCounts[8]));
+				if (trianglePriority < 10) {
+					lowPriorityDepth[trianglePriority] += d;
+				}
 			}
 
-			int t = 0;
-			int priorityTriangleCount = priorityTriangleCounts[10];
-			int[] triangles = priorityTriangles[10];
-			int[] priorities = normalTrianglePriority;
+			// the write positions have moved on to the end of each priority, so shift them back to the starts
+			for (int p = 12; p > 0; p--) {
+				priorityOffsets[p] = priorityOffsets[p - 1];
+			}
+			priorityOffsets[0] = 0;
 
-			if (t == priorityTriangleCount) {
-				t = 0;
-				priorityTriangleCount = priorityTriangleCounts[11];
-				triangles = priorityTriangles[11];
-				priorities = highTrianglePriority;
+			int minPriority = 0;
+			int count = priorityOffsets[3] - priorityOffsets[1];
+			if (count > 0) {
+				minPriority = ((lowPriorityDepth[1] + lowPriorityDepth[2]) / count);
 			}
 
-			int pri;
+			int halfPriority = 0;
+			count = priorityOffsets[5] - priorityOffsets[3];
+			if (count > 0) {
+				halfPriority = ((lowPriorityDepth[3] + lowPriorityDepth[4]) / count);
+			}
 
-			if (t < priorityTriangleCount) {
-				pri = priorities[t];
-			} else {
-				pri = -1000;
+			int maxPriority = 0;
+			count = (priorityOffsets[7] - priorityOffsets[6]) + (priorityOffsets[9] - priorityOffsets[8]);
+			if (count > 0) {
+				maxPriority = ((lowPriorityDepth[6] + lowPriorityDepth[8]) / count);
 			}
 
-			for (int p = 0; p < 10; p++) {
-				while (p == 0) {
-					if (pri <= minPriority) {
-						break;
-					}
+			// priorities 10 and 11 sit next to each other, so they're drawn as one run through both.
+			int t = priorityOffsets[10];
+			int end = priorityOffsets[12];
+			int pri = t < end ? priorityDepths[t] : -1000;
 
-					drawTriangle(triangles[t++]);
-					if (t == priorityTriangleCount && triangles != priorityTriangles[11]) {
-						t = 0;
-						priorityTriangleCount = priorityTriangleCounts[11];
-						triangles = priorityTriangles[11];
-						priorities = highTrianglePriority;
-					}
-					if (t < priorityTriangleCount) {
-						pri = priorities[t];
-					} else {
-						pri = -1000;
-					}
+			for (int p = 0; p < 10; p++) {
+				while (p == 0 && pri > minPriority) {
+					drawTriangle(ctx, priorityTriangles[t++]);
+					pri = t < end ? priorityDepths[t] : -1000;
 				}
 
-				while (p == 3) {
-					if (pri <= halfPriority) {
-						break;
-					}
-
-					drawTriangle(triangles[t++]);
-
-					if (t == priorityTriangleCount && triangles != priorityTriangles[11]) {
-						t = 0;
-						priorityTriangleCount = priorityTriangleCounts[11];
-						triangles = priorityTriangles[11];
-						priorities = highTrianglePriority;
-					}
-
-					if (t < priorityTriangleCount) {
-						pri = priorities[t];
-					} else {
-						pri = -1000;
-					}
+				while (p == 3 && pri > halfPriority) {
+					drawTriangle(ctx, priorityTriangles[t++]);
+					pri = t < end ? priorityDepths[t] : -1000;
 				}
 
 				while (p == 5 && pri > maxPriority) {
-					drawTriangle(triangles[t++]);
-
-					if (t == priorityTriangleCount && triangles != priorityTriangles[11]) {
-						t = 0;
-						priorityTriangleCount = priorityTriangleCounts[11];
-						triangles = priorityTriangles[11];
-						priorities = highTrianglePriority;
-					}
-
-					if (t < priorityTriangleCount) {
-						pri = priorities[t];
-					} else {
-						pri = -1000;
-					}
+					drawTriangle(ctx, priorityTriangles[t++]);
+					pri = t < end ? priorityDepths[t] : -1000;
 				}
 
-				int n = priorityTriangleCounts[p];
-				int[] tris = priorityTriangles[p];
-
-				for (int m = 0; m < n; m++) {
-					drawTriangle(tris[m]);
+				for (int m = priorityOffsets[p]; m < priorityOffsets[p + 1]; m++) {
+					drawTriangle(ctx, priorityTriangles[m]);
 				}
 			}
 
 			while (pri != -1000) {
-				drawTriangle(triangles[t++]);
-
-				if (t == priorityTriangleCount && triangles != priorityTriangles[11]) {
-					t = 0;
-					triangles = priorityTriangles[11];
-					priorityTriangleCount = priorityTriangleCounts[11];
-					priorities = highTrianglePriority;
-				}
-
-				if (t < priorityTriangleCount) {
-					pri = priorities[t];
-				} else {
-					pri = -1000;
-				}
+				drawTriangle(ctx, priorityTriangles[t++]);
+				pri = t < end ? priorityDepths[t] : -1000;
 			}
 		}
 	}
 
-	private void drawTriangle(int index) {
-		if (projectTriangle[index]) {
-			drawProjectedTriangle(index);
+	private void drawTriangle(RenderContext ctx, int index) {
+		if (ctx.projectTriangle[index]) {
+			drawProjectedTriangle(ctx, index);
 		} else {
+			final int[] vertexScreenX = ctx.vertexScreenX;
+			final int[] vertexScreenY = ctx.vertexScreenY;
+			final int[] projectSceneX = ctx.projectSceneX;
+			final int[] projectSceneY = ctx.projectSceneY;
+			final int[] projectSceneZ = ctx.projectSceneZ;
 			int a = triangleVertexA[index];
 			int b = triangleVertexB[index];
 			int c = triangleVertexC[index];
 
-			Graphics3D.testX = testTriangleX[index];
+			ctx.rasterizer.testX = ctx.testTriangleX[index];
 
 			if (triangleAlpha == null) {
-				Graphics3D.alpha = 0;
+				ctx.rasterizer.alpha = 0;
 			} else {
-				Graphics3D.alpha = triangleAlpha[index];
+				ctx.rasterizer.alpha = triangleAlpha[index];
 			}
 
 			int type;
@@ -1867,30 +1884,40 @@ public class Model extends QueueLink {
 			}
 
 			if (type == 0) {
-				Graphics3D.fillShadedTriangle(vertexScreenX[a], vertexScreenY[a], vertexScreenX[b], vertexScreenY[b], vertexScreenX[c], vertexScreenY[c], colorA[index], colorB[index], colorC[index]);
+				ctx.fillShadedTriangle(vertexScreenX[a], vertexScreenY[a], vertexScreenX[b], vertexScreenY[b], vertexScreenX[c], vertexScreenY[c], colorA[index], colorB[index], colorC[index]);
 			} else if (type == 1) {
-				Graphics3D.fillTriangle(vertexScreenX[a], vertexScreenY[a], vertexScreenX[b], vertexScreenY[b], vertexScreenX[c], vertexScreenY[c], palette[colorA[index]]);
+				ctx.fillTriangle(vertexScreenX[a], vertexScreenY[a], vertexScreenX[b], vertexScreenY[b], vertexScreenX[c], vertexScreenY[c], palette[colorA[index]]);
 			} else if (type == 2) {
 				// texture triangle
 				int t = triangleInfo[index] >> 2;
 				int ta = textureVertexA[t];
 				int tb = textureVertexB[t];
 				int tc = textureVertexC[t];
-				Graphics3D.fillTexturedTriangle(vertexScreenY[a], vertexScreenY[b], vertexScreenY[c], vertexScreenX[a], vertexScreenX[b], vertexScreenX[c], colorA[index], colorB[index], colorC[index], projectSceneX[ta], projectSceneX[tb], projectSceneX[tc], projectSceneY[ta], projectSceneY[tb], projectSceneY[tc], projectSceneZ[ta], projectSceneZ[tb], projectSceneZ[tc], unmodifiedTriangleColor[index]);
+				ctx.fillTexturedTriangle(vertexScreenY[a], vertexScreenY[b], vertexScreenY[c], vertexScreenX[a], vertexScreenX[b], vertexScreenX[c], colorA[index], colorB[index], colorC[index], projectSceneX[ta], projectSceneX[tb], projectSceneX[tc], projectSceneY[ta], projectSceneY[tb], projectSceneY[tc], projectSceneZ[ta], projectSceneZ[tb], projectSceneZ[tc], unmodifiedTriangleColor[index]);
 			} else if (type == 3) {
 				// texture triangle
 				int t = triangleInfo[index] >> 2;
 				int ta = textureVertexA[t];
 				int tb = textureVertexB[t];
 				int tc = textureVertexC[t];
-				Graphics3D.fillTexturedTriangle(vertexScreenY[a], vertexScreenY[b], vertexScreenY[c], vertexScreenX[a], vertexScreenX[b], vertexScreenX[c], colorA[index], colorA[index], colorA[index], projectSceneX[ta], projectSceneX[tb], projectSceneX[tc], projectSceneY[ta], projectSceneY[tb], projectSceneY[tc], projectSceneZ[ta], projectSceneZ[tb], projectSceneZ[tc], unmodifiedTriangleColor[index]);
+				ctx.fillTexturedTriangle(vertexScreenY[a], vertexScreenY[b], vertexScreenY[c], vertexScreenX[a], vertexScreenX[b], vertexScreenX[c], colorA[index], colorA[index], colorA[index], projectSceneX[ta], projectSceneX[tb], projectSceneX[tc], projectSceneY[ta], projectSceneY[tb], projectSceneY[tc], projectSceneZ[ta], projectSceneZ[tb], projectSceneZ[tc], unmodifiedTriangleColor[index]);
 			}
 		}
 	}
 
-	private void drawProjectedTriangle(int index) {
-		int centerX = Graphics3D.centerX;
-		int centerY = Graphics3D.centerY;
+	private void drawProjectedTriangle(RenderContext ctx, int index) {
+		final Rasterizer r = ctx.rasterizer;
+		final int centerX = r.centerX;
+		final int centerY = r.centerY;
+		final int rightX = r.rightX;
+		final int[] vertexScreenX = ctx.vertexScreenX;
+		final int[] vertexScreenY = ctx.vertexScreenY;
+		final int[] projectSceneX = ctx.projectSceneX;
+		final int[] projectSceneY = ctx.projectSceneY;
+		final int[] projectSceneZ = ctx.projectSceneZ;
+		final int[] tmpX = ctx.tmpX;
+		final int[] tmpY = ctx.tmpY;
+		final int[] tmpColor = ctx.tmpColor;
 		int n = 0;
 
 		int a = triangleVertexA[index];
@@ -1982,11 +2009,11 @@ public class Model extends QueueLink {
 		int yC = tmpY[2];
 
 		if (((xA - xB) * (yC - yB) - (yA - yB) * (xC - xB)) > 0) {
-			Graphics3D.testX = false;
+			r.testX = false;
 
 			if (n == 3) {
-				if (xA < 0 || xB < 0 || xC < 0 || xA > Graphics2D.rightX || xB > Graphics2D.rightX || xC > Graphics2D.rightX) {
-					Graphics3D.testX = true;
+				if (xA < 0 || xB < 0 || xC < 0 || xA > rightX || xB > rightX || xC > rightX) {
+					r.testX = true;
 				}
 
 				int type;
@@ -1998,27 +2025,27 @@ public class Model extends QueueLink {
 				}
 
 				if (type == 0) {
-					Graphics3D.fillShadedTriangle(xA, yA, xB, yB, xC, yC, tmpColor[0], tmpColor[1], tmpColor[2]);
+					ctx.fillShadedTriangle(xA, yA, xB, yB, xC, yC, tmpColor[0], tmpColor[1], tmpColor[2]);
 				} else if (type == 1) {
-					Graphics3D.fillTriangle(xA, yA, xB, yB, xC, yC, (palette[(colorA[index])]));
+					ctx.fillTriangle(xA, yA, xB, yB, xC, yC, (palette[(colorA[index])]));
 				} else if (type == 2) {
 					int t = triangleInfo[index] >> 2;
 					int tA = textureVertexA[t];
 					int tB = textureVertexB[t];
 					int tC = textureVertexC[t];
-					Graphics3D.fillTexturedTriangle(yA, yB, yC, xA, xB, xC, tmpColor[0], tmpColor[1], tmpColor[2], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
+					ctx.fillTexturedTriangle(yA, yB, yC, xA, xB, xC, tmpColor[0], tmpColor[1], tmpColor[2], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
 				} else if (type == 3) {
 					int t = triangleInfo[index] >> 2;
 					int tA = textureVertexA[t];
 					int tB = textureVertexB[t];
 					int tC = textureVertexC[t];
-					Graphics3D.fillTexturedTriangle(yA, yB, yC, xA, xB, xC, colorA[index], colorA[index], colorA[index], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
+					ctx.fillTexturedTriangle(yA, yB, yC, xA, xB, xC, colorA[index], colorA[index], colorA[index], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
 				}
 			}
 
 			if (n == 4) {
-				if (xA < 0 || xB < 0 || xC < 0 || xA > Graphics2D.rightX || xB > Graphics2D.rightX || xC > Graphics2D.rightX || tmpX[3] < 0 || tmpX[3] > Graphics2D.rightX) {
-					Graphics3D.testX = true;
+				if (xA < 0 || xB < 0 || xC < 0 || xA > rightX || xB > rightX || xC > rightX || tmpX[3] < 0 || tmpX[3] > rightX) {
+					r.testX = true;
 				}
 
 				int type;
@@ -2030,26 +2057,26 @@ public class Model extends QueueLink {
 				}
 
 				if (type == 0) {
-					Graphics3D.fillShadedTriangle(xA, yA, xB, yB, xC, yC, tmpColor[0], tmpColor[1], tmpColor[2]);
-					Graphics3D.fillShadedTriangle(xA, yA, xC, yC, tmpX[3], tmpY[3], tmpColor[0], tmpColor[2], tmpColor[3]);
+					ctx.fillShadedTriangle(xA, yA, xB, yB, xC, yC, tmpColor[0], tmpColor[1], tmpColor[2]);
+					ctx.fillShadedTriangle(xA, yA, xC, yC, tmpX[3], tmpY[3], tmpColor[0], tmpColor[2], tmpColor[3]);
 				} else if (type == 1) {
 					int rgb = palette[colorA[index]];
-					Graphics3D.fillTriangle(xA, yA, xB, yB, xC, yC, rgb);
-					Graphics3D.fillTriangle(xA, yA, xC, yC, tmpX[3], tmpY[3], rgb);
+					ctx.fillTriangle(xA, yA, xB, yB, xC, yC, rgb);
+					ctx.fillTriangle(xA, yA, xC, yC, tmpX[3], tmpY[3], rgb);
 				} else if (type == 2) {
 					int t = triangleInfo[index] >> 2;
 					int tA = textureVertexA[t];
 					int tB = textureVertexB[t];
 					int tC = textureVertexC[t];
-					Graphics3D.fillTexturedTriangle(yA, yB, yC, xA, xB, xC, tmpColor[0], tmpColor[1], tmpColor[2], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
-					Graphics3D.fillTexturedTriangle(yA, yC, tmpY[3], xA, xC, tmpX[3], tmpColor[0], tmpColor[2], tmpColor[3], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
+					ctx.fillTexturedTriangle(yA, yB, yC, xA, xB, xC, tmpColor[0], tmpColor[1], tmpColor[2], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
+					ctx.fillTexturedTriangle(yA, yC, tmpY[3], xA, xC, tmpX[3], tmpColor[0], tmpColor[2], tmpColor[3], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
 				} else if (type == 3) {
 					int t = triangleInfo[index] >> 2;
 					int tA = textureVertexA[t];
 					int tB = textureVertexB[t];
 					int tC = textureVertexC[t];
-					Graphics3D.fillTexturedTriangle(yA, yB, yC, xA, xB, xC, colorA[index], colorA[index], colorA[index], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
-					Graphics3D.fillTexturedTriangle(yA, yC, tmpY[3], xA, xC, tmpX[3], colorA[index], colorA[index], colorA[index], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
+					ctx.fillTexturedTriangle(yA, yB, yC, xA, xB, xC, colorA[index], colorA[index], colorA[index], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
+					ctx.fillTexturedTriangle(yA, yC, tmpY[3], xA, xC, tmpX[3], colorA[index], colorA[index], colorA[index], projectSceneX[tA], projectSceneX[tB], projectSceneX[tC], projectSceneY[tA], projectSceneY[tB], projectSceneY[tC], projectSceneZ[tA], projectSceneZ[tB], projectSceneZ[tC], unmodifiedTriangleColor[index]);
 				}
 			}
 		}
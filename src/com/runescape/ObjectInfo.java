@@ -10,6 +10,11 @@ public class ObjectInfo {
 	public static LinkedList uniqueModelCache = new LinkedList(50);
 	static LinkedList spriteCache = new LinkedList(200);
 
+	/**
+	 * Draws the icons, so they don't disturb whatever the static target is.
+	 */
+	private static RenderContext iconContext;
+
 	public int index = -1;
 	public int modelIndex;
 	public String name;
@@ -64,6 +69,7 @@ public class ObjectInfo {
 	public static final void unload() {
 		uniqueModelCache = null;
 		spriteCache = null;
+		iconContext = null;
 		pointers = null;
 		cache = null;
 		buffer = null;
@@ -224,24 +230,19 @@ public class ObjectInfo {
 		ObjectInfo i = get(index);
 		s = new Sprite(32, 32);
 
-		int centerX = Graphics3D.centerX;
-		int centerY = Graphics3D.centerY;
-		int[] offsets = Graphics3D.offsets;
-		int[] data = Graphics2D.target;
-		int width = Graphics2D.targetWidth;
-		int height = Graphics2D.targetHeight;
+		if (iconContext == null) {
+			iconContext = new RenderContext();
+			iconContext.rasterizer.texturedShading = false;
+		}
 
-		Graphics3D.texturedShading = false;
-		Graphics2D.prepare(s.pixels, 32, 32);
-		Graphics2D.fillRect(0, 0, 32, 32, 0);
-		Graphics3D.prepareOffsets();
+		iconContext.prepare(s.pixels, 32, 32);
 
 		Model m = i.getModel();
 
 		int cameraY = (Graphics3D.sin[i.iconCameraPitch] * i.iconZoom) >> 16;
 		int cameraZ = (Graphics3D.cos[i.iconCameraPitch] * i.iconZoom) >> 16;
 
-		m.draw(0, i.iconYaw, i.iconRoll, i.iconX, (cameraY + (m.maxBoundY / 2) + i.iconY), cameraZ + i.iconY, i.iconCameraPitch);
+		m.draw(iconContext, 0, i.iconYaw, i.iconRoll, i.iconX, (cameraY + (m.maxBoundY / 2) + i.iconY), cameraZ + i.iconY, i.iconCameraPitch);
 
 		for (int x = 31; x >= 0; x--) {
 			for (int y = 31; y >= 0; y--) {
@@ -269,12 +270,6 @@ public class ObjectInfo {
 
 		spriteCache.put(s, (long) index);
 
-		Graphics2D.prepare(data, width, height);
-		Graphics3D.centerX = centerX;
-		Graphics3D.centerY = centerY;
-		Graphics3D.offsets = offsets;
-		Graphics3D.texturedShading = true;
-
 		if (i.stackable) {
 			s.clipWidth = 33;
 		} else {
@@ -0,0 +1,124 @@
+package com.runescape;
+
+/**
+ * The projected vertices of a static model at one placement, kept from the last frame it was drawn. While the camera
+ * is still, {@link Model} can copy them back instead of transforming and dividing every vertex again.
+ *
+ * A cache belongs to a single placement in a {@link SceneGraph}, since a model is shared by every placement of the
+ * same location. The key holds everything the projection depends on: the context and its center, the model, its yaw,
+ * its position relative to the camera, and the camera angle.
+ *
+ * @author Dane
+ */
+final class ProjectionCache {
+
+	private RenderContext context;
+	private Model model;
+	private int centerX;
+	private int centerY;
+	private int yaw;
+	private int pitchSin;
+	private int pitchCos;
+	private int yawSin;
+	private int yawCos;
+	private int sceneX;
+	private int sceneY;
+	private int sceneZ;
+
+	/**
+	 * Whether any vertex was behind the near plane, or the model was close enough that it might have been.
+	 */
+	boolean project;
+
+	/**
+	 * Whether the camera space vertices were kept too. They're only needed for textures and near plane clipping.
+	 */
+	private boolean hasScene;
+
+	private int vertexCount;
+	private int[] screenX;
+	private int[] screenY;
+	private int[] depth;
+	private int[] projectSceneX;
+	private int[] projectSceneY;
+	private int[] projectSceneZ;
+
+	/**
+	 * @return true if the cached projection is for the same model, placement and camera, and has been copied into the
+	 * context.
+	 */
+	boolean load(RenderContext ctx, Model m, int yaw, int pitchSin, int pitchCos, int yawSin, int yawCos, int sceneX, int sceneY, int sceneZ) {
+		if (context != ctx || model != m || vertexCount != m.vertexCount || centerX != ctx.rasterizer.centerX || centerY != ctx.rasterizer.centerY) {
+			return false;
+		}
+
+		if (this.yaw != yaw || this.pitchSin != pitchSin || this.pitchCos != pitchCos || this.yawSin != yawSin || this.yawCos != yawCos) {
+			return false;
+		}
+
+		if (this.sceneX != sceneX || this.sceneY != sceneY || this.sceneZ != sceneZ) {
+			return false;
+		}
+
+		System.arraycopy(screenX, 0, ctx.vertexScreenX, 0, vertexCount);
+		System.arraycopy(screenY, 0, ctx.vertexScreenY, 0, vertexCount);
+		System.arraycopy(depth, 0, ctx.vertexDepth, 0, vertexCount);
+
+		if (hasScene) {
+			System.arraycopy(projectSceneX, 0, ctx.projectSceneX, 0, vertexCount);
+			System.arraycopy(projectSceneY, 0, ctx.projectSceneY, 0, vertexCount);
+			System.arraycopy(projectSceneZ, 0, ctx.projectSceneZ, 0, vertexCount);
+		}
+		return true;
+	}
+
+	/**
+	 * Keeps the projection just written to the context.
+	 */
+	void store(RenderContext ctx, Model m, int yaw, int pitchSin, int pitchCos, int yawSin, int yawCos, int sceneX, int sceneY, int sceneZ, boolean project) {
+		int n = m.vertexCount;
+
+		if (screenX == null || screenX.length < n) {
+			screenX = new int[n];
+			screenY = new int[n];
+			depth = new int[n];
+			projectSceneX = null;
+			projectSceneY = null;
+			projectSceneZ = null;
+		}
+
+		System.arraycopy(ctx.vertexScreenX, 0, screenX, 0, n);
+		System.arraycopy(ctx.vertexScreenY, 0, screenY, 0, n);
+		System.arraycopy(ctx.vertexDepth, 0, depth, 0, n);
+
+		hasScene = project || m.texturedCount > 0;
+
+		if (hasScene) {
+			if (projectSceneX == null) {
+				projectSceneX = new int[screenX.length];
+				projectSceneY = new int[screenX.length];
+				projectSceneZ = new int[screenX.length];
+			}
+
+			System.arraycopy(ctx.projectSceneX, 0, projectSceneX, 0, n);
+			System.arraycopy(ctx.projectSceneY, 0, projectSceneY, 0, n);
+			System.arraycopy(ctx.projectSceneZ, 0, projectSceneZ, 0, n);
+		}
+
+		this.context = ctx;
+		this.model = m;
+		this.vertexCount = n;
+		this.centerX = ctx.rasterizer.centerX;
+		this.centerY = ctx.rasterizer.centerY;
+		this.yaw = yaw;
+		this.pitchSin = pitchSin;
+		this.pitchCos = pitchCos;
+		this.yawSin = yawSin;
+		this.yawCos = yawCos;
+		this.sceneX = sceneX;
+		this.sceneY = sceneY;
+		this.sceneZ = sceneZ;
+		this.project = project;
+	}
+
+}
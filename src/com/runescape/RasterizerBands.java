@@ -0,0 +1,285 @@
+package com.runescape;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Queues filled triangles and rasterizes them by horizontal bands of the target, one band per thread. Every band
+ * replays the whole queue in order against its own {@link Rasterizer}, skipping triangles that don't reach it.
+ *
+ * A band is the target translated up by the band's top row, so the kernels' usual clipping at row 0 and at
+ * {@link Rasterizer#bottom} clips to the band. The edge and lightness interpolation is integer arithmetic, so starting
+ * it part way down a triangle lands on exactly the value stepping would have, and the pixels match drawing the queue
+ * on a single thread.
+ */
+final class RasterizerBands {
+
+	private static final int SHADED = 0;
+	private static final int FLAT = 1;
+	private static final int TEXTURED = 2;
+
+	/**
+	 * type, testX, alpha, opaque, min y, max y, then up to 19 arguments.
+	 */
+	private static final int STRIDE = 25;
+
+	private final Rasterizer source;
+	private final ExecutorService executor;
+	private final Rasterizer[] rasterizers;
+	private final int[][] bandOffsets;
+	private final List<Future<?>> futures = new ArrayList<>();
+
+	private boolean active;
+
+	// the target state the queue was recorded against
+	private int[] target;
+	private int width;
+	private int bottom;
+	private int rightX;
+	private int[] offsets;
+	private int centerX;
+	private int centerY;
+	private boolean texturedShading;
+
+	private int[] queue = new int[STRIDE * 1024];
+	private int[][] texels = new int[256][];
+	private int count;
+	private int texelCount;
+
+	/**
+	 * @param source the rasterizer whose target and state the queued triangles are recorded against.
+	 * @param threads the thread count.
+	 */
+	RasterizerBands(Rasterizer source, int threads) {
+		this.source = source;
+		rasterizers = new Rasterizer[threads];
+		bandOffsets = new int[threads][];
+
+		for (int n = 0; n < threads; n++) {
+			rasterizers[n] = new Rasterizer();
+		}
+
+		executor = Executors.newFixedThreadPool(threads - 1, r -> {
+			Thread t = new Thread(r, "rasterizer");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	boolean isActive() {
+		return active;
+	}
+
+	void begin() {
+		active = true;
+		capture();
+	}
+
+	void end() {
+		active = false;
+	}
+
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	private void capture() {
+		Rasterizer s = source;
+		target = s.target;
+		width = s.width;
+		bottom = s.bottom;
+		rightX = s.rightX;
+		offsets = s.offsets;
+		centerX = s.centerX;
+		centerY = s.centerY;
+		texturedShading = s.texturedShading;
+	}
+
+	/**
+	 * Flushes the queue if the target or its clip has changed since it was recorded.
+	 */
+	private void sync() {
+		Rasterizer s = source;
+		if (target != s.target || width != s.width || bottom != s.bottom || rightX != s.rightX || offsets != s.offsets || centerX != s.centerX || centerY != s.centerY || texturedShading != s.texturedShading) {
+			flush();
+			capture();
+		}
+	}
+
+	private int push(int type, int yA, int yB, int yC) {
+		sync();
+
+		if ((count + 1) * STRIDE > queue.length) {
+			queue = Arrays.copyOf(queue, queue.length * 2);
+		}
+
+		int i = count++ * STRIDE;
+		queue[i] = type;
+		queue[i + 1] = source.testX ? 1 : 0;
+		queue[i + 2] = source.alpha;
+		queue[i + 3] = source.opaque ? 1 : 0;
+		queue[i + 4] = Math.min(yA, Math.min(yB, yC));
+		queue[i + 5] = Math.max(yA, Math.max(yB, yC));
+		return i + 6;
+	}
+
+	void fillShadedTriangle(int xA, int yA, int xB, int yB, int xC, int yC, int colorA, int colorB, int colorC) {
+		int i = push(SHADED, yA, yB, yC);
+		queue[i] = xA;
+		queue[i + 1] = yA;
+		queue[i + 2] = xB;
+		queue[i + 3] = yB;
+		queue[i + 4] = xC;
+		queue[i + 5] = yC;
+		queue[i + 6] = colorA;
+		queue[i + 7] = colorB;
+		queue[i + 8] = colorC;
+	}
+
+	void fillTriangle(int xA, int yA, int xB, int yB, int xC, int yC, int color) {
+		int i = push(FLAT, yA, yB, yC);
+		queue[i] = xA;
+		queue[i + 1] = yA;
+		queue[i + 2] = xB;
+		queue[i + 3] = yB;
+		queue[i + 4] = xC;
+		queue[i + 5] = yC;
+		queue[i + 6] = color;
+	}
+
+	void fillTexturedTriangle(int aY, int bY, int cY, int aX, int bX, int cX, int aL, int bL, int cL, int originX, int horizontalX, int verticalX, int originY, int horizontalY, int verticalY, int originZ, int horizontalZ, int verticalZ, int[] texels) {
+		int i = push(TEXTURED, aY, bY, cY);
+
+		if (texelCount == this.texels.length) {
+			this.texels = Arrays.copyOf(this.texels, texelCount * 2);
+		}
+
+		this.texels[texelCount] = texels;
+
+		queue[i] = aY;
+		queue[i + 1] = bY;
+		queue[i + 2] = cY;
+		queue[i + 3] = aX;
+		queue[i + 4] = bX;
+		queue[i + 5] = cX;
+		queue[i + 6] = aL;
+		queue[i + 7] = bL;
+		queue[i + 8] = cL;
+		queue[i + 9] = originX;
+		queue[i + 10] = horizontalX;
+		queue[i + 11] = verticalX;
+		queue[i + 12] = originY;
+		queue[i + 13] = horizontalY;
+		queue[i + 14] = verticalY;
+		queue[i + 15] = originZ;
+		queue[i + 16] = horizontalZ;
+		queue[i + 17] = verticalZ;
+		queue[i + 18] = texelCount++;
+	}
+
+	/**
+	 * Rasterizes and clears the queue, returning once every band is done.
+	 */
+	void flush() {
+		if (count == 0) {
+			return;
+		}
+
+		int bands = rasterizers.length;
+		int bandHeight = (bottom + bands - 1) / bands;
+
+		try {
+			for (int n = 1; n < bands; n++) {
+				final int band = n;
+				if (prepare(band, bandHeight)) {
+					futures.add(executor.submit(() -> draw(rasterizers[band], band * bandHeight)));
+				}
+			}
+
+			if (prepare(0, bandHeight)) {
+				draw(rasterizers[0], 0);
+			}
+
+			for (Future<?> f : futures) {
+				f.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		} finally {
+			futures.clear();
+			Arrays.fill(texels, 0, texelCount, null);
+			texelCount = 0;
+			count = 0;
+		}
+	}
+
+	/**
+	 * Points the band's rasterizer at its rows of the target.
+	 *
+	 * @return false if the band has no rows.
+	 */
+	private boolean prepare(int band, int bandHeight) {
+		int top = band * bandHeight;
+		int rows = Math.min(bottom, top + bandHeight) - top;
+
+		if (rows <= 0) {
+			return false;
+		}
+
+		int[] o = bandOffsets[band];
+
+		if (o == null || o.length != rows) {
+			o = bandOffsets[band] = new int[rows];
+		}
+
+		for (int y = 0; y < rows; y++) {
+			o[y] = offsets[top + y];
+		}
+
+		Rasterizer r = rasterizers[band];
+		r.target = target;
+		r.width = width;
+		r.bottom = rows;
+		r.rightX = rightX;
+		r.offsets = o;
+		r.centerX = centerX;
+		r.centerY = centerY - top;
+		r.texturedShading = texturedShading;
+		return true;
+	}
+
+	private void draw(Rasterizer r, int top) {
+		int bottom = top + r.bottom;
+
+		for (int n = 0; n < count; n++) {
+			int i = n * STRIDE;
+
+			// entirely above or below this band
+			if (queue[i + 5] < top || queue[i + 4] >= bottom) {
+				continue;
+			}
+
+			r.testX = queue[i + 1] != 0;
+			r.alpha = queue[i + 2];
+			r.opaque = queue[i + 3] != 0;
+			i += 6;
+
+			switch (queue[i - 6]) {
+				case SHADED:
+					r.fillShadedTriangle(queue[i], queue[i + 1] - top, queue[i + 2], queue[i + 3] - top, queue[i + 4], queue[i + 5] - top, queue[i + 6], queue[i + 7], queue[i + 8]);
+					break;
+				case FLAT:
+					r.fillTriangle(queue[i], queue[i + 1] - top, queue[i + 2], queue[i + 3] - top, queue[i + 4], queue[i + 5] - top, queue[i + 6]);
+					break;
+				case TEXTURED:
+					r.fillTexturedTriangle(queue[i] - top, queue[i + 1] - top, queue[i + 2] - top, queue[i + 3], queue[i + 4], queue[i + 5], queue[i + 6], queue[i + 7], queue[i + 8], queue[i + 9], queue[i + 10], queue[i + 11], queue[i + 12], queue[i + 13], queue[i + 14], queue[i + 15], queue[i + 16], queue[i + 17], texels[queue[i + 18]]);
+					break;
+			}
+		}
+	}
+}
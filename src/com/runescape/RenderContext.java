@@ -0,0 +1,291 @@
+package com.runescape;
+
+/**
+ * Owns everything a viewport needs while drawing models and scenes: the target and its clip, the projection scratch of
+ * {@link Model} and {@link TileOverlay}, the visibility maps of {@link SceneGraph} and the unpacked texels. Contexts
+ * share nothing but the lookup tables and the textures themselves, so two of them can draw at the same time.
+ *
+ * The static drawing methods of {@link Graphics3D}, {@link Model} and {@link SceneGraph} draw through the default
+ * context, which follows the static target and clip of {@link Graphics2D} and {@link Graphics3D}.
+ *
+ * @author Dane
+ */
+public final class RenderContext {
+
+	private static RenderContext defaultContext = new RenderContext();
+
+	/**
+	 * The target, clip and triangle state.
+	 */
+	public final Rasterizer rasterizer = new Rasterizer();
+
+	/**
+	 * The height of the target.
+	 */
+	public int height;
+
+	/**
+	 * Half the clip bounds, which {@link Model} culls against. Not always the same as the projection center in
+	 * {@link #rasterizer}.
+	 */
+	public int clipCenterX, clipCenterY;
+
+	/**
+	 * See {@link SceneGraph#init(RenderContext, int, int, int, int)}.
+	 */
+	public long[][][] visibilityMaps;
+
+	public boolean[] testTriangleX = new boolean[2048];
+	public boolean[] projectTriangle = new boolean[2048];
+
+	public int[] vertexScreenX = new int[2048];
+	public int[] vertexScreenY = new int[2048];
+	public int[] vertexDepth = new int[2048];
+
+	public int[] projectSceneX = new int[2048];
+	public int[] projectSceneY = new int[2048];
+	public int[] projectSceneZ = new int[2048];
+
+	/**
+	 * The depth sort of {@link Model}. Each array holds one entry per visible triangle, and is grown to fit the model
+	 * being drawn by {@link #ensureSortCapacity(int, int)}.
+	 */
+	public int[] visibleTriangles = new int[512];
+	public int[] visibleDepths = new int[512];
+	public int[] sortedTriangles = new int[512];
+	public int[] sortedDepths = new int[512];
+
+	/**
+	 * The triangle count, then the next write position, of each depth.
+	 */
+	public int[] depthOffsets = new int[512];
+
+	/**
+	 * The sorted triangles regrouped by priority, still furthest first within each priority. The offsets hold where
+	 * each priority starts, plus the end.
+	 */
+	public int[] priorityTriangles = new int[512];
+	public int[] priorityDepths = new int[512];
+	public int[] priorityOffsets = new int[13];
+	public int[] lowPriorityDepth = new int[12];
+
+	public int[] tmpX = new int[10];
+	public int[] tmpY = new int[10];
+	public int[] tmpColor = new int[10];
+
+	public int[] overlayScreenX = new int[6];
+	public int[] overlayScreenY = new int[6];
+	public int[] overlaySceneX = new int[6];
+	public int[] overlaySceneY = new int[6];
+	public int[] overlaySceneZ = new int[6];
+
+	/**
+	 * The texels this context draws with. Queued triangles point into these buffers, so only this context recycles
+	 * them.
+	 */
+	public final TexelCache texels = new TexelCache();
+
+	/**
+	 * Set when triangles are rasterized by band on more than one thread.
+	 */
+	private RasterizerBands bands;
+
+	public RenderContext() {
+	}
+
+	/**
+	 * Creates a context drawing to the provided target.
+	 *
+	 * @param target the INT24_RGB destination.
+	 * @param width the width.
+	 * @param height the height.
+	 */
+	public RenderContext(int[] target, int width, int height) {
+		prepare(target, width, height);
+	}
+
+	/**
+	 * Grows the depth sort scratch to fit a model.
+	 *
+	 * @param triangleCount the triangle count.
+	 * @param depthCount the number of depths. (the model's {@code minDepth})
+	 */
+	public void ensureSortCapacity(int triangleCount, int depthCount) {
+		if (visibleTriangles.length < triangleCount) {
+			int n = Math.max(triangleCount, visibleTriangles.length * 2);
+			visibleTriangles = new int[n];
+			visibleDepths = new int[n];
+			sortedTriangles = new int[n];
+			sortedDepths = new int[n];
+			priorityTriangles = new int[n];
+			priorityDepths = new int[n];
+		}
+
+		if (depthOffsets.length < depthCount + 1) {
+			depthOffsets = new int[Math.max(depthCount + 1, depthOffsets.length * 2)];
+		}
+	}
+
+	/**
+	 * Returns the default context, updated to the static state of {@link Graphics2D} and {@link Graphics3D}.
+	 *
+	 * @return the default context.
+	 */
+	public static RenderContext getDefault() {
+		RenderContext c = defaultContext;
+		Rasterizer r = c.rasterizer;
+		r.target = Graphics2D.target;
+		r.width = Graphics2D.targetWidth;
+		r.bottom = Graphics2D.bottom;
+		r.rightX = Graphics2D.rightX;
+		r.offsets = Graphics3D.offsets;
+		r.centerX = Graphics3D.centerX;
+		r.centerY = Graphics3D.centerY;
+		r.testX = Graphics3D.testX;
+		r.opaque = Graphics3D.opaque;
+		r.alpha = Graphics3D.alpha;
+		r.texturedShading = Graphics3D.texturedShading;
+		c.height = Graphics2D.targetHeight;
+		c.clipCenterX = Graphics2D.centerX;
+		c.clipCenterY = Graphics2D.centerY;
+		return c;
+	}
+
+	/**
+	 * Nullifies the default context.
+	 */
+	public static void unload() {
+		if (defaultContext != null) {
+			defaultContext.setRasterThreads(1);
+		}
+		defaultContext = null;
+	}
+
+	/**
+	 * @return true if this is the context the static methods draw through.
+	 */
+	public boolean isDefault() {
+		return this == defaultContext;
+	}
+
+	/**
+	 * Points this context at a new target, clipped to its full size and centered.
+	 *
+	 * @param target the INT24_RGB destination.
+	 * @param width the width.
+	 * @param height the height.
+	 */
+	public void prepare(int[] target, int width, int height) {
+		flushQueued();
+
+		Rasterizer r = rasterizer;
+
+		if (r.offsets == null || r.offsets.length != height || r.width != width) {
+			r.offsets = new int[height];
+			for (int y = 0; y < height; y++) {
+				r.offsets[y] = width * y;
+			}
+		}
+
+		r.target = target;
+		r.width = width;
+		r.bottom = height;
+		r.rightX = width - 1;
+		r.centerX = width / 2;
+		r.centerY = height / 2;
+		this.height = height;
+		this.clipCenterX = width / 2;
+		this.clipCenterY = height / 2;
+	}
+
+	/**
+	 * Sets the number of threads this context rasterizes triangles on. See {@link RasterizerBands}.
+	 *
+	 * @param threads the thread count.
+	 */
+	public void setRasterThreads(int threads) {
+		if (bands != null) {
+			bands.flush();
+			bands.shutdown();
+			bands = null;
+		}
+
+		if (threads > 1) {
+			bands = new RasterizerBands(rasterizer, threads);
+		}
+	}
+
+	/**
+	 * Starts queueing filled triangles if there's more than one raster thread. Only the triangle fills are queued, so
+	 * anything else drawn to the target must come after {@link #flushBands()}.
+	 */
+	public void beginBands() {
+		if (bands != null) {
+			bands.begin();
+		}
+	}
+
+	/**
+	 * Rasterizes any queued triangles and stops queueing.
+	 */
+	public void flushBands() {
+		if (bands != null && bands.isActive()) {
+			bands.flush();
+			bands.end();
+		}
+	}
+
+	/**
+	 * Rasterizes any queued triangles so that what's drawn next lands on top of them, but keeps queueing.
+	 */
+	public void flushQueued() {
+		if (bands != null && bands.isActive()) {
+			bands.flush();
+		}
+	}
+
+	/**
+	 * See {@link Graphics3D#fillShadedTriangle(int, int, int, int, int, int, int, int, int)}.
+	 */
+	public void fillShadedTriangle(int xA, int yA, int xB, int yB, int xC, int yC, int colorA, int colorB, int colorC) {
+		if (bands != null && bands.isActive()) {
+			bands.fillShadedTriangle(xA, yA, xB, yB, xC, yC, colorA, colorB, colorC);
+			return;
+		}
+		rasterizer.fillShadedTriangle(xA, yA, xB, yB, xC, yC, colorA, colorB, colorC);
+	}
+
+	/**
+	 * See {@link Graphics3D#fillTriangle(int, int, int, int, int, int, int)}.
+	 */
+	public void fillTriangle(int xA, int yA, int xB, int yB, int xC, int yC, int color) {
+		if (bands != null && bands.isActive()) {
+			bands.fillTriangle(xA, yA, xB, yB, xC, yC, color);
+			return;
+		}
+		rasterizer.fillTriangle(xA, yA, xB, yB, xC, yC, color);
+	}
+
+	/**
+	 * See {@link Graphics3D#fillTexturedTriangle(int, int, int, int, int, int, int, int, int, int, int, int, int, int, int, int, int, int, int)}.
+	 */
+	public void fillTexturedTriangle(int aY, int bY, int cY, int aX, int bX, int cX, int aL, int bL, int cL, int originX, int horizontalX, int verticalX, int originY, int horizontalY, int verticalY, int originZ, int horizontalZ, int verticalZ, int textureIndex) {
+		boolean queue = bands != null && bands.isActive();
+
+		// a miss may recycle texels that queued triangles still point at.
+		if (queue && !this.texels.contains(textureIndex)) {
+			bands.flush();
+		}
+
+		// INT24_RGB array
+		int[] texels = this.texels.get(textureIndex);
+
+		rasterizer.opaque = !this.texels.transparent[textureIndex];
+
+		if (queue) {
+			bands.fillTexturedTriangle(aY, bY, cY, aX, bX, cX, aL, bL, cL, originX, horizontalX, verticalX, originY, horizontalY, verticalY, originZ, horizontalZ, verticalZ, texels);
+			return;
+		}
+		rasterizer.fillTexturedTriangle(aY, bY, cY, aX, bX, cX, aL, bL, cL, originX, horizontalX, verticalX, originY, horizontalY, verticalY, originZ, horizontalZ, verticalZ, texels);
+	}
+}
@@ -0,0 +1,115 @@
+package com.runescape;
+
+import java.util.logging.*;
+
+/**
+ * The span fills under {@link Rasterizer#drawScanline} and {@link Graphics2D#fillRect}. The scalar backend is always
+ * available. If the optional source root <code>src-vector</code> is compiled in and the JVM was started with
+ * <code>--add-modules jdk.incubator.vector</code>, a backend built on the Vector API is used instead. Both produce the
+ * same pixels.
+ *
+ * @author Dane
+ */
+public abstract class Scanlines {
+
+	private static final Logger logger = Logger.getLogger(Scanlines.class.getName());
+
+	/**
+	 * Set this system property to <code>false</code> to always use the scalar backend.
+	 */
+	public static final String VECTOR_PROPERTY = "rs.vector";
+
+	private static final Scanlines backend = create();
+
+	/**
+	 * Returns the backend, which is chosen once.
+	 *
+	 * @return the backend.
+	 */
+	public static Scanlines get() {
+		return backend;
+	}
+
+	private static Scanlines create() {
+		if (Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))) {
+			try {
+				Scanlines s = Class.forName("com.runescape.VectorScanlines").asSubclass(Scanlines.class).getDeclaredConstructor().newInstance();
+				logger.log(Level.INFO, "Using vector scanlines: {0}", s);
+				return s;
+			} catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+				logger.log(Level.FINE, "Vector scanlines unavailable", e);
+			}
+		}
+		return new Scalar();
+	}
+
+	/**
+	 * Fills a span with a color.
+	 *
+	 * @param dst the destination.
+	 * @param off the offset of the first pixel.
+	 * @param length the pixel count, which mustn't be negative.
+	 * @param rgb the INT24_RGB.
+	 */
+	public abstract void fill(int[] dst, int off, int length, int rgb);
+
+	/**
+	 * Blends a color over a span.
+	 *
+	 * @param dst the destination.
+	 * @param off the offset of the first pixel.
+	 * @param length the pixel count, which mustn't be negative.
+	 * @param rgb the INT24_RGB, already scaled by <code>256 - alpha</code>.
+	 * @param alpha the weight of the existing pixels, out of 256.
+	 */
+	public abstract void blend(int[] dst, int off, int length, int rgb, int alpha);
+
+	static final class Scalar extends Scanlines {
+
+		@Override
+		public void fill(int[] dst, int off, int length, int rgb) {
+			int n = length >> 2;
+
+			while (--n >= 0) {
+				dst[off++] = rgb;
+				dst[off++] = rgb;
+				dst[off++] = rgb;
+				dst[off++] = rgb;
+			}
+
+			n = length & 0x3;
+
+			while (--n >= 0) {
+				dst[off++] = rgb;
+			}
+		}
+
+		@Override
+		public void blend(int[] dst, int off, int length, int rgb, int alpha) {
+			int n = length >> 2;
+
+			while (--n >= 0) {
+				dst[off] = (rgb + ((dst[off] & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * alpha >> 8 & 0xFF00));
+				off++;
+				dst[off] = (rgb + ((dst[off] & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * alpha >> 8 & 0xFF00));
+				off++;
+				dst[off] = (rgb + ((dst[off] & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * alpha >> 8 & 0xFF00));
+				off++;
+				dst[off] = (rgb + ((dst[off] & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * alpha >> 8 & 0xFF00));
+				off++;
+			}
+
+			n = length & 0x3;
+
+			while (--n >= 0) {
+				dst[off] = (rgb + ((dst[off] & 0xFF00FF) * alpha >> 8 & 0xFF00FF) + ((dst[off] & 0xFF00) * alpha >> 8 & 0xFF00));
+				off++;
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "scalar";
+		}
+	}
+}
@@ -1,7 +1,29 @@
 package com.runescape;
 
+import java.util.logging.*;
+import java.util.stream.*;
+
 public final class Scene {
 
+	private static final Logger logger = Logger.getLogger(Scene.class.getName());
+
+	/**
+	 * The amount of tile columns one task blends when building the landscape.
+	 */
+	private static final int TILE_BAND_WIDTH = 8;
+
+	/**
+	 * The amount of ints a tile takes up between being built and being added to the graph. These are the arguments to
+	 * {@link SceneGraph#addTile} after the plane.
+	 */
+	private static final int TILE_STRIDE = 19;
+
+	/**
+	 * The {@link #occludeflags} a flat tile with a hiding floor sets: C on plane 0, A and B on plane 1, B and C on plane
+	 * 2 and A on plane 3.
+	 */
+	private static final int FLOOR_OCCLUDE_FLAGS = 0b1_110_011_100;
+
 	public static final int VIEW_DIAMETER = 50;
 	public static final int VIEW_RADIUS = VIEW_DIAMETER / 2;
 	public static final int FAR_Z = 128 * VIEW_RADIUS;
@@ -46,14 +68,18 @@ public final class Scene {
 	public byte[][][] planeOverlayTypes;
 	public byte[][][] planeOverlayRotations;
 	public byte[][][] shadowmap;
-	public int[][] lightmap;
-	public int[] blendedHue;
-	public int[] blendedSaturation;
-	public int[] blendedLightness;
-	public int[] blendedHueMultiplier;
-	public int[] blendDirectionTracker;
 	public int[][][] occludeflags;
 
+	/**
+	 * The lightmaps of the last build, kept for {@link #rebuildTiles}.
+	 */
+	private int[][][] lightmaps;
+
+	/**
+	 * How long the last {@link #buildLandscape(CollisionMap[], SceneGraph)} took in nanoseconds.
+	 */
+	public long buildTime;
+
 	public Scene(int sizeX, int sizeY, byte[][][] renderFlags, int[][][] heightmap) {
 		this.tileSizeX = sizeX;
 		this.tileSizeZ = sizeY;
@@ -65,12 +91,6 @@ public final class Scene {
 		this.planeOverlayRotations = new byte[4][tileSizeX][tileSizeZ];
 		this.occludeflags = new int[4][tileSizeX + 1][tileSizeZ + 1];
 		this.shadowmap = new byte[4][tileSizeX + 1][tileSizeZ + 1];
-		this.lightmap = new int[tileSizeX + 1][tileSizeZ + 1];
-		this.blendedHue = new int[tileSizeZ];
-		this.blendedSaturation = new int[tileSizeZ];
-		this.blendedLightness = new int[tileSizeZ];
-		this.blendedHueMultiplier = new int[tileSizeZ];
-		this.blendDirectionTracker = new int[tileSizeZ];
 	}
 
 	public final void clearLandscape(int tileX, int tileY, int width, int height) {
@@ -474,6 +494,7 @@ public final class Scene {
 	}
 
 	public final void buildLandscape(CollisionMap[] planeCollisions, SceneGraph graph) {
+		long start = System.nanoTime();
 		CollisionMap lastCollisionMap = null;
 
 		for (int plane = 0; plane < 4; plane++) {
@@ -494,223 +515,35 @@ public final class Scene {
 			lastCollisionMap = collisionMap;
 		}
 
-		for (int plane = 0; plane < 4; plane++) {
-			byte[][] sm = shadowmap[plane];
-			int minIntensity = 96;
-			int lightSpecularFactor = 768;
-			int lightX = -50;
-			int lightY = -10;
-			int lightZ = -50;
-			int lightLength = (int) Math.sqrt((double) (lightX * lightX + lightY * lightY + lightZ * lightZ));
-			int specularDistribution = (lightSpecularFactor * lightLength) >> 8;
-
-			for (int tileY = 1; tileY < tileSizeZ - 1; tileY++) {
-				for (int tileX = 1; tileX < tileSizeX - 1; tileX++) {
-					int x = heightmap[plane][tileX + 1][tileY] - heightmap[plane][tileX - 1][tileY];
-					int y = heightmap[plane][tileX][tileY + 1] - heightmap[plane][tileX][tileY - 1];
-					int length = (int) Math.sqrt((double) ((x * x) + (256 * 256) + (y * y)));
-
-					if (length == 0) {
-						length = 256;
-					}
-
-					int normalX = (x << 8) / length;
-					int normalY = (256 << 8) / length;
-					int normalZ = (y << 8) / length;
-
-					int intensity = minIntensity + (lightX * normalX + lightY * normalY + lightZ * normalZ) / specularDistribution;
-					int subtraction = (sm[tileX - 1][tileY] >> 2) + (sm[tileX + 1][tileY] >> 3) + (sm[tileX][tileY - 1] >> 2) + (sm[tileX][tileY + 1] >> 3) + (sm[tileX][tileY] >> 1);
-					lightmap[tileX][tileY] = intensity - subtraction;
-				}
-			}
-
-			for (int y = 0; y < tileSizeZ; y++) {
-				blendedHue[y] = 0;
-				blendedSaturation[y] = 0;
-				blendedLightness[y] = 0;
-				blendedHueMultiplier[y] = 0;
-				blendDirectionTracker[y] = 0;
-			}
-
-			for (int x = -5; x < tileSizeX + 5; x++) {
-				for (int y = 0; y < tileSizeZ; y++) {
-					int dx = x + 5;
-
-					if (dx >= 0 && dx < tileSizeX) {
-						int index = (planeUnderlayFloorIndices[plane][dx][y] & 0xFF) - 1;
-
-						if (index >= 0 && index < FloorType.instances.length) {
-							FloorType f = FloorType.instances[index];
-							blendedHue[y] += f.blendHue;
-							blendedSaturation[y] += f.saturation;
-							blendedLightness[y] += f.lightness;
-							blendedHueMultiplier[y] += f.blendHueMultiplier;
-							blendDirectionTracker[y]++;
-						}
-					}
-
-					dx = x - 5;
-
-					if (dx >= 0 && dx < tileSizeX) {
-						int index = (planeUnderlayFloorIndices[plane][dx][y] & 0xFF) - 1;
-
-						if (index >= 0 && index < FloorType.instances.length) {
-							FloorType f = FloorType.instances[index];
-							blendedHue[y] -= f.blendHue;
-							blendedSaturation[y] -= f.saturation;
-							blendedLightness[y] -= f.lightness;
-							blendedHueMultiplier[y] -= f.blendHueMultiplier;
-							blendDirectionTracker[y]--;
-						}
-					}
-				}
-
-				if (x >= 1 && x < tileSizeX - 1) {
-					int hue = 0;
-					int saturation = 0;
-					int lightness = 0;
-					int hueDivisor = 0;
-					int directionTracker = 0;
-
-					for (int y = -5; y < tileSizeZ + 5; y++) {
-						int yD = y + 5;
-
-						if (yD >= 0 && yD < tileSizeZ) {
-							hue += blendedHue[yD];
-							saturation += blendedSaturation[yD];
-							lightness += blendedLightness[yD];
-							hueDivisor += blendedHueMultiplier[yD];
-							directionTracker += blendDirectionTracker[yD];
-						}
-
-						yD = y - 5;
-
-						if (yD >= 0 && yD < tileSizeZ) {
-							hue -= blendedHue[yD];
-							saturation -= blendedSaturation[yD];
-							lightness -= blendedLightness[yD];
-							hueDivisor -= blendedHueMultiplier[yD];
-							directionTracker -= blendDirectionTracker[yD];
-						}
-
-						if (y >= 1 && y < tileSizeZ - 1) {
-							if (lowmemory) {
-								int p = plane;
-
-								// it's a bridge!
-								if (plane > 0 && (renderflags[1][x][y] & 0x2) != 0) {
-									p--;
-								}
-
-								if (((renderflags[plane][x][y]) & 0x8) != 0) {
-									p = 0;
-								}
-
-								if (p != builtPlane || ((renderflags[plane][x][y]) & 0x10) != 0) {
-									continue;
-								}
-							}
-
-							int underlayFloorIndex = planeUnderlayFloorIndices[plane][x][y] & 0xFF;
-							int overlayFloorIndex = planeOverlayFloorIndices[plane][x][y] & 0xFF;
-
-							if (underlayFloorIndex > 0 || overlayFloorIndex > 0) {
-								int southwestY = heightmap[plane][x][y];
-								int southeastY = heightmap[plane][x + 1][y];
-								int northeastY = heightmap[plane][x + 1][y + 1];
-								int northwestY = heightmap[plane][x][y + 1];
-
-								int southwestLightness = lightmap[x][y];
-								int southeastLightness = lightmap[x + 1][y];
-								int northeastLightness = lightmap[x + 1][y + 1];
-								int northwestLightness = lightmap[x][y + 1];
-
-								int color = -1;
-
-								if (underlayFloorIndex > 0) {
-									if (hueDivisor != 0 && directionTracker != 0) {
-										color = hsl24To16((hue * 256) / hueDivisor, saturation / directionTracker, lightness / directionTracker);
-									}
-								}
+		int[][][] lightmaps = this.lightmaps = new int[4][][];
+		IntStream.range(0, 4).parallel().forEach(plane -> lightmaps[plane] = getLightmap(plane));
 
-								if (plane > 0 && !lowmemory) {
-									boolean hideUnderlay = true;
+		int bandCount = (tileSizeX - 2 + TILE_BAND_WIDTH - 1) / TILE_BAND_WIDTH;
+		int[][] bandTiles = new int[4 * bandCount][];
+		int[] bandTileCounts = new int[4 * bandCount];
 
-									if (underlayFloorIndex == 0 && planeOverlayTypes[plane][x][y] != 0) {
-										hideUnderlay = false;
-									}
-
-									if (overlayFloorIndex > 0 && overlayFloorIndex - 1 < FloorType.count && !(FloorType.instances[overlayFloorIndex - 1].occlude)) {
-										hideUnderlay = false;
-									}
-
-									if (hideUnderlay && southwestY == southeastY && southwestY == northeastY && southwestY == northwestY) {
-										// Occlusion flags enabled:
-										// FLAG		PLANE
-										// C		0
-										// A | B	1
-										// B | C	2
-										// A		3
-										occludeflags[plane][x][y] |= 0b1_110_011_100;
-									}
-								}
+		IntStream.range(0, 4 * bandCount).parallel().forEach(n -> {
+			int plane = n / bandCount;
+			int x0 = 1 + (n % bandCount) * TILE_BAND_WIDTH;
+			int x1 = Math.min(x0 + TILE_BAND_WIDTH, tileSizeX - 1);
+			bandTiles[n] = new int[(x1 - x0) * (tileSizeZ - 2) * TILE_STRIDE];
+			bandTileCounts[n] = getTiles(plane, x0, x1, 1, tileSizeZ - 1, lightmaps[plane], bandTiles[n]);
+		});
 
-								int minimapColor = 0;
-
-								if (color != -1) {
-									minimapColor = Graphics3D.palette[adjustHSLLightness1(color, 96)];
-								}
-
-								if (overlayFloorIndex == 0) {
-									graph.addTile(plane, x, y, 0, 0, -1, southwestY, southeastY, northeastY, northwestY, adjustHSLLightness1(color, southwestLightness), adjustHSLLightness1(color, southeastLightness), adjustHSLLightness1(color, northeastLightness), adjustHSLLightness1(color, northwestLightness), 0, 0, 0, 0, minimapColor, 0);
-								} else {
-									int type = planeOverlayTypes[plane][x][y] + 1;
-									byte rotation = planeOverlayRotations[plane][x][y];
-
-									overlayFloorIndex--;
-
-									if (overlayFloorIndex >= FloorType.count) {
-										overlayFloorIndex = 0;
-									}
-
-									FloorType f = FloorType.instances[overlayFloorIndex];
-									int textureIndex = f.textureIndex;
-									int rgb;
-									int hsl;
-
-									if (textureIndex >= 0) {
-										rgb = Graphics3D.getTextureColor(textureIndex);
-										hsl = -1;
-									} else if (f.rgb == 0xFF00FF) {
-										rgb = 0;
-										hsl = -2;
-										textureIndex = -1;
-									} else {
-										hsl = hsl24To16(f.hue, f.saturation, f.lightness);
-										rgb = Graphics3D.palette[adjustHSLLightness0(hsl, 96)];
-									}
+		// merged in the same plane, x, z order the serial build used so the graph comes out identical
+		for (int plane = 0; plane < 4; plane++) {
+			for (int band = 0; band < bandCount; band++) {
+				int[] t = bandTiles[plane * bandCount + band];
+				int end = bandTileCounts[plane * bandCount + band] * TILE_STRIDE;
 
-									graph.addTile(plane, x, y, type, rotation, textureIndex, southwestY, southeastY, northeastY, northwestY, adjustHSLLightness1(color, southwestLightness), adjustHSLLightness1(color, southeastLightness), adjustHSLLightness1(color, northeastLightness), adjustHSLLightness1(color, northwestLightness), adjustHSLLightness0(hsl, southwestLightness), adjustHSLLightness0(hsl, southeastLightness), adjustHSLLightness0(hsl, northeastLightness), adjustHSLLightness0(hsl, northwestLightness), minimapColor, rgb);
-								}
-							}
-						}
-					}
+				for (int i = 0; i < end; i += TILE_STRIDE) {
+					graph.addTile(plane, t[i], t[i + 1], t[i + 2], t[i + 3], t[i + 4], t[i + 5], t[i + 6], t[i + 7], t[i + 8], t[i + 9], t[i + 10], t[i + 11], t[i + 12], t[i + 13], t[i + 14], t[i + 15], t[i + 16], t[i + 17], t[i + 18]);
 				}
 			}
 
 			for (int z = 1; z < tileSizeZ - 1; z++) {
 				for (int x = 1; x < tileSizeX - 1; x++) {
-					int drawPlane = plane;
-
-					if (drawPlane > 0 && ((renderflags[1][x][z] & 0x2) != 0)) {
-						drawPlane--;
-					}
-
-					if ((renderflags[plane][x][z] & 0x8) != 0) {
-						drawPlane = 0;
-					}
-
-					graph.setTileDrawPlane(plane, x, z, drawPlane);
+					graph.setTileDrawPlane(plane, x, z, getDrawPlane(plane, x, z));
 				}
 			}
 		}
@@ -910,6 +743,132 @@ public final class Scene {
 				}
 			}
 		}
+
+		buildTime = System.nanoTime() - start;
+		logger.log(Level.FINE, "Built landscape in {0} ms", buildTime / 1_000_000.0);
+	}
+
+	/**
+	 * Re-blends the floors of one plane around an edited area and rebuilds their tiles in the graph, so an edit does
+	 * not need the whole landscape built again. Underlays blend into the tiles up to five away, so those are rebuilt
+	 * too. The heights are expected to be unchanged. The floor occlusion flags of those tiles are worked out again, but
+	 * the occluders stay as they were built.
+	 *
+	 * @param graph the graph this scene was built into.
+	 * @param plane the plane.
+	 * @param minTileX the min tile x of the edit.
+	 * @param minTileZ the min tile z of the edit.
+	 * @param maxTileX the max tile x of the edit.
+	 * @param maxTileZ the max tile z of the edit.
+	 */
+	public final void rebuildTiles(SceneGraph graph, int plane, int minTileX, int minTileZ, int maxTileX, int maxTileZ) {
+		int x0 = Math.max(1, minTileX - 5);
+		int z0 = Math.max(1, minTileZ - 5);
+		int x1 = Math.min(tileSizeX - 1, maxTileX + 6);
+		int z1 = Math.min(tileSizeZ - 1, maxTileZ + 6);
+
+		if (x0 >= x1 || z0 >= z1) {
+			return;
+		}
+
+		for (int x = x0; x < x1; x++) {
+			for (int z = z0; z < z1; z++) {
+				occludeflags[plane][x][z] &= ~FLOOR_OCCLUDE_FLAGS;
+			}
+		}
+
+		int[][] lightmap = lightmaps != null ? lightmaps[plane] : getLightmap(plane);
+		int[] tiles = new int[(x1 - x0) * (z1 - z0) * TILE_STRIDE];
+		int count = getTiles(plane, x0, x1, z0, z1, lightmap, tiles);
+
+		for (int x = x0; x < x1; x++) {
+			for (int z = z0; z < z1; z++) {
+				Tile t = getGraphTile(graph, plane, x, z, false);
+
+				if (t != null) {
+					t.underlay = null;
+					t.overlay = null;
+				}
+			}
+		}
+
+		for (int i = 0; i < count * TILE_STRIDE; i += TILE_STRIDE) {
+			Tile t = getGraphTile(graph, plane, tiles[i], tiles[i + 1], true);
+			SceneGraph.setFloor(t, tiles[i + 2], tiles[i + 3], tiles[i + 4], tiles[i + 5], tiles[i + 6], tiles[i + 7], tiles[i + 8], tiles[i + 9], tiles[i + 10], tiles[i + 11], tiles[i + 12], tiles[i + 13], tiles[i + 14], tiles[i + 15], tiles[i + 16], tiles[i + 17], tiles[i + 18]);
+		}
+
+		for (int x = x0; x < x1; x++) {
+			for (int z = z0; z < z1; z++) {
+				Tile t = getGraphTile(graph, plane, x, z, false);
+
+				if (t != null) {
+					t.drawPlane = getDrawPlane(plane, x, z);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Merges and lights the models around an area again with the light a scene is built with, after a location in the
+	 * area was added or removed. See {@link SceneGraph#relight}.
+	 *
+	 * @param graph the graph this scene was built into.
+	 * @param minTileX the min tile x of the change.
+	 * @param minTileZ the min tile z of the change.
+	 * @param maxTileX the max tile x of the change.
+	 * @param maxTileZ the max tile z of the change.
+	 */
+	public static final void relight(SceneGraph graph, int minTileX, int minTileZ, int maxTileX, int maxTileZ) {
+		graph.relight(-50, -10, -50, 64, 768, minTileX, minTileZ, maxTileX, maxTileZ);
+	}
+
+	/**
+	 * Returns the tile a plane of this scene was built into. Bridges moved every plane one down and the ground under
+	 * them into the tile above.
+	 *
+	 * @param graph the graph.
+	 * @param plane the plane in this scene.
+	 * @param x the tile x.
+	 * @param z the tile z.
+	 * @param create whether to create the tile when it is missing.
+	 * @return the tile.
+	 */
+	private Tile getGraphTile(SceneGraph graph, int plane, int x, int z, boolean create) {
+		Tile[][][] planeTiles = graph.planeTiles;
+
+		if ((renderflags[1][x][z] & 0x2) != 0) {
+			if (plane == 0) {
+				Tile above = planeTiles[0][x][z];
+
+				if (above.bridge == null && create) {
+					above.bridge = new Tile(0, x, z);
+				}
+				return above.bridge;
+			}
+			plane--;
+		}
+
+		if (create) {
+			for (int p = plane; p >= 0; p--) {
+				if (planeTiles[p][x][z] == null) {
+					planeTiles[p][x][z] = new Tile(p, x, z);
+				}
+			}
+		}
+		return planeTiles[plane][x][z];
+	}
+
+	private int getDrawPlane(int plane, int x, int z) {
+		int drawPlane = plane;
+
+		if (drawPlane > 0 && ((renderflags[1][x][z] & 0x2) != 0)) {
+			drawPlane--;
+		}
+
+		if ((renderflags[plane][x][z] & 0x8) != 0) {
+			drawPlane = 0;
+		}
+		return drawPlane;
 	}
 
 	public static final int getPerlinNoise(int x, int y) {
@@ -958,6 +917,235 @@ public final class Scene {
 		return (v >> 19) & 0xFF;
 	}
 
+	/**
+	 * Calculates the per-vertex lightness of a plane from its slopes and shadowmap.
+	 *
+	 * @param plane the plane.
+	 * @return the lightmap.
+	 */
+	private int[][] getLightmap(int plane) {
+		int[][] lightmap = new int[tileSizeX + 1][tileSizeZ + 1];
+		byte[][] sm = shadowmap[plane];
+		int minIntensity = 96;
+		int lightSpecularFactor = 768;
+		int lightX = -50;
+		int lightY = -10;
+		int lightZ = -50;
+		int lightLength = (int) Math.sqrt((double) (lightX * lightX + lightY * lightY + lightZ * lightZ));
+		int specularDistribution = (lightSpecularFactor * lightLength) >> 8;
+
+		for (int tileY = 1; tileY < tileSizeZ - 1; tileY++) {
+			for (int tileX = 1; tileX < tileSizeX - 1; tileX++) {
+				int x = heightmap[plane][tileX + 1][tileY] - heightmap[plane][tileX - 1][tileY];
+				int y = heightmap[plane][tileX][tileY + 1] - heightmap[plane][tileX][tileY - 1];
+				int length = (int) Math.sqrt((double) ((x * x) + (256 * 256) + (y * y)));
+
+				if (length == 0) {
+					length = 256;
+				}
+
+				int normalX = (x << 8) / length;
+				int normalY = (256 << 8) / length;
+				int normalZ = (y << 8) / length;
+
+				int intensity = minIntensity + (lightX * normalX + lightY * normalY + lightZ * normalZ) / specularDistribution;
+				int subtraction = (sm[tileX - 1][tileY] >> 2) + (sm[tileX + 1][tileY] >> 3) + (sm[tileX][tileY - 1] >> 2) + (sm[tileX][tileY + 1] >> 3) + (sm[tileX][tileY] >> 1);
+				lightmap[tileX][tileY] = intensity - subtraction;
+			}
+		}
+
+		return lightmap;
+	}
+
+	/**
+	 * Blends the underlays of a band of tile columns and writes the arguments of the {@link SceneGraph#addTile} call
+	 * each tile in it would make. Each call uses its own blend sums, so bands can be built at the same time.
+	 *
+	 * @param plane the plane.
+	 * @param x0 the first column of the band.
+	 * @param x1 the column after the last of the band.
+	 * @param z0 the first row to write tiles for.
+	 * @param z1 the row after the last to write tiles for.
+	 * @param lightmap the lightmap of the plane.
+	 * @param out the buffer to write {@link #TILE_STRIDE} ints per tile into.
+	 * @return the amount of tiles written.
+	 */
+	private int getTiles(int plane, int x0, int x1, int z0, int z1, int[][] lightmap, int[] out) {
+		int[] blendedHue = new int[tileSizeZ];
+		int[] blendedSaturation = new int[tileSizeZ];
+		int[] blendedLightness = new int[tileSizeZ];
+		int[] blendedHueMultiplier = new int[tileSizeZ];
+		int[] blendDirectionTracker = new int[tileSizeZ];
+		int count = 0;
+
+		for (int x = x0 - 10; x < x1; x++) {
+			for (int y = 0; y < tileSizeZ; y++) {
+				int dx = x + 5;
+
+				if (dx >= 0 && dx < tileSizeX) {
+					int index = (planeUnderlayFloorIndices[plane][dx][y] & 0xFF) - 1;
+
+					if (index >= 0 && index < FloorType.instances.length) {
+						FloorType f = FloorType.instances[index];
+						blendedHue[y] += f.blendHue;
+						blendedSaturation[y] += f.saturation;
+						blendedLightness[y] += f.lightness;
+						blendedHueMultiplier[y] += f.blendHueMultiplier;
+						blendDirectionTracker[y]++;
+					}
+				}
+
+				dx = x - 5;
+
+				// columns left of the band's window were never added
+				if (dx >= 0 && dx < tileSizeX && x >= x0) {
+					int index = (planeUnderlayFloorIndices[plane][dx][y] & 0xFF) - 1;
+
+					if (index >= 0 && index < FloorType.instances.length) {
+						FloorType f = FloorType.instances[index];
+						blendedHue[y] -= f.blendHue;
+						blendedSaturation[y] -= f.saturation;
+						blendedLightness[y] -= f.lightness;
+						blendedHueMultiplier[y] -= f.blendHueMultiplier;
+						blendDirectionTracker[y]--;
+					}
+				}
+			}
+
+			if (x >= x0) {
+				int hue = 0;
+				int saturation = 0;
+				int lightness = 0;
+				int hueDivisor = 0;
+				int directionTracker = 0;
+
+				for (int y = -5; y < tileSizeZ + 5; y++) {
+					int yD = y + 5;
+
+					if (yD >= 0 && yD < tileSizeZ) {
+						hue += blendedHue[yD];
+						saturation += blendedSaturation[yD];
+						lightness += blendedLightness[yD];
+						hueDivisor += blendedHueMultiplier[yD];
+						directionTracker += blendDirectionTracker[yD];
+					}
+
+					yD = y - 5;
+
+					if (yD >= 0 && yD < tileSizeZ) {
+						hue -= blendedHue[yD];
+						saturation -= blendedSaturation[yD];
+						lightness -= blendedLightness[yD];
+						hueDivisor -= blendedHueMultiplier[yD];
+						directionTracker -= blendDirectionTracker[yD];
+					}
+
+					if (y >= z0 && y < z1) {
+						if (lowmemory) {
+							int p = plane;
+
+							// it's a bridge!
+							if (plane > 0 && (renderflags[1][x][y] & 0x2) != 0) {
+								p--;
+							}
+
+							if (((renderflags[plane][x][y]) & 0x8) != 0) {
+								p = 0;
+							}
+
+							if (p != builtPlane || ((renderflags[plane][x][y]) & 0x10) != 0) {
+								continue;
+							}
+						}
+
+						int underlayFloorIndex = planeUnderlayFloorIndices[plane][x][y] & 0xFF;
+						int overlayFloorIndex = planeOverlayFloorIndices[plane][x][y] & 0xFF;
+
+						if (underlayFloorIndex > 0 || overlayFloorIndex > 0) {
+							int southwestY = heightmap[plane][x][y];
+							int southeastY = heightmap[plane][x + 1][y];
+							int northeastY = heightmap[plane][x + 1][y + 1];
+							int northwestY = heightmap[plane][x][y + 1];
+
+							int southwestLightness = lightmap[x][y];
+							int southeastLightness = lightmap[x + 1][y];
+							int northeastLightness = lightmap[x + 1][y + 1];
+							int northwestLightness = lightmap[x][y + 1];
+
+							int color = -1;
+
+							if (underlayFloorIndex > 0) {
+								if (hueDivisor != 0 && directionTracker != 0) {
+									color = hsl24To16((hue * 256) / hueDivisor, saturation / directionTracker, lightness / directionTracker);
+								}
+							}
+
+							if (plane > 0 && !lowmemory) {
+								boolean hideUnderlay = true;
+
+								if (underlayFloorIndex == 0 && planeOverlayTypes[plane][x][y] != 0) {
+									hideUnderlay = false;
+								}
+
+								if (overlayFloorIndex > 0 && overlayFloorIndex - 1 < FloorType.count && !(FloorType.instances[overlayFloorIndex - 1].occlude)) {
+									hideUnderlay = false;
+								}
+
+								if (hideUnderlay && southwestY == southeastY && southwestY == northeastY && southwestY == northwestY) {
+									occludeflags[plane][x][y] |= FLOOR_OCCLUDE_FLAGS;
+								}
+							}
+
+							int minimapColor = 0;
+
+							if (color != -1) {
+								minimapColor = Graphics3D.palette[adjustHSLLightness1(color, 96)];
+							}
+
+							if (overlayFloorIndex == 0) {
+								count = putTile(out, count, x, y, 0, 0, -1, southwestY, southeastY, northeastY, northwestY, adjustHSLLightness1(color, southwestLightness), adjustHSLLightness1(color, southeastLightness), adjustHSLLightness1(color, northeastLightness), adjustHSLLightness1(color, northwestLightness), 0, 0, 0, 0, minimapColor, 0);
+							} else {
+								int type = planeOverlayTypes[plane][x][y] + 1;
+								byte rotation = planeOverlayRotations[plane][x][y];
+
+								overlayFloorIndex--;
+
+								if (overlayFloorIndex >= FloorType.count) {
+									overlayFloorIndex = 0;
+								}
+
+								FloorType f = FloorType.instances[overlayFloorIndex];
+								int textureIndex = f.textureIndex;
+								int rgb;
+								int hsl;
+
+								if (textureIndex >= 0) {
+									rgb = Graphics3D.getTextureColor(textureIndex);
+									hsl = -1;
+								} else if (f.rgb == 0xFF00FF) {
+									rgb = 0;
+									hsl = -2;
+									textureIndex = -1;
+								} else {
+									hsl = hsl24To16(f.hue, f.saturation, f.lightness);
+									rgb = Graphics3D.palette[adjustHSLLightness0(hsl, 96)];
+								}
+
+								count = putTile(out, count, x, y, type, rotation, textureIndex, southwestY, southeastY, northeastY, northwestY, adjustHSLLightness1(color, southwestLightness), adjustHSLLightness1(color, southeastLightness), adjustHSLLightness1(color, northeastLightness), adjustHSLLightness1(color, northwestLightness), adjustHSLLightness0(hsl, southwestLightness), adjustHSLLightness0(hsl, southeastLightness), adjustHSLLightness0(hsl, northeastLightness), adjustHSLLightness0(hsl, northwestLightness), minimapColor, rgb);
+							}
+						}
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	private static int putTile(int[] out, int count, int... args) {
+		System.arraycopy(args, 0, out, count * TILE_STRIDE, TILE_STRIDE);
+		return count + 1;
+	}
+
 	private static int adjustHSLLightness1(int hsl, int lightness) {
 		if (hsl == -1) {
 			return 12345678;
@@ -1,5 +1,8 @@
 package com.runescape;
 
+import java.util.*;
+import java.util.stream.*;
+
 public final class SceneGraph {
 
 	public static boolean lowmemory = true;
@@ -13,24 +16,24 @@ public final class SceneGraph {
 	public int locCount;
 	public Location[] locs = new Location[5000];
 	public int[][][] levelTileCycle;
-	public static int lastTileUpdateCount;
-	public static int tileUpdateCount;
-	public static int topPlane;
-	public static int cycle;
-	public static int minTileX;
-	public static int maxTileX;
-	public static int minTileZ;
-	public static int maxTileZ;
-	public static int cameraTileX;
-	public static int cameraTileZ;
-	public static int cameraX;
-	public static int cameraY;
-	public static int cameraZ;
-	public static int pitchSin;
-	public static int pitchCos;
-	public static int yawSin;
-	public static int yawCos;
-	public static Location[] locationBuffer = new Location[100];
+	public int lastTileUpdateCount;
+	public int tileUpdateCount;
+	public int topPlane;
+	public int cycle;
+	public int minTileX;
+	public int maxTileX;
+	public int minTileZ;
+	public int maxTileZ;
+	public int cameraTileX;
+	public int cameraTileZ;
+	public int cameraX;
+	public int cameraY;
+	public int cameraZ;
+	public int pitchSin;
+	public int pitchCos;
+	public int yawSin;
+	public int yawCos;
+	public Location[] locationBuffer = new Location[100];
 
 	public static final int[] DECO_TYPE1_OFFSET_X = {53, -53, -53, 53};
 	public static final int[] DECO_TYPE1_OFFSET_Z = {-53, -53, 53, 53};
@@ -40,9 +43,47 @@ public final class SceneGraph {
 	public static final int MAX_OCCLUDER_PLANES = 4;
 	public static int[] planeOccluderCount = new int[MAX_OCCLUDER_PLANES];
 	public static Occluder[][] planeOccluders = new Occluder[MAX_OCCLUDER_PLANES][500];
-	public static int activeOccluderCount;
-	public static Occluder[] activeOcludders = new Occluder[500];
-	public static LinkedQueue tileQueue = new LinkedQueue();
+	public int activeOccluderCount;
+	public Occluder[] activeOcludders = new Occluder[500];
+	public LinkedQueue tileQueue = new LinkedQueue();
+
+	/**
+	 * The context being drawn with.
+	 */
+	private RenderContext context;
+
+	/**
+	 * Whether static locs and ground decorations keep their projected vertices between frames, so a still camera
+	 * doesn't project them again. Costs a few arrays per placement, so it's meant for views that often sit still.
+	 */
+	public boolean cacheProjections;
+
+	/**
+	 * Whether the models merged by {@link #applyLighting(int, int, int, int, int)} keep a copy of what they were before
+	 * merging, so {@link #relight} can merge them again after a neighbour was added or removed. Costs the normals of
+	 * every merged model, so it's meant for editors. Set it before the graph is lit.
+	 */
+	public boolean keepUnlitModels;
+
+	/**
+	 * The state of each merged model from before its first merge, while {@link #keepUnlitModels} is set.
+	 */
+	private final Map<Model, UnlitModel> unlitModels = new WeakHashMap<>();
+
+	/**
+	 * Locs drawn, rejected against the view frustum, and rejected as hidden behind occluders during the last draw.
+	 * Locs only rejected inside {@link Model#draw} count as drawn.
+	 */
+	public int drawnLocCount;
+	public int culledLocCount;
+	public int occludedLocCount;
+
+	/**
+	 * The length of the side and top plane normals of the frustum, for the distance tests of
+	 * {@link #isOutsideFrustum(Model, int, int, int)}.
+	 */
+	private int frustumLengthX;
+	private int frustumLengthY;
 
 	// EAST NORTH WEST SOUTH
 	//
@@ -114,10 +155,6 @@ public final class SceneGraph {
 	};
 	// @formatter:on
 
-	public int[] vertexAMergeIndex = new int[10000];
-	public int[] vertexBMergeIndex = new int[10000];
-	public int normalMergeIndex;
-
 	/* @formatter:off */
 	public static final int[][] TILE_MASK_2D = {new int[16], {
 		1, 1, 1, 1,
@@ -204,14 +241,24 @@ public final class SceneGraph {
 	}};
 	/* @formatter:on */
 
-	public static boolean[][][][] visibilityMaps = new boolean[8][32][Scene.VIEW_DIAMETER + 1][Scene.VIEW_DIAMETER + 1];
-	public static boolean[][] visibilityMap;
-	public static int viewportCenterX;
-	public static int viewportCenterY;
-	public static int viewportLeft;
-	public static int viewportTop;
-	public static int viewportRight;
-	public static int viewportBottom;
+	/**
+	 * The width and height of a visibility map, and the number of longs its bits are packed into.
+	 */
+	public static final int VISIBILITY_MAP_SIZE = Scene.VIEW_DIAMETER + 1;
+	public static final int VISIBILITY_MAP_WORDS = (VISIBILITY_MAP_SIZE * VISIBILITY_MAP_SIZE + 63) / 64;
+
+	/**
+	 * The version of the saved visibility maps. Bump it whenever {@link #createVisibilityMaps(int, int, int, int)} or
+	 * the saved layout changes, so maps saved by an older build are generated again instead of being read.
+	 */
+	public static final int VISIBILITY_MAP_VERSION = 1;
+
+	private static final int VISIBILITY_HEADER_SIZE = 24;
+
+	/**
+	 * The visibility map for the current camera angle. See {@link #isVisible(long[], int, int)}.
+	 */
+	public long[] visibilityMap;
 
 	public SceneGraph(int width, int length, int height, int[][][] heightmap) {
 		maxPlane = height;
@@ -224,12 +271,8 @@ public final class SceneGraph {
 	}
 
 	public static void unload() {
-		locationBuffer = null;
 		planeOccluderCount = null;
 		planeOccluders = null;
-		tileQueue = null;
-		visibilityMaps = null;
-		visibilityMap = null;
 	}
 
 	public void reset() {
@@ -307,36 +350,28 @@ public final class SceneGraph {
 	}
 
 	public void addTile(int tilePlane, int tileX, int tileZ, int type, int rotation, int textureIndex, int southwestY, int southeastY, int northeastY, int northwestY, int southwestColor1, int southeastColor1, int northeastColor1, int northwestColor1, int southwestColor2, int southeastColor2, int northeastColor2, int northwestColor2, int rgb0, int rgb1) {
-		if (type == 0) {
-			TileUnderlay t = new TileUnderlay(southwestColor1, southeastColor1, northeastColor1, northwestColor1, -1, rgb0, false);
-
-			for (int y = tilePlane; y >= 0; y--) {
-				if (planeTiles[y][tileX][tileZ] == null) {
-					planeTiles[y][tileX][tileZ] = new Tile(y, tileX, tileZ);
-				}
+		for (int p = tilePlane; p >= 0; p--) {
+			if (planeTiles[p][tileX][tileZ] == null) {
+				planeTiles[p][tileX][tileZ] = new Tile(p, tileX, tileZ);
 			}
+		}
 
-			planeTiles[tilePlane][tileX][tileZ].underlay = t;
-		} else if (type == 1) {
-			TileUnderlay t = new TileUnderlay(southwestColor2, southeastColor2, northeastColor2, northwestColor2, textureIndex, rgb1, (southwestY == southeastY && southwestY == northeastY && southwestY == northwestY));
-
-			for (int p = tilePlane; p >= 0; p--) {
-				if (planeTiles[p][tileX][tileZ] == null) {
-					planeTiles[p][tileX][tileZ] = new Tile(p, tileX, tileZ);
-				}
-			}
+		setFloor(planeTiles[tilePlane][tileX][tileZ], type, rotation, textureIndex, southwestY, southeastY, northeastY, northwestY, southwestColor1, southeastColor1, northeastColor1, northwestColor1, southwestColor2, southeastColor2, northeastColor2, northwestColor2, rgb0, rgb1);
+	}
 
-			planeTiles[tilePlane][tileX][tileZ].underlay = t;
+	/**
+	 * Gives a tile a new underlay or overlay. Takes the same arguments as {@link #addTile} after the position.
+	 *
+	 * @param t the tile.
+	 * @param type 0 or 1 for an underlay, otherwise the overlay shape.
+	 */
+	public static void setFloor(Tile t, int type, int rotation, int textureIndex, int southwestY, int southeastY, int northeastY, int northwestY, int southwestColor1, int southeastColor1, int northeastColor1, int northwestColor1, int southwestColor2, int southeastColor2, int northeastColor2, int northwestColor2, int rgb0, int rgb1) {
+		if (type == 0) {
+			t.underlay = new TileUnderlay(southwestColor1, southeastColor1, northeastColor1, northwestColor1, -1, rgb0, false);
+		} else if (type == 1) {
+			t.underlay = new TileUnderlay(southwestColor2, southeastColor2, northeastColor2, northwestColor2, textureIndex, rgb1, (southwestY == southeastY && southwestY == northeastY && southwestY == northwestY));
 		} else {
-			TileOverlay t = new TileOverlay(tileX, tileZ, northwestY, northeastY, southwestY, textureIndex, southwestColor1, southeastColor2, rotation, northeastColor1, northeastColor2, southwestColor2, northwestColor1, southeastY, southeastColor1, type, northwestColor2, (byte) -119, rgb0, rgb1);
-
-			for (int p = tilePlane; p >= 0; p--) {
-				if (planeTiles[p][tileX][tileZ] == null) {
-					planeTiles[p][tileX][tileZ] = new Tile(p, tileX, tileZ);
-				}
-			}
-
-			planeTiles[tilePlane][tileX][tileZ].overlay = t;
+			t.overlay = new TileOverlay(t.x, t.z, northwestY, northeastY, southwestY, textureIndex, southwestColor1, southeastColor2, rotation, northeastColor1, northeastColor2, southwestColor2, northwestColor1, southeastY, southeastColor1, type, northwestColor2, (byte) -119, rgb0, rgb1);
 		}
 	}
 
@@ -757,86 +792,396 @@ public final class SceneGraph {
 		return -1;
 	}
 
+	/**
+	 * Merges the normals of every wall, location and ground decoration with those of its neighbours and then lights
+	 * it. The merges run in stripes of tile columns far enough apart to never share a model, and the lighting runs per
+	 * model once every merge is done.
+	 *
+	 * <p>The serial walk this replaces lit each model as soon as its own merges were done, which kept it out of any
+	 * merge after that. To give the exact same colors the walk is still done first, only to record for each model the
+	 * order it would have been lit in, so each merge can skip the models that would already have been lit.</p>
+	 *
+	 * @param lightX the light x.
+	 * @param lightY the light y.
+	 * @param lightZ the light z.
+	 * @param lightness the base lightness.
+	 * @param baseIntensity the base intensity.
+	 */
 	public void applyLighting(int lightX, int lightY, int lightZ, int lightness, int baseIntensity) {
+		applyLighting(lightX, lightY, lightZ, lightness, baseIntensity, 0, 0, tileCountX - 1, tileCountZ - 1);
+	}
+
+	/**
+	 * Merges and lights the models on the tiles within an area, like {@link #applyLighting(int, int, int, int, int)}.
+	 * Models lit before keep their colors, so this only does work for the models added since.
+	 *
+	 * @param lightX the light x.
+	 * @param lightY the light y.
+	 * @param lightZ the light z.
+	 * @param lightness the base lightness.
+	 * @param baseIntensity the base intensity.
+	 * @param minTileX the min tile x.
+	 * @param minTileZ the min tile z.
+	 * @param maxTileX the max tile x.
+	 * @param maxTileZ the max tile z.
+	 */
+	public void applyLighting(int lightX, int lightY, int lightZ, int lightness, int baseIntensity, int minTileX, int minTileZ, int maxTileX, int maxTileZ) {
+		applyLighting(lightX, lightY, lightZ, lightness, baseIntensity, minTileX, minTileZ, maxTileX, maxTileZ, Collections.emptySet());
+	}
+
+	/**
+	 * Merges and lights the models around an area again after a location in it was added or removed, so they look as if
+	 * the whole graph had been lit with the change in place. The models that can share a vertex with one in the area are
+	 * put back as they were before merging and merged again, and the models next to those take part in the merges
+	 * without being changed. Only models lit while {@link #keepUnlitModels} was set can be put back.
+	 *
+	 * @param lightX the light x.
+	 * @param lightY the light y.
+	 * @param lightZ the light z.
+	 * @param lightness the base lightness.
+	 * @param baseIntensity the base intensity.
+	 * @param minTileX the min tile x of the change.
+	 * @param minTileZ the min tile z of the change.
+	 * @param maxTileX the max tile x of the change.
+	 * @param maxTileZ the max tile z of the change.
+	 */
+	public void relight(int lightX, int lightY, int lightZ, int lightness, int baseIntensity, int minTileX, int minTileZ, int maxTileX, int maxTileZ) {
+		// a merge reaches one tile past the model it's for, so these are the models the change can touch
+		Set<Model> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+		int[] area = {minTileX - 1, minTileZ - 1, maxTileX + 1, maxTileZ + 1};
+		collectModels(area, changed);
+
+		// and these the models they are merged with
+		Set<Model> partners = Collections.newSetFromMap(new IdentityHashMap<>());
+		area[0]--;
+		area[1]--;
+		area[2]++;
+		area[3]++;
+		collectModels(area, partners);
+		partners.removeAll(changed);
+
+		for (Model m : changed) {
+			UnlitModel u = unlitModels.get(m);
+
+			if (u != null) {
+				u.restore(m);
+			}
+		}
+
+		Map<Model, int[]> partnerInfo = new IdentityHashMap<>();
+
+		for (Iterator<Model> i = partners.iterator(); i.hasNext();) {
+			Model m = i.next();
+			UnlitModel u = unlitModels.get(m);
+
+			if (u == null || m.normals != null) {
+				i.remove();
+				continue;
+			}
+
+			// a partner keeps its colors and hidden triangles, it only lends its normals
+			partnerInfo.put(m, m.triangleInfo != null ? m.triangleInfo.clone() : null);
+			u.restoreNormals(m);
+		}
+
+		applyLighting(lightX, lightY, lightZ, lightness, baseIntensity, area[0], area[1], area[2], area[3], partners);
+
+		for (Map.Entry<Model, int[]> e : partnerInfo.entrySet()) {
+			Model m = e.getKey();
+			m.normals = null;
+			m.unmodifiedNormals = null;
+			m.triangleInfo = e.getValue();
+		}
+	}
+
+	/**
+	 * Adds the walls, locations and ground decorations with a tile within an area on any plane, and grows the area to
+	 * cover all of their tiles.
+	 *
+	 * @param area the min x, min z, max x and max z tile.
+	 * @param out the models.
+	 */
+	private void collectModels(int[] area, Set<Model> out) {
+		int minTileX = Math.max(area[0], 0);
+		int minTileZ = Math.max(area[1], 0);
+		int maxTileX = Math.min(area[2], tileCountX - 1);
+		int maxTileZ = Math.min(area[3], tileCountZ - 1);
+
+		for (int plane = 0; plane < maxPlane; plane++) {
+			for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+				for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+					Tile t = planeTiles[plane][tileX][tileZ];
+
+					if (t == null) {
+						continue;
+					}
+
+					if (t.wall != null) {
+						addModel(out, t.wall.model1);
+						addModel(out, t.wall.model2);
+					}
+
+					for (int n = 0; n < t.locationCount; n++) {
+						Location l = t.locs[n];
+
+						if (l != null) {
+							addModel(out, l.model);
+							area[0] = Math.min(area[0], l.minTileX);
+							area[1] = Math.min(area[1], l.minTileZ);
+							area[2] = Math.max(area[2], l.maxTileX);
+							area[3] = Math.max(area[3], l.maxTileZ);
+						}
+					}
+
+					if (t.groundDecoration != null) {
+						addModel(out, t.groundDecoration.model);
+					}
+				}
+			}
+		}
+
+		area[0] = Math.max(area[0], 0);
+		area[1] = Math.max(area[1], 0);
+		area[2] = Math.min(area[2], tileCountX - 1);
+		area[3] = Math.min(area[3], tileCountZ - 1);
+	}
+
+	private static void addModel(Set<Model> out, Model m) {
+		if (m != null) {
+			out.add(m);
+		}
+	}
+
+	/**
+	 * @param partners models which are merged with but not lit, and which take nothing from the merges.
+	 */
+	private void applyLighting(int lightX, int lightY, int lightZ, int lightness, int baseIntensity, int minTileX, int minTileZ, int maxTileX, int maxTileZ, Set<Model> partners) {
 		int length = (int) Math.sqrt((double) (lightX * lightX + lightY * lightY + lightZ * lightZ));
 		int intensity = (baseIntensity * length) >> 8;
 
+		List<Model> litModels = new ArrayList<>();
+		List<LightingStep> steps = new ArrayList<>();
+		boolean shared = false;
+		int maxLocSize = 1;
+
 		for (int plane = 0; plane < maxPlane; plane++) {
-			for (int tileX = 0; tileX < tileCountX; tileX++) {
-				for (int tileZ = 0; tileZ < tileCountZ; tileZ++) {
+			for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+				for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
 					Tile t = planeTiles[plane][tileX][tileZ];
 
 					if (t != null) {
-						WallLocation w = t.wall;
+						resetLightOrder(t);
+					}
+				}
+			}
+		}
+
+		for (int plane = 0; plane < maxPlane; plane++) {
+			for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+				for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+					Tile t = planeTiles[plane][tileX][tileZ];
+
+					if (t == null) {
+						continue;
+					}
+
+					WallLocation w = t.wall;
 
-						if (w != null && w.model1 != null && w.model1.normals != null) {
-							mergeLocNormals(w.model1, tileX, tileZ, plane, 1, 1);
+					if (w != null) {
+						shared |= !reach(w.model1) | !reach(w.model2);
 
-							if (w.model2 != null && w.model2.normals != null) {
-								mergeLocNormals(w.model2, tileX, tileZ, plane, 1, 1);
-								mergeNormals(w.model1, w.model2, 0, 0, 0, false);
-								w.model2.calculateLighting(lightness, intensity, lightX, lightY, lightZ);
+						if (isUnlit(w.model1)) {
+							LightingStep step = new LightingStep(LightingStep.WALL, w.model1, tileX, tileZ, plane, 1, 1, litModels.size());
+							keepUnlit(w.model1);
+
+							if (isUnlit(w.model2)) {
+								keepUnlit(w.model2);
+								step.model2 = w.model2;
+								w.model2.lightOrder = litModels.size();
+								litModels.add(w.model2);
 							}
 
-							w.model1.calculateLighting(lightness, intensity, lightX, lightY, lightZ);
+							w.model1.lightOrder = litModels.size();
+							litModels.add(w.model1);
+							steps.add(step);
 						}
+					}
 
-						for (int n = 0; n < t.locationCount; n++) {
-							Location l = t.locs[n];
+					for (int n = 0; n < t.locationCount; n++) {
+						Location l = t.locs[n];
 
-							if (l != null && l.model != null && l.model.normals != null) {
-								mergeLocNormals(l.model, tileX, tileZ, plane, (l.maxTileX - l.minTileX + 1), (l.maxTileZ - l.minTileZ + 1));
-								l.model.calculateLighting(lightness, intensity, lightX, lightY, lightZ);
-							}
+						if (l == null) {
+							continue;
 						}
 
-						GroundDecorationLocation d = t.groundDecoration;
+						int sizeX = l.maxTileX - l.minTileX + 1;
+						int sizeZ = l.maxTileZ - l.minTileZ + 1;
+						maxLocSize = Math.max(maxLocSize, sizeX);
+
+						// a location covering more than one tile is only reached once
+						if (tileX == l.minTileX && tileZ == l.minTileZ) {
+							shared |= !reach(l.model);
+						}
 
-						if (d != null && d.model.normals != null) {
-							mergeGroundDecorationNormals(d.model, tileX, tileZ, plane);
-							d.model.calculateLighting(lightness, intensity, lightX, lightY, lightZ);
+						if (isUnlit(l.model)) {
+							keepUnlit(l.model);
+							steps.add(new LightingStep(LightingStep.LOCATION, l.model, l.minTileX, l.minTileZ, plane, sizeX, sizeZ, litModels.size()));
+							l.model.lightOrder = litModels.size();
+							litModels.add(l.model);
 						}
 					}
+
+					GroundDecorationLocation d = t.groundDecoration;
+
+					if (d != null) {
+						shared |= !reach(d.model);
+
+						if (isUnlit(d.model)) {
+							keepUnlit(d.model);
+							steps.add(new LightingStep(LightingStep.GROUND_DECORATION, d.model, tileX, tileZ, plane, 1, 1, litModels.size()));
+							d.model.lightOrder = litModels.size();
+							litModels.add(d.model);
+						}
+					}
+				}
+			}
+		}
+
+		// A step at column x reaches the models on columns x - 2 to x + size, which can stretch another size - 1
+		// columns either way. Stripes of three times the largest size with one stripe left out between them keep
+		// every model to one stripe at a time. A model shared between locations could be anywhere, so then it
+		// takes a single stripe.
+		int stripeWidth = shared ? tileCountX : Math.max(8, maxLocSize * 3);
+		int stripeCount = (tileCountX + stripeWidth - 1) / stripeWidth;
+		List<List<LightingStep>> stripes = new ArrayList<>();
+
+		for (int n = 0; n < stripeCount; n++) {
+			stripes.add(new ArrayList<>());
+		}
+
+		for (LightingStep step : steps) {
+			stripes.get(step.tileX / stripeWidth).add(step);
+		}
+
+		for (int parity = 0; parity < 2; parity++) {
+			int first = parity;
+
+			IntStream.range(0, (stripeCount - parity + 1) / 2).parallel().forEach(n -> {
+				NormalMerge merge = new NormalMerge();
+
+				for (LightingStep step : stripes.get(n * 2 + first)) {
+					mergeNormals(merge, step);
 				}
+			});
+		}
+
+		litModels.parallelStream().filter(m -> !partners.contains(m)).forEach(m -> m.calculateLighting(lightness, intensity, lightX, lightY, lightZ));
+	}
+
+	private void keepUnlit(Model m) {
+		if (keepUnlitModels) {
+			unlitModels.computeIfAbsent(m, UnlitModel::new);
+		}
+	}
+
+	private static void resetLightOrder(Tile t) {
+		if (t.wall != null) {
+			resetLightOrder(t.wall.model1);
+			resetLightOrder(t.wall.model2);
+		}
+
+		for (int n = 0; n < t.locationCount; n++) {
+			if (t.locs[n] != null) {
+				resetLightOrder(t.locs[n].model);
 			}
 		}
+
+		if (t.groundDecoration != null) {
+			resetLightOrder(t.groundDecoration.model);
+		}
 	}
 
-	private void mergeGroundDecorationNormals(Model m, int x, int z, int y) {
+	private static void resetLightOrder(Model m) {
+		if (m != null) {
+			m.lightOrder = -1;
+		}
+	}
+
+	/**
+	 * Marks a model as reached by its owner.
+	 *
+	 * @param m the model.
+	 * @return false if another owner already reached it.
+	 */
+	private static boolean reach(Model m) {
+		if (m == null || m.normals == null) {
+			return true;
+		}
+
+		if (m.lightOrder != -1) {
+			return false;
+		}
+
+		m.lightOrder = -2;
+		return true;
+	}
+
+	private static boolean isUnlit(Model m) {
+		return m != null && m.normals != null && m.lightOrder < 0;
+	}
+
+	private void mergeNormals(NormalMerge merge, LightingStep step) {
+		merge.horizon = step.horizon;
+
+		if (step.type == LightingStep.WALL) {
+			mergeLocNormals(merge, step.model, step.tileX, step.tileZ, step.plane, 1, 1);
+
+			if (step.model2 != null) {
+				mergeLocNormals(merge, step.model2, step.tileX, step.tileZ, step.plane, 1, 1);
+				mergeNormals(merge, step.model, step.model2, 0, 0, 0, false);
+			}
+		} else if (step.type == LightingStep.LOCATION) {
+			mergeLocNormals(merge, step.model, step.tileX, step.tileZ, step.plane, step.sizeX, step.sizeZ);
+		} else {
+			mergeGroundDecorationNormals(merge, step.model, step.tileX, step.tileZ, step.plane);
+		}
+	}
+
+	private void mergeGroundDecorationNormals(NormalMerge merge, Model m, int x, int z, int y) {
 		if (x < tileCountX) {
 			Tile t = planeTiles[y][x + 1][z];
 
-			if (t != null && t.groundDecoration != null && t.groundDecoration.model.normals != null) {
-				mergeNormals(m, t.groundDecoration.model, 128, 0, 0, true);
+			if (t != null && t.groundDecoration != null && merge.isUnlit(t.groundDecoration.model)) {
+				mergeNormals(merge, m, t.groundDecoration.model, 128, 0, 0, true);
 			}
 		}
 
 		if (z < tileCountZ) {
 			Tile t = planeTiles[y][x][z + 1];
 
-			if (t != null && t.groundDecoration != null && t.groundDecoration.model.normals != null) {
-				mergeNormals(m, t.groundDecoration.model, 0, 0, 128, true);
+			if (t != null && t.groundDecoration != null && merge.isUnlit(t.groundDecoration.model)) {
+				mergeNormals(merge, m, t.groundDecoration.model, 0, 0, 128, true);
 			}
 		}
 
 		if (x < tileCountX && z < tileCountZ) {
 			Tile t = planeTiles[y][x + 1][z + 1];
 
-			if (t != null && t.groundDecoration != null && t.groundDecoration.model.normals != null) {
-				mergeNormals(m, t.groundDecoration.model, 128, 0, 128, true);
+			if (t != null && t.groundDecoration != null && merge.isUnlit(t.groundDecoration.model)) {
+				mergeNormals(merge, m, t.groundDecoration.model, 128, 0, 128, true);
 			}
 		}
 
 		if (x < tileCountX && z > 0) {
 			Tile t = planeTiles[y][x + 1][z - 1];
 
-			if (t != null && t.groundDecoration != null && t.groundDecoration.model.normals != null) {
-				mergeNormals(m, t.groundDecoration.model, 128, 0, -128, true);
+			if (t != null && t.groundDecoration != null && merge.isUnlit(t.groundDecoration.model)) {
+				mergeNormals(merge, m, t.groundDecoration.model, 128, 0, -128, true);
 			}
 		}
 	}
 
-	private void mergeLocNormals(Model m, int tileX, int tileZ, int tilePlane, int locTileSizeX, int locTileSizeZ) {
+	private void mergeLocNormals(NormalMerge merge, Model m, int tileX, int tileZ, int tilePlane, int locTileSizeX, int locTileSizeZ) {
 		boolean hideTriangles = true;
 
 		int minTileX = tileX;
@@ -870,21 +1215,21 @@ public final class SceneGraph {
 
 							WallLocation wall = t.wall;
 
-							if (wall != null && wall.model1 != null && wall.model1.normals != null) {
-								mergeNormals(m, wall.model1, ((x - tileX) * 128 + (1 - locTileSizeX) * 64), averageY, ((z - tileZ) * 128 + (1 - locTileSizeZ) * 64), hideTriangles);
+							if (wall != null && merge.isUnlit(wall.model1)) {
+								mergeNormals(merge, m, wall.model1, ((x - tileX) * 128 + (1 - locTileSizeX) * 64), averageY, ((z - tileZ) * 128 + (1 - locTileSizeZ) * 64), hideTriangles);
 							}
 
-							if (wall != null && wall.model2 != null && wall.model2.normals != null) {
-								mergeNormals(m, wall.model2, ((x - tileX) * 128 + (1 - locTileSizeX) * 64), averageY, ((z - tileZ) * 128 + (1 - locTileSizeZ) * 64), hideTriangles);
+							if (wall != null && merge.isUnlit(wall.model2)) {
+								mergeNormals(merge, m, wall.model2, ((x - tileX) * 128 + (1 - locTileSizeX) * 64), averageY, ((z - tileZ) * 128 + (1 - locTileSizeZ) * 64), hideTriangles);
 							}
 
 							for (int n = 0; n < t.locationCount; n++) {
 								Location l = t.locs[n];
 
-								if (l != null && l.model != null && l.model.normals != null) {
+								if (l != null && merge.isUnlit(l.model)) {
 									int tileSizeX = (l.maxTileX - l.minTileX + 1);
 									int tileSizeZ = (l.maxTileZ - l.minTileZ + 1);
-									mergeNormals(m, l.model, (((l.minTileX - tileX) * 128) + (tileSizeX - locTileSizeX) * 64), averageY, (((l.minTileZ - tileZ) * 128) + (tileSizeZ - locTileSizeZ) * 64), hideTriangles);
+									mergeNormals(merge, m, l.model, (((l.minTileX - tileX) * 128) + (tileSizeX - locTileSizeX) * 64), averageY, (((l.minTileZ - tileZ) * 128) + (tileSizeZ - locTileSizeZ) * 64), hideTriangles);
 								}
 							}
 						}
@@ -897,8 +1242,8 @@ public final class SceneGraph {
 		}
 	}
 
-	private void mergeNormals(Model a, Model b, int offsetX, int offsetY, int offsetZ, boolean hideTriangles) {
-		this.normalMergeIndex++;
+	private void mergeNormals(NormalMerge merge, Model a, Model b, int offsetX, int offsetY, int offsetZ, boolean hideTriangles) {
+		int index = ++merge.index;
 		int counter = 0;
 
 		for (int vertexA = 0; vertexA < a.vertexCount; vertexA++) {
@@ -944,21 +1289,21 @@ public final class SceneGraph {
 					normalB.magnitude += unmodifiedNormalA.magnitude;
 
 					counter++;
-					this.vertexAMergeIndex[vertexA] = this.normalMergeIndex;
-					this.vertexBMergeIndex[vertexB] = this.normalMergeIndex;
+					merge.vertexA[vertexA] = index;
+					merge.vertexB[vertexB] = index;
 				}
 			}
 		}
 
 		if (counter >= 3 && hideTriangles) {
 			for (int t = 0; t < a.triangleCount; t++) {
-				if (this.vertexAMergeIndex[a.triangleVertexA[t]] == this.normalMergeIndex && this.vertexAMergeIndex[a.triangleVertexB[t]] == this.normalMergeIndex && this.vertexAMergeIndex[a.triangleVertexC[t]] == this.normalMergeIndex) {
+				if (merge.vertexA[a.triangleVertexA[t]] == index && merge.vertexA[a.triangleVertexB[t]] == index && merge.vertexA[a.triangleVertexC[t]] == index) {
 					a.triangleInfo[t] = -1; // do not draw this triangle
 				}
 			}
 
 			for (int t = 0; t < b.triangleCount; t++) {
-				if (this.vertexBMergeIndex[b.triangleVertexA[t]] == this.normalMergeIndex && this.vertexBMergeIndex[b.triangleVertexB[t]] == this.normalMergeIndex && this.vertexBMergeIndex[b.triangleVertexC[t]] == this.normalMergeIndex) {
+				if (merge.vertexB[b.triangleVertexA[t]] == index && merge.vertexB[b.triangleVertexB[t]] == index && merge.vertexB[b.triangleVertexC[t]] == index) {
 					b.triangleInfo[t] = -1;// do not draw this triangle
 				}
 			}
@@ -1025,13 +1370,47 @@ public final class SceneGraph {
 	}
 
 	public static void init(int width, int height, int minZ, int maxZ) {
-		viewportLeft = 0;
-		viewportTop = 0;
-		viewportRight = width;
-		viewportBottom = height;
-		viewportCenterX = width / 2;
-		viewportCenterY = height / 2;
+		init(RenderContext.getDefault(), width, height, minZ, maxZ);
+	}
+
+	/**
+	 * Gives a context the visibility maps for a viewport, which mark the tiles that can be seen from each camera angle.
+	 * They're read from the cache directory if a previous run saved them for the same arguments and
+	 * {@link #VISIBILITY_MAP_VERSION}, otherwise they're generated and saved.
+	 *
+	 * @param ctx the context.
+	 * @param width the viewport width.
+	 * @param height the viewport height.
+	 * @param minZ the depth below the camera to test.
+	 * @param maxZ the depth above the camera to test.
+	 */
+	public static void init(RenderContext ctx, int width, int height, int minZ, int maxZ) {
+		String name = "vis" + VISIBILITY_MAP_VERSION + "_" + width + "_" + height + "_" + minZ + "_" + maxZ + ".dat";
+		long[][][] visibilityMaps = null;
+		byte[] src = Signlink.loadFile(name);
 
+		if (src != null) {
+			visibilityMaps = readVisibilityMaps(src, width, height, minZ, maxZ);
+		}
+
+		if (visibilityMaps == null) {
+			visibilityMaps = createVisibilityMaps(width, height, minZ, maxZ);
+			Signlink.saveFile(name, writeVisibilityMaps(visibilityMaps, width, height, minZ, maxZ));
+		}
+
+		ctx.visibilityMaps = visibilityMaps;
+	}
+
+	/**
+	 * Generates the visibility maps, one camera angle per task.
+	 *
+	 * @param width the viewport width.
+	 * @param height the viewport height.
+	 * @param minZ the depth below the camera to test.
+	 * @param maxZ the depth above the camera to test.
+	 * @return the maps, indexed by pitch and yaw. See {@link #isVisible(long[], int, int)}.
+	 */
+	public static long[][][] createVisibilityMaps(int width, int height, int minZ, int maxZ) {
 		int[] pitchZ = new int[9];
 
 		for (int n = 0; n < 9; n++) {
@@ -1044,78 +1423,135 @@ public final class SceneGraph {
 		final int diameter = Scene.VIEW_DIAMETER + 3;
 		final int radius = Scene.VIEW_DIAMETER / 2;
 
-		boolean[][][][] tileVisible = new boolean[9][32][diameter][diameter];
+		// one extra pitch, since each map also looks at the next one up.
+		boolean[][][] tileVisible = new boolean[9][32][diameter * diameter];
 
-		for (int pitch = 128; pitch <= 384; pitch += 32) {
-			for (int yaw = 0; yaw < 2048; yaw += 64) {
-				pitchSin = Model.sin[pitch];
-				pitchCos = Model.cos[pitch];
-				yawSin = Model.sin[yaw];
-				yawCos = Model.cos[yaw];
+		IntStream.range(0, 9 * 32).parallel().forEach(angle -> {
+			int pitchIndex = angle / 32;
+			int yawIndex = angle % 32;
+			int pitch = 128 + pitchIndex * 32;
+			int yaw = yawIndex * 64;
 
-				int pitchIndex = (pitch - 128) / 32;
-				int yawIndex = yaw / 64;
+			int pitchSin = Model.sin[pitch];
+			int pitchCos = Model.cos[pitch];
+			int yawSin = Model.sin[yaw];
+			int yawCos = Model.cos[yaw];
 
-				for (int x = -radius; x <= radius; x++) {
-					for (int y = -radius; y <= radius; y++) {
-						int sceneX = x * 128;
-						int sceneY = y * 128;
-						boolean visible = false;
+			boolean[] visibleTiles = tileVisible[pitchIndex][yawIndex];
 
-						for (int sceneZ = -minZ; sceneZ <= maxZ; sceneZ += 128) {
-							if (isPointVisible(sceneX, sceneY, pitchZ[pitchIndex] + sceneZ)) {
-								visible = true;
-								break;
-							}
-						}
+			for (int x = -radius; x <= radius; x++) {
+				for (int y = -radius; y <= radius; y++) {
+					int sceneX = x * 128;
+					int sceneY = y * 128;
+					boolean visible = false;
 
-						tileVisible[pitchIndex][yawIndex][x + Scene.VIEW_RADIUS + 1][y + Scene.VIEW_RADIUS + 1] = visible;
+					for (int sceneZ = -minZ; sceneZ <= maxZ; sceneZ += 128) {
+						if (isPointVisible(sceneX, sceneY, pitchZ[pitchIndex] + sceneZ, pitchSin, pitchCos, yawSin, yawCos, width, height)) {
+							visible = true;
+							break;
+						}
 					}
+
+					visibleTiles[(x + Scene.VIEW_RADIUS + 1) * diameter + (y + Scene.VIEW_RADIUS + 1)] = visible;
 				}
 			}
-		}
+		});
 
-		for (int pitch = 0; pitch < 8; pitch++) {
-			for (int yaw = 0; yaw < 32; yaw++) {
-				for (int x = -Scene.VIEW_RADIUS; x < Scene.VIEW_RADIUS; x++) {
-					for (int y = -Scene.VIEW_RADIUS; y < Scene.VIEW_RADIUS; y++) {
-						boolean visible = false;
+		long[][][] visibilityMaps = new long[8][32][];
 
-						LOOP:
-						{
-							for (int dx = -1; dx <= 1; dx++) {
-								for (int dy = -1; dy <= 1; dy++) {
-									if (tileVisible[pitch][yaw][x + dx + Scene.VIEW_RADIUS + 1][y + dy + Scene.VIEW_RADIUS + 1]) {
-										visible = true;
-										break LOOP;
-									}
+		// a tile is visible if it or a neighbour is, from this angle or one step further in pitch or yaw.
+		IntStream.range(0, 8 * 32).parallel().forEach(angle -> {
+			int pitch = angle / 32;
+			int yaw = angle % 32;
+			int nextYaw = (yaw + 1) % 31;
+			long[] map = new long[VISIBILITY_MAP_WORDS];
 
-									if (tileVisible[pitch][(yaw + 1) % 31][x + dx + Scene.VIEW_RADIUS + 1][y + dy + Scene.VIEW_RADIUS + 1]) {
-										visible = true;
-										break LOOP;
-									}
+			for (int x = -Scene.VIEW_RADIUS; x < Scene.VIEW_RADIUS; x++) {
+				for (int y = -Scene.VIEW_RADIUS; y < Scene.VIEW_RADIUS; y++) {
+					boolean visible = false;
 
-									if (tileVisible[pitch + 1][yaw][x + dx + Scene.VIEW_RADIUS + 1][y + dy + Scene.VIEW_RADIUS + 1]) {
-										visible = true;
-										break LOOP;
-									}
+					LOOP:
+					for (int dx = -1; dx <= 1; dx++) {
+						for (int dy = -1; dy <= 1; dy++) {
+							int tile = (x + dx + Scene.VIEW_RADIUS + 1) * diameter + (y + dy + Scene.VIEW_RADIUS + 1);
 
-									if (tileVisible[pitch + 1][(yaw + 1) % 31][x + dx + Scene.VIEW_RADIUS + 1][y + dy + Scene.VIEW_RADIUS + 1]) {
-										visible = true;
-										break LOOP;
-									}
-								}
+							if (tileVisible[pitch][yaw][tile] || tileVisible[pitch][nextYaw][tile] || tileVisible[pitch + 1][yaw][tile] || tileVisible[pitch + 1][nextYaw][tile]) {
+								visible = true;
+								break LOOP;
 							}
 						}
+					}
 
-						SceneGraph.visibilityMaps[pitch][yaw][x + Scene.VIEW_RADIUS][y + Scene.VIEW_RADIUS] = visible;
+					if (visible) {
+						int bit = (x + Scene.VIEW_RADIUS) * VISIBILITY_MAP_SIZE + (y + Scene.VIEW_RADIUS);
+						map[bit >> 6] |= 1L << bit;
 					}
 				}
 			}
+
+			visibilityMaps[pitch][yaw] = map;
+		});
+
+		return visibilityMaps;
+	}
+
+	/**
+	 * @param map the visibility map.
+	 * @param x the tile x, relative to the camera plus {@link Scene#VIEW_RADIUS}.
+	 * @param z the tile z, relative to the camera plus {@link Scene#VIEW_RADIUS}.
+	 * @return true if the tile can be seen.
+	 */
+	public static boolean isVisible(long[] map, int x, int z) {
+		int bit = x * VISIBILITY_MAP_SIZE + z;
+		return (map[bit >> 6] & 1L << bit) != 0;
+	}
+
+	private static byte[] writeVisibilityMaps(long[][][] visibilityMaps, int width, int height, int minZ, int maxZ) {
+		Buffer b = new Buffer(new byte[VISIBILITY_HEADER_SIZE + 8 * 32 * VISIBILITY_MAP_WORDS * 8]);
+		b.writeInt(VISIBILITY_MAP_VERSION);
+		b.writeInt(VISIBILITY_MAP_SIZE);
+		b.writeInt(width);
+		b.writeInt(height);
+		b.writeInt(minZ);
+		b.writeInt(maxZ);
+
+		for (long[][] pitch : visibilityMaps) {
+			for (long[] map : pitch) {
+				for (long word : map) {
+					b.writeLong(word);
+				}
+			}
+		}
+		return b.data;
+	}
+
+	/**
+	 * @return the maps, or null if the data is from another version, size or viewport.
+	 */
+	private static long[][][] readVisibilityMaps(byte[] src, int width, int height, int minZ, int maxZ) {
+		if (src.length != VISIBILITY_HEADER_SIZE + 8 * 32 * VISIBILITY_MAP_WORDS * 8) {
+			return null;
+		}
+
+		Buffer b = new Buffer(src);
+
+		if (b.readInt() != VISIBILITY_MAP_VERSION || b.readInt() != VISIBILITY_MAP_SIZE || b.readInt() != width || b.readInt() != height || b.readInt() != minZ || b.readInt() != maxZ) {
+			return null;
+		}
+
+		long[][][] visibilityMaps = new long[8][32][VISIBILITY_MAP_WORDS];
+
+		for (long[][] pitch : visibilityMaps) {
+			for (long[] map : pitch) {
+				for (int n = 0; n < map.length; n++) {
+					map[n] = b.readLong();
+				}
+			}
 		}
+		return visibilityMaps;
 	}
 
-	public static boolean isPointVisible(int sceneX, int sceneY, int sceneZ) {
+	private static boolean isPointVisible(int sceneX, int sceneY, int sceneZ, int pitchSin, int pitchCos, int yawSin, int yawCos, int width, int height) {
 		int x = sceneY * yawSin + sceneX * yawCos >> 16;
 		int w = sceneY * yawCos - sceneX * yawSin >> 16;
 		int z = sceneZ * pitchSin + w * pitchCos >> 16;
@@ -1125,10 +1561,10 @@ public final class SceneGraph {
 			return false;
 		}
 
-		int screenX = viewportCenterX + (x << 9) / z;
-		int screenY = viewportCenterY + (y << 9) / z;
+		int screenX = width / 2 + (x << 9) / z;
+		int screenY = height / 2 + (y << 9) / z;
 
-		return !(screenX < viewportLeft || screenX > viewportRight || screenY < viewportTop || screenY > viewportBottom);
+		return !(screenX < 0 || screenX > width || screenY < 0 || screenY > height);
 	}
 
 	public void sendClick(int clickX, int clickY) {
@@ -1140,6 +1576,35 @@ public final class SceneGraph {
 	}
 
 	public void draw(int cameraX, int cameraY, int cameraZ, int pitch, int yaw, int topPlane) {
+		draw(RenderContext.getDefault(), cameraX, cameraY, cameraZ, pitch, yaw, topPlane);
+	}
+
+	/**
+	 * Draws the scene. The context must have its visibility maps from {@link #init(RenderContext, int, int, int, int)}.
+	 * A graph can only be drawn by one context at a time, but separate graphs can be drawn at once.
+	 *
+	 * @param ctx the context to draw with.
+	 * @param cameraX the camera x.
+	 * @param cameraY the camera y.
+	 * @param cameraZ the camera z.
+	 * @param pitch the camera pitch.
+	 * @param yaw the camera yaw.
+	 * @param topPlane the highest plane drawn.
+	 */
+	public void draw(RenderContext ctx, int cameraX, int cameraY, int cameraZ, int pitch, int yaw, int topPlane) {
+		context = ctx;
+
+		// the scene only fills triangles, so they can all be queued and rasterized by band at the end.
+		ctx.beginBands();
+		try {
+			drawScene(cameraX, cameraY, cameraZ, pitch, yaw, topPlane);
+		} finally {
+			ctx.flushBands();
+			context = null;
+		}
+	}
+
+	private void drawScene(int cameraX, int cameraY, int cameraZ, int pitch, int yaw, int topPlane) {
 		if (cameraX < 0) {
 			cameraX = 0;
 		} else if (cameraX >= tileCountX * 128) {
@@ -1153,17 +1618,22 @@ public final class SceneGraph {
 		}
 
 		cycle++;
-		SceneGraph.pitchSin = Model.sin[pitch];
-		SceneGraph.pitchCos = Model.cos[pitch];
-		SceneGraph.yawSin = Model.sin[yaw];
-		SceneGraph.yawCos = Model.cos[yaw];
-		SceneGraph.visibilityMap = visibilityMaps[(pitch - 128) / 32][yaw / 64];
-		SceneGraph.cameraX = cameraX;
-		SceneGraph.cameraY = cameraY;
-		SceneGraph.cameraZ = cameraZ;
-		SceneGraph.cameraTileX = cameraX / 128;
-		SceneGraph.cameraTileZ = cameraZ / 128;
-		SceneGraph.topPlane = topPlane;
+		this.pitchSin = Model.sin[pitch];
+		this.pitchCos = Model.cos[pitch];
+		this.yawSin = Model.sin[yaw];
+		this.yawCos = Model.cos[yaw];
+		this.visibilityMap = context.visibilityMaps[(pitch - 128) / 32][yaw / 64];
+		this.cameraX = cameraX;
+		this.cameraY = cameraY;
+		this.cameraZ = cameraZ;
+		this.cameraTileX = cameraX / 128;
+		this.cameraTileZ = cameraZ / 128;
+		this.topPlane = topPlane;
+		this.frustumLengthX = (int) Math.sqrt(512 * 512 + context.clipCenterX * context.clipCenterX) + 1;
+		this.frustumLengthY = (int) Math.sqrt(512 * 512 + context.clipCenterY * context.clipCenterY) + 1;
+		this.drawnLocCount = 0;
+		this.culledLocCount = 0;
+		this.occludedLocCount = 0;
 
 		minTileX = cameraTileX - Scene.VIEW_RADIUS;
 		maxTileX = cameraTileX + Scene.VIEW_RADIUS;
@@ -1199,7 +1669,7 @@ public final class SceneGraph {
 					Tile t = tiles[x][z];
 
 					if (t != null) {
-						if (t.drawPlane > topPlane || !visibilityMap[x - cameraTileX + Scene.VIEW_RADIUS][z - cameraTileZ + Scene.VIEW_RADIUS] && heightmap[plane][x][z] - cameraY < 2000) {
+						if (t.drawPlane > topPlane || !isVisible(visibilityMap, x - cameraTileX + Scene.VIEW_RADIUS, z - cameraTileZ + Scene.VIEW_RADIUS) && heightmap[plane][x][z] - cameraY < 2000) {
 							t.draw = false;
 							t.isVisible = false;
 							t.wallCullDirection = 0;
@@ -1406,7 +1876,7 @@ public final class SceneGraph {
 					WallLocation wall = t.wall;
 
 					if (wall != null) {
-						wall.model1.draw(0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
+						wall.model1.draw(context, 0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
 					}
 
 					for (int n = 0; n < t.locationCount; n++) {
@@ -1417,9 +1887,13 @@ public final class SceneGraph {
 
 							if (m == null) {
 								m = loc.renderable.getDrawModel();
+							} else if (isOutsideFrustum(m, loc.sceneX, loc.sceneY, loc.sceneZ)) {
+								culledLocCount++;
+								continue;
 							}
 
-							m.draw(loc.yaw, pitchSin, pitchCos, yawSin, yawCos, loc.sceneX - cameraX, loc.sceneY - cameraY, loc.sceneZ - cameraZ, loc.bitset);
+							m.draw(context, loc.yaw, pitchSin, pitchCos, yawSin, yawCos, loc.sceneX - cameraX, loc.sceneY - cameraY, loc.sceneZ - cameraZ, loc.bitset, getProjection(loc));
+							drawnLocCount++;
 						}
 					}
 				}
@@ -1524,17 +1998,17 @@ public final class SceneGraph {
 					}
 
 					if ((wall.type1 & tileWallDrawFlags) != 0 && !isWallOccluded(tileRenderPlane, tileX, tileZ, wall.type1)) {
-						wall.model1.draw(0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
+						wall.model1.draw(context, 0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
 					}
 
 					if ((wall.type2 & tileWallDrawFlags) != 0 && !isWallOccluded(tileRenderPlane, tileX, tileZ, wall.type2)) {
-						wall.model2.draw(0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
+						wall.model2.draw(context, 0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
 					}
 				}
 
 				if (decoration != null && !isOccluded(tileRenderPlane, tileX, tileZ, decoration.model.maxBoundY)) {
 					if ((decoration.type & tileWallDrawFlags) != 0) {
-						decoration.model.draw(decoration.rotation, pitchSin, pitchCos, yawSin, yawCos, decoration.sceneX - cameraX, decoration.sceneY - cameraY, decoration.sceneZ - cameraZ, decoration.bitset);
+						decoration.model.draw(context, decoration.rotation, pitchSin, pitchCos, yawSin, yawCos, decoration.sceneX - cameraX, decoration.sceneY - cameraY, decoration.sceneZ - cameraZ, decoration.bitset);
 					} else if ((decoration.type & 0x300) != 0) {
 						int sceneX = decoration.sceneX - cameraX;
 						int sceneY = decoration.sceneY - cameraY;
@@ -1560,13 +2034,13 @@ public final class SceneGraph {
 						if ((decoration.type & 0x100) != 0 && z < x) {
 							int drawX = sceneX + DECO_TYPE1_OFFSET_X[rotation];
 							int drawZ = sceneZ + DECO_TYPE1_OFFSET_Z[rotation];
-							decoration.model.draw(rotation * 512 + 256, pitchSin, pitchCos, yawSin, yawCos, drawX, sceneY, drawZ, decoration.bitset);
+							decoration.model.draw(context, rotation * 512 + 256, pitchSin, pitchCos, yawSin, yawCos, drawX, sceneY, drawZ, decoration.bitset);
 						}
 
 						if ((decoration.type & 0x200) != 0 && z > x) {
 							int drawX = sceneX + DECO_TYPE2_OFFSET_X[rotation];
 							int drawZ = sceneZ + DECO_TYPE2_OFFSET_Z[rotation];
-							decoration.model.draw(rotation * 512 + 1280 & 0x7ff, pitchSin, pitchCos, yawSin, yawCos, drawX, sceneY, drawZ, decoration.bitset);
+							decoration.model.draw(context, rotation * 512 + 1280 & 0x7ff, pitchSin, pitchCos, yawSin, yawCos, drawX, sceneY, drawZ, decoration.bitset);
 						}
 					}
 				}
@@ -1575,13 +2049,13 @@ public final class SceneGraph {
 					GroundDecorationLocation d = tile.groundDecoration;
 
 					if (d != null) {
-						d.model.draw(0, pitchSin, pitchCos, yawSin, yawCos, d.sceneX - cameraX, d.sceneY - cameraY, d.sceneZ - cameraZ, d.bitset);
+						d.model.draw(context, 0, pitchSin, pitchCos, yawSin, yawCos, d.sceneX - cameraX, d.sceneY - cameraY, d.sceneZ - cameraZ, d.bitset, getProjection(d));
 					}
 
 					ObjectLocation o = tile.object;
 
 					if (o != null && o.offsetY == 0) {
-						o.model.draw(0, pitchSin, pitchCos, yawSin, yawCos, o.sceneX - cameraX, o.sceneY - cameraY, o.sceneZ - cameraZ, o.bitset);
+						o.model.draw(context, 0, pitchSin, pitchCos, yawSin, yawCos, o.sceneX - cameraX, o.sceneY - cameraY, o.sceneZ - cameraZ, o.bitset);
 					}
 				}
 
@@ -1636,7 +2110,7 @@ public final class SceneGraph {
 					WallLocation wall = tile.wall;
 
 					if (!isWallOccluded(tileRenderPlane, tileX, tileZ, wall.type1)) {
-						wall.model1.draw(0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
+						wall.model1.draw(context, 0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
 					}
 
 					tile.wallCullDirection = 0;
@@ -1741,12 +2215,20 @@ public final class SceneGraph {
 					l.cycle = cycle;
 					Model m = l.model;
 
-					if (m == null) {
-						m = l.renderable.getDrawModel();
-					}
+					// static models are rejected on their bounds first, before being tested against the occluders.
+					if (m != null && isOutsideFrustum(m, l.sceneX, l.sceneY, l.sceneZ)) {
+						culledLocCount++;
+					} else {
+						if (m == null) {
+							m = l.renderable.getDrawModel();
+						}
 
-					if (!isAreaOccluded(tileRenderPlane, l.minTileX, l.maxTileX, l.minTileZ, l.maxTileZ, m.maxBoundY)) {
-						m.draw(l.yaw, pitchSin, pitchCos, yawSin, yawCos, l.sceneX - cameraX, l.sceneY - cameraY, l.sceneZ - cameraZ, l.bitset);
+						if (!isAreaOccluded(tileRenderPlane, l.minTileX, l.maxTileX, l.minTileZ, l.maxTileZ, m.maxBoundY)) {
+							m.draw(context, l.yaw, pitchSin, pitchCos, yawSin, yawCos, l.sceneX - cameraX, l.sceneY - cameraY, l.sceneZ - cameraZ, l.bitset, getProjection(l));
+							drawnLocCount++;
+						} else {
+							occludedLocCount++;
+						}
 					}
 
 					for (int x = l.minTileX; x <= l.maxTileX; x++) {
@@ -1810,7 +2292,7 @@ public final class SceneGraph {
 				ObjectLocation object = tile.object;
 
 				if (object != null && object.offsetY != 0) {
-					object.model.draw(0, pitchSin, pitchCos, yawSin, yawCos, object.sceneX - cameraX, object.sceneY - cameraY - object.offsetY, object.sceneZ - cameraZ, object.bitset);
+					object.model.draw(context, 0, pitchSin, pitchCos, yawSin, yawCos, object.sceneX - cameraX, object.sceneY - cameraY - object.offsetY, object.sceneZ - cameraZ, object.bitset);
 				}
 
 				if (tile.tileWallDrawFlags != 0) {
@@ -1818,7 +2300,7 @@ public final class SceneGraph {
 
 					if (decoration != null && !isOccluded(tileRenderPlane, tileX, tileZ, decoration.model.maxBoundY)) {
 						if ((decoration.type & tile.tileWallDrawFlags) != 0) {
-							decoration.model.draw(decoration.rotation, pitchSin, pitchCos, yawSin, yawCos, decoration.sceneX - cameraX, decoration.sceneY - cameraY, decoration.sceneZ - cameraZ, decoration.bitset);
+							decoration.model.draw(context, decoration.rotation, pitchSin, pitchCos, yawSin, yawCos, decoration.sceneX - cameraX, decoration.sceneY - cameraY, decoration.sceneZ - cameraZ, decoration.bitset);
 						} else if ((decoration.type & 0x300) != 0) {
 							int drawX = decoration.sceneX - cameraX;
 							int drawY = decoration.sceneY - cameraY;
@@ -1843,13 +2325,13 @@ public final class SceneGraph {
 							if ((decoration.type & 0x100) != 0 && absoluteZ >= absoluteX) {
 								drawX += DECO_TYPE1_OFFSET_X[rotation];
 								drawZ += DECO_TYPE1_OFFSET_Z[rotation];
-								decoration.model.draw(rotation * 512 + 256, pitchSin, pitchCos, yawSin, yawCos, drawX, drawY, drawZ, decoration.bitset);
+								decoration.model.draw(context, rotation * 512 + 256, pitchSin, pitchCos, yawSin, yawCos, drawX, drawY, drawZ, decoration.bitset);
 							}
 
 							if ((decoration.type & 0x200) != 0 && absoluteZ <= absoluteX) {
 								drawX += DECO_TYPE2_OFFSET_X[rotation];
 								drawZ += DECO_TYPE2_OFFSET_Z[rotation];
-								decoration.model.draw(rotation * 512 + 1280 & 0x7ff, pitchSin, pitchCos, yawSin, yawCos, drawX, drawY, drawZ, decoration.bitset);
+								decoration.model.draw(context, rotation * 512 + 1280 & 0x7ff, pitchSin, pitchCos, yawSin, yawCos, drawX, drawY, drawZ, decoration.bitset);
 							}
 						}
 					}
@@ -1858,11 +2340,11 @@ public final class SceneGraph {
 
 					if (wall != null) {
 						if ((wall.type2 & tile.tileWallDrawFlags) != 0 && !isWallOccluded(tileRenderPlane, tileX, tileZ, wall.type2)) {
-							wall.model2.draw(0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
+							wall.model2.draw(context, 0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
 						}
 
 						if ((wall.type1 & tile.tileWallDrawFlags) != 0 && !isWallOccluded(tileRenderPlane, tileX, tileZ, wall.type1)) {
-							wall.model1.draw(0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
+							wall.model1.draw(context, 0, pitchSin, pitchCos, yawSin, yawCos, wall.sceneX - cameraX, wall.sceneY - cameraY, wall.sceneZ - cameraZ, wall.bitset);
 						}
 					}
 				}
@@ -1910,6 +2392,84 @@ public final class SceneGraph {
 		}
 	}
 
+	/**
+	 * Tests a sphere around the model against the view frustum. The sphere is centered on the model's origin and
+	 * reaches its furthest vertex, so a model outside of it can't put a pixel on screen.
+	 *
+	 * @param m the model.
+	 * @param sceneX the scene x.
+	 * @param sceneY the scene y.
+	 * @param sceneZ the scene z.
+	 * @return true if the model is entirely outside the frustum.
+	 */
+	private boolean isOutsideFrustum(Model m, int sceneX, int sceneY, int sceneZ) {
+		int radius = m.maxDepth;
+
+		if (m.minDepth - m.maxDepth > radius) {
+			radius = m.minDepth - m.maxDepth;
+		}
+
+		// the bounds are truncated square roots, and the rotation below rounds too.
+		radius += 4;
+
+		int x = sceneX - cameraX;
+		int y = sceneY - cameraY;
+		int z = sceneZ - cameraZ;
+
+		int w = z * yawSin + x * yawCos >> 16;
+		z = z * yawCos - x * yawSin >> 16;
+		x = w;
+
+		w = y * pitchCos - z * pitchSin >> 16;
+		z = y * pitchSin + z * pitchCos >> 16;
+		y = w;
+
+		if (z + radius < Scene.NEAR_Z || z - radius >= Scene.FAR_Z) {
+			return true;
+		}
+
+		if (x < 0) {
+			x = -x;
+		}
+
+		if (y < 0) {
+			y = -y;
+		}
+
+		// the distance past the side, then top or bottom, plane. scaled up by the plane normal's length.
+		return (x << 9) - context.clipCenterX * z > radius * frustumLengthX || (y << 9) - context.clipCenterY * z > radius * frustumLengthY;
+	}
+
+	/**
+	 * @param l the loc.
+	 * @return the projection cache of the loc, or null if it isn't static or caching is off.
+	 */
+	private ProjectionCache getProjection(Location l) {
+		if (!cacheProjections || l.model == null) {
+			return null;
+		}
+
+		if (l.projection == null) {
+			l.projection = new ProjectionCache();
+		}
+		return l.projection;
+	}
+
+	/**
+	 * @param d the ground decoration.
+	 * @return the projection cache of the decoration, or null if caching is off.
+	 */
+	private ProjectionCache getProjection(GroundDecorationLocation d) {
+		if (!cacheProjections) {
+			return null;
+		}
+
+		if (d.projection == null) {
+			d.projection = new ProjectionCache();
+		}
+		return d.projection;
+	}
+
 	public void drawTileUnderlay(TileUnderlay u, int plane, int tileX, int tileZ, int pitchSin, int pitchCos, int yawSin, int yawCos) {
 		int sceneX3;
 		int sceneX0 = sceneX3 = (tileX << 7) - cameraX;
@@ -1973,25 +2533,25 @@ public final class SceneGraph {
 			return;
 		}
 
-		int x0 = (Graphics3D.centerX + (sceneX0 << 9) / sceneZ0);
-		int y0 = (Graphics3D.centerY + (sceneY0 << 9) / sceneZ0);
-		int x1 = (Graphics3D.centerX + (sceneX1 << 9) / sceneZ1);
-		int y1 = (Graphics3D.centerY + (sceneY1 << 9) / sceneZ1);
-		int x2 = (Graphics3D.centerX + (sceneX2 << 9) / sceneZ2);
-		int y2 = (Graphics3D.centerY + (sceneY2 << 9) / sceneZ2);
-		int x3 = (Graphics3D.centerX + (sceneX3 << 9) / sceneZ3);
-		int y3 = (Graphics3D.centerY + (sceneY3 << 9) / sceneZ3);
+		int x0 = (context.rasterizer.centerX + (sceneX0 << 9) / sceneZ0);
+		int y0 = (context.rasterizer.centerY + (sceneY0 << 9) / sceneZ0);
+		int x1 = (context.rasterizer.centerX + (sceneX1 << 9) / sceneZ1);
+		int y1 = (context.rasterizer.centerY + (sceneY1 << 9) / sceneZ1);
+		int x2 = (context.rasterizer.centerX + (sceneX2 << 9) / sceneZ2);
+		int y2 = (context.rasterizer.centerY + (sceneY2 << 9) / sceneZ2);
+		int x3 = (context.rasterizer.centerX + (sceneX3 << 9) / sceneZ3);
+		int y3 = (context.rasterizer.centerY + (sceneY3 << 9) / sceneZ3);
 
-		Graphics3D.alpha = 0;
+		context.rasterizer.alpha = 0;
 
 		if (((x2 - x3) * (y1 - y3) - (y2 - y3) * (x1 - x3)) > 0) {
-			Graphics3D.testX = false;
+			context.rasterizer.testX = false;
 
-			if (x2 < 0 || x3 < 0 || x1 < 0 || x2 > Graphics2D.rightX || x3 > Graphics2D.rightX || x1 > Graphics2D.rightX) {
-				Graphics3D.testX = true;
+			if (x2 < 0 || x3 < 0 || x1 < 0 || x2 > context.rasterizer.rightX || x3 > context.rasterizer.rightX || x1 > context.rasterizer.rightX) {
+				context.rasterizer.testX = true;
 			}
 
-			if (Scene.checkClick) {
+			if (Scene.checkClick && context.isDefault()) {
 				if (withinTriangle(Scene.mouseX, Scene.mouseY, y2, y3, y1, x2, x3, x1)) {
 					Scene.clickedTileX = tileX;
 					Scene.clickedTileZ = tileZ;
@@ -2001,29 +2561,29 @@ public final class SceneGraph {
 			if (u != null) {
 				if (u.textureIndex == -1) {
 					if (u.northeastColor != 12345678) {
-						Graphics3D.fillShadedTriangle(x2, y2, x3, y3, x1, y1, u.northeastColor, u.northwestColor, u.southeastColor);
+						context.fillShadedTriangle(x2, y2, x3, y3, x1, y1, u.northeastColor, u.northwestColor, u.southeastColor);
 					}
 				} else if (!lowmemory) {
 					if (u.isFlat) {
-						Graphics3D.fillTexturedTriangle(y2, y3, y1, x2, x3, x1, u.northeastColor, u.northwestColor, u.southeastColor, sceneX0, sceneX1, sceneX3, sceneY0, sceneY1, sceneY3, sceneZ0, sceneZ1, sceneZ3, u.textureIndex);
+						context.fillTexturedTriangle(y2, y3, y1, x2, x3, x1, u.northeastColor, u.northwestColor, u.southeastColor, sceneX0, sceneX1, sceneX3, sceneY0, sceneY1, sceneY3, sceneZ0, sceneZ1, sceneZ3, u.textureIndex);
 					} else {
-						Graphics3D.fillTexturedTriangle(y2, y3, y1, x2, x3, x1, u.northeastColor, u.northwestColor, u.southeastColor, sceneX2, sceneX3, sceneX1, sceneY2, sceneY3, sceneY1, sceneZ2, sceneZ3, sceneZ1, u.textureIndex);
+						context.fillTexturedTriangle(y2, y3, y1, x2, x3, x1, u.northeastColor, u.northwestColor, u.southeastColor, sceneX2, sceneX3, sceneX1, sceneY2, sceneY3, sceneY1, sceneZ2, sceneZ3, sceneZ1, u.textureIndex);
 					}
 				} else {
 					int hsl = TEXTURE_HSL[u.textureIndex];
-					Graphics3D.fillShadedTriangle(x2, y2, x3, y3, x1, y1, adjustHSLLightness(hsl, u.northeastColor), adjustHSLLightness(hsl, u.northwestColor), adjustHSLLightness(hsl, u.southeastColor));
+					context.fillShadedTriangle(x2, y2, x3, y3, x1, y1, adjustHSLLightness(hsl, u.northeastColor), adjustHSLLightness(hsl, u.northwestColor), adjustHSLLightness(hsl, u.southeastColor));
 				}
 			}
 		}
 
 		if (((x0 - x1) * (y3 - y1) - (y0 - y1) * (x3 - x1)) > 0) {
-			Graphics3D.testX = false;
+			context.rasterizer.testX = false;
 
-			if (x0 < 0 || x1 < 0 || x3 < 0 || x0 > Graphics2D.rightX || x1 > Graphics2D.rightX || x3 > Graphics2D.rightX) {
-				Graphics3D.testX = true;
+			if (x0 < 0 || x1 < 0 || x3 < 0 || x0 > context.rasterizer.rightX || x1 > context.rasterizer.rightX || x3 > context.rasterizer.rightX) {
+				context.rasterizer.testX = true;
 			}
 
-			if (Scene.checkClick) {
+			if (Scene.checkClick && context.isDefault()) {
 				if (withinTriangle(Scene.mouseX, Scene.mouseY, y0, y1, y3, x0, x1, x3)) {
 					Scene.clickedTileX = tileX;
 					Scene.clickedTileZ = tileZ;
@@ -2033,13 +2593,13 @@ public final class SceneGraph {
 			if (u != null) {
 				if (u.textureIndex == -1) {
 					if (u.southwestColor != 12345678) {
-						Graphics3D.fillShadedTriangle(x0, y0, x1, y1, x3, y3, u.southwestColor, u.southeastColor, u.northwestColor);
+						context.fillShadedTriangle(x0, y0, x1, y1, x3, y3, u.southwestColor, u.southeastColor, u.northwestColor);
 					}
 				} else if (!lowmemory) {
-					Graphics3D.fillTexturedTriangle(y0, y1, y3, x0, x1, x3, u.southwestColor, u.southeastColor, u.northwestColor, sceneX0, sceneX1, sceneX3, sceneY0, sceneY1, sceneY3, sceneZ0, sceneZ1, sceneZ3, u.textureIndex);
+					context.fillTexturedTriangle(y0, y1, y3, x0, x1, x3, u.southwestColor, u.southeastColor, u.northwestColor, sceneX0, sceneX1, sceneX3, sceneY0, sceneY1, sceneY3, sceneZ0, sceneZ1, sceneZ3, u.textureIndex);
 				} else {
 					int hsl = TEXTURE_HSL[u.textureIndex];
-					Graphics3D.fillShadedTriangle(x0, y0, x1, y1, x3, y3, adjustHSLLightness(hsl, u.southwestColor), adjustHSLLightness(hsl, u.southeastColor), adjustHSLLightness(hsl, u.northwestColor));
+					context.fillShadedTriangle(x0, y0, x1, y1, x3, y3, adjustHSLLightness(hsl, u.southwestColor), adjustHSLLightness(hsl, u.southeastColor), adjustHSLLightness(hsl, u.northwestColor));
 				}
 			}
 		}
@@ -2066,16 +2626,16 @@ public final class SceneGraph {
 			}
 
 			if (o.triangleTextureIndex != null) {
-				TileOverlay.vertexSceneX[v] = sceneX;
-				TileOverlay.vertexSceneY[v] = sceneY;
-				TileOverlay.vertexSceneZ[v] = sceneZ;
+				context.overlaySceneX[v] = sceneX;
+				context.overlaySceneY[v] = sceneY;
+				context.overlaySceneZ[v] = sceneZ;
 			}
 
-			TileOverlay.tmpScreenX[v] = Graphics3D.centerX + (sceneX << 9) / sceneZ;
-			TileOverlay.tmpScreenY[v] = Graphics3D.centerY + (sceneY << 9) / sceneZ;
+			context.overlayScreenX[v] = context.rasterizer.centerX + (sceneX << 9) / sceneZ;
+			context.overlayScreenY[v] = context.rasterizer.centerY + (sceneY << 9) / sceneZ;
 		}
 
-		Graphics3D.alpha = 0;
+		context.rasterizer.alpha = 0;
 		count = o.triangleVertexA.length;
 
 		for (int t = 0; t < count; t++) {
@@ -2083,22 +2643,22 @@ public final class SceneGraph {
 			int b = o.triangleVertexB[t];
 			int c = o.triangleVertexC[t];
 
-			int x0 = TileOverlay.tmpScreenX[a];
-			int x1 = TileOverlay.tmpScreenX[b];
-			int x2 = TileOverlay.tmpScreenX[c];
+			int x0 = context.overlayScreenX[a];
+			int x1 = context.overlayScreenX[b];
+			int x2 = context.overlayScreenX[c];
 
-			int y0 = TileOverlay.tmpScreenY[a];
-			int y1 = TileOverlay.tmpScreenY[b];
-			int y2 = TileOverlay.tmpScreenY[c];
+			int y0 = context.overlayScreenY[a];
+			int y1 = context.overlayScreenY[b];
+			int y2 = context.overlayScreenY[c];
 
 			if (((x0 - x1) * (y2 - y1) - (y0 - y1) * (x2 - x1)) > 0) {
-				Graphics3D.testX = false;
+				context.rasterizer.testX = false;
 
-				if (x0 < 0 || x1 < 0 || x2 < 0 || x0 > Graphics2D.rightX || x1 > Graphics2D.rightX || x2 > Graphics2D.rightX) {
-					Graphics3D.testX = true;
+				if (x0 < 0 || x1 < 0 || x2 < 0 || x0 > context.rasterizer.rightX || x1 > context.rasterizer.rightX || x2 > context.rasterizer.rightX) {
+					context.rasterizer.testX = true;
 				}
 
-				if (Scene.checkClick) {
+				if (Scene.checkClick && context.isDefault()) {
 					if (withinTriangle(Scene.mouseX, Scene.mouseY, y0, y1, y2, x0, x1, x2)) {
 						Scene.clickedTileX = tileX;
 						Scene.clickedTileZ = tileZ;
@@ -2107,17 +2667,17 @@ public final class SceneGraph {
 
 				if (o.triangleTextureIndex == null || o.triangleTextureIndex[t] == -1) {
 					if (o.triangleColorA[t] != 12345678) {
-						Graphics3D.fillShadedTriangle(x0, y0, x1, y1, x2, y2, o.triangleColorA[t], o.triangleColorB[t], o.triangleColorC[t]);
+						context.fillShadedTriangle(x0, y0, x1, y1, x2, y2, o.triangleColorA[t], o.triangleColorB[t], o.triangleColorC[t]);
 					}
 				} else if (!lowmemory) {
 					if (o.isFlat) {
-						Graphics3D.fillTexturedTriangle(y0, y1, y2, x0, x1, x2, o.triangleColorA[t], o.triangleColorB[t], o.triangleColorC[t], TileOverlay.vertexSceneX[0], TileOverlay.vertexSceneX[1], TileOverlay.vertexSceneX[3], TileOverlay.vertexSceneY[0], TileOverlay.vertexSceneY[1], TileOverlay.vertexSceneY[3], TileOverlay.vertexSceneZ[0], TileOverlay.vertexSceneZ[1], TileOverlay.vertexSceneZ[3], o.triangleTextureIndex[t]);
+						context.fillTexturedTriangle(y0, y1, y2, x0, x1, x2, o.triangleColorA[t], o.triangleColorB[t], o.triangleColorC[t], context.overlaySceneX[0], context.overlaySceneX[1], context.overlaySceneX[3], context.overlaySceneY[0], context.overlaySceneY[1], context.overlaySceneY[3], context.overlaySceneZ[0], context.overlaySceneZ[1], context.overlaySceneZ[3], o.triangleTextureIndex[t]);
 					} else {
-						Graphics3D.fillTexturedTriangle(y0, y1, y2, x0, x1, x2, o.triangleColorA[t], o.triangleColorB[t], o.triangleColorC[t], TileOverlay.vertexSceneX[a], TileOverlay.vertexSceneX[b], TileOverlay.vertexSceneX[c], TileOverlay.vertexSceneY[a], TileOverlay.vertexSceneY[b], TileOverlay.vertexSceneY[c], TileOverlay.vertexSceneZ[a], TileOverlay.vertexSceneZ[b], TileOverlay.vertexSceneZ[c], o.triangleTextureIndex[t]);
+						context.fillTexturedTriangle(y0, y1, y2, x0, x1, x2, o.triangleColorA[t], o.triangleColorB[t], o.triangleColorC[t], context.overlaySceneX[a], context.overlaySceneX[b], context.overlaySceneX[c], context.overlaySceneY[a], context.overlaySceneY[b], context.overlaySceneY[c], context.overlaySceneZ[a], context.overlaySceneZ[b], context.overlaySceneZ[c], o.triangleTextureIndex[t]);
 					}
 				} else {
 					int hsl = TEXTURE_HSL[o.triangleTextureIndex[t]];
-					Graphics3D.fillShadedTriangle(x0, y0, x1, y1, x2, y2, adjustHSLLightness(hsl, o.triangleColorA[t]), adjustHSLLightness(hsl, o.triangleColorB[t]), adjustHSLLightness(hsl, o.triangleColorC[t]));
+					context.fillShadedTriangle(x0, y0, x1, y1, x2, y2, adjustHSLLightness(hsl, o.triangleColorA[t]), adjustHSLLightness(hsl, o.triangleColorB[t]), adjustHSLLightness(hsl, o.triangleColorC[t]));
 				}
 			}
 		}
@@ -2190,7 +2750,7 @@ public final class SceneGraph {
 					boolean visible = false;
 
 					while (minTileZ <= maxTileZ) {
-						if (visibilityMap[tileX][minTileZ++]) {
+						if (isVisible(visibilityMap, tileX, minTileZ++)) {
 							visible = true;
 							break;
 						}
@@ -2234,7 +2794,7 @@ public final class SceneGraph {
 
 					boolean visible = false;
 					while (minTileX <= maxTileX) {
-						if (visibilityMap[minTileX++][tileZ]) {
+						if (isVisible(visibilityMap, minTileX++, tileZ)) {
 							visible = true;
 							break;
 						}
@@ -2294,7 +2854,7 @@ public final class SceneGraph {
 						LOOP:
 						for (int x = minTileX; x <= maxTileX; x++) {
 							for (int z = minTileZ; z <= maxTileZ; z++) {
-								if (visibilityMap[x][z]) {
+								if (isVisible(visibilityMap, x, z)) {
 									visible = true;
 									break LOOP;
 								}
@@ -2318,11 +2878,11 @@ public final class SceneGraph {
 	private boolean isTileOccluded(int plane, int tileX, int tileZ) {
 		int cycle = levelTileCycle[plane][tileX][tileZ];
 
-		if (cycle == -SceneGraph.cycle) {
+		if (cycle == -this.cycle) {
 			return false;
 		}
 
-		if (cycle == SceneGraph.cycle) {
+		if (cycle == this.cycle) {
 			return true;
 		}
 
@@ -2330,11 +2890,11 @@ public final class SceneGraph {
 		int sceneZ = tileZ << 7;
 
 		if (isOccluded(sceneX + 1, heightmap[plane][tileX][tileZ], sceneZ + 1) && isOccluded(sceneX + 128 - 1, heightmap[plane][tileX + 1][tileZ], sceneZ + 1) && isOccluded(sceneX + 128 - 1, heightmap[plane][tileX + 1][tileZ + 1], sceneZ + 128 - 1) && isOccluded(sceneX + 1, heightmap[plane][tileX][tileZ + 1], sceneZ + 128 - 1)) {
-			levelTileCycle[plane][tileX][tileZ] = SceneGraph.cycle;
+			levelTileCycle[plane][tileX][tileZ] = this.cycle;
 			return true;
 		}
 
-		levelTileCycle[plane][tileX][tileZ] = -SceneGraph.cycle;
+		levelTileCycle[plane][tileX][tileZ] = -this.cycle;
 		return false;
 	}
 
@@ -2599,4 +3159,109 @@ public final class SceneGraph {
 		}
 		return false;
 	}
+
+	/**
+	 * A model whose normals are merged with its neighbours', as the serial walk in
+	 * {@link #applyLighting(int, int, int, int, int)} found it.
+	 */
+	private static final class LightingStep {
+
+		static final int WALL = 0;
+		static final int LOCATION = 1;
+		static final int GROUND_DECORATION = 2;
+
+		final int type;
+		final Model model;
+		Model model2;
+		final int tileX;
+		final int tileZ;
+		final int plane;
+		final int sizeX;
+		final int sizeZ;
+
+		/**
+		 * How many models had been lit when the serial walk reached this step.
+		 */
+		final int horizon;
+
+		LightingStep(int type, Model model, int tileX, int tileZ, int plane, int sizeX, int sizeZ, int horizon) {
+			this.type = type;
+			this.model = model;
+			this.tileX = tileX;
+			this.tileZ = tileZ;
+			this.plane = plane;
+			this.sizeX = sizeX;
+			this.sizeZ = sizeZ;
+			this.horizon = horizon;
+		}
+	}
+
+	/**
+	 * The state one stripe of {@link LightingStep}s merges with.
+	 */
+	/**
+	 * What a model was before its first merge, so {@link #relight} can merge it again.
+	 */
+	private static final class UnlitModel {
+
+		final Normal[] normals;
+		final int[] triangleInfo;
+		final int[] triangleColor;
+
+		UnlitModel(Model m) {
+			normals = m.unmodifiedNormals;
+			triangleInfo = m.triangleInfo != null ? m.triangleInfo.clone() : null;
+			triangleColor = m.unmodifiedTriangleColor;
+		}
+
+		/**
+		 * Gives a model back its normals from before merging, so it can be merged with.
+		 *
+		 * @param m the model.
+		 */
+		void restoreNormals(Model m) {
+			m.unmodifiedNormals = normals;
+			m.normals = new Normal[normals.length];
+
+			for (int v = 0; v < normals.length; v++) {
+				Normal n = m.normals[v] = new Normal();
+				n.x = normals[v].x;
+				n.y = normals[v].y;
+				n.z = normals[v].z;
+				n.magnitude = normals[v].magnitude;
+			}
+		}
+
+		/**
+		 * Puts a model back as it was before merging, so it can be merged and lit again.
+		 *
+		 * @param m the model.
+		 */
+		void restore(Model m) {
+			restoreNormals(m);
+			m.unmodifiedTriangleColor = triangleColor;
+
+			if (triangleInfo != null) {
+				System.arraycopy(triangleInfo, 0, m.triangleInfo, 0, triangleInfo.length);
+			}
+		}
+	}
+
+	private static final class NormalMerge {
+
+		final int[] vertexA = new int[10000];
+		final int[] vertexB = new int[10000];
+		int index;
+		int horizon;
+
+		/**
+		 * Returns whether a model has normals and had not been lit yet at the current step.
+		 *
+		 * @param m the model.
+		 * @return true if it can be merged with.
+		 */
+		boolean isUnlit(Model m) {
+			return m != null && m.normals != null && (m.lightOrder < 0 || m.lightOrder >= horizon);
+		}
+	}
 }
@@ -4,6 +4,7 @@ import java.applet.*;
 import java.awt.*;
 import java.io.*;
 import java.net.*;
+import java.util.concurrent.*;
 import java.util.logging.*;
 import java.util.zip.*;
 import javax.swing.*;
@@ -21,10 +22,6 @@ public final class Signlink implements Runnable {
 	private static int threadreqpri = 1;
 	private static Runnable threadreq = null;
 	private static String dnsreq = null;
-	private static String loadreq = null;
-	private static byte[] loadbuf = null;
-	private static String savereq = null;
-	private static byte[] savebuf = null;
 	private static String urlreq = null;
 	private static DataInputStream urlstream = null;
 	public static String midi = null;
@@ -33,6 +30,16 @@ public final class Signlink implements Runnable {
 	public static int looprate = 100;
 	public static File cacheDirectory;
 
+	/**
+	 * Runs file loads and saves. Unlike the other requests these don't wait for the signlink thread to poll them, and
+	 * any number may be in flight at once.
+	 */
+	private static final ExecutorService io = Executors.newFixedThreadPool(4, r -> {
+		Thread t = new Thread(r, "signlink-io");
+		t.setDaemon(true);
+		return t;
+	});
+
 	static {
 		// default it
 		cacheDirectory = findCachePath();
@@ -101,41 +108,6 @@ public final class Signlink implements Runnable {
 					dnsreq = null;
 				}
 
-				if (loadreq != null) {
-					loadbuf = null;
-
-					// attempt to load file relative to classpath (includes within .jar)
-					try (InputStream is = ClassLoader.getSystemResourceAsStream(loadreq)) {
-						loadbuf = new byte[is.available()];
-						is.read(loadbuf, 0, loadbuf.length);
-					} catch (Exception e) {
-						// ignore: logger.log(Level.WARNING, "Error loading file as stream", e);
-					}
-
-					File f = new File(path, loadreq);
-
-					if (f.exists()) {
-						int i = (int) f.length();
-						loadbuf = new byte[i];
-						try (DataInputStream dis = new DataInputStream(new FileInputStream(f))) {
-							dis.readFully(loadbuf, 0, i);
-						} catch (Exception e) {
-							logger.log(Level.WARNING, "Error loading file", e);
-						}
-					}
-
-					loadreq = null;
-				}
-
-				if (savereq != null) {
-					try (FileOutputStream fos = new FileOutputStream(new File(path, savereq))) {
-						fos.write(savebuf, 0, savebuf.length);
-					} catch (Exception e) {
-						logger.log(Level.WARNING, "Error saving file", e);
-					}
-					savereq = null;
-				}
-
 				if (urlreq != null) {
 					try {
 						urlstream = new DataInputStream(new URL(mainapp.getCodeBase(), urlreq).openStream());
@@ -245,39 +217,69 @@ public final class Signlink implements Runnable {
 		return true;
 	}
 
+	/**
+	 * Loads a file relative to the classpath (including within the .jar), or from the cache directory if it exists
+	 * there.
+	 *
+	 * @param s the file name.
+	 * @return a future completed with the file data, or with {@code null} if it could not be loaded.
+	 */
+	public static final CompletableFuture<byte[]> loadFileAsync(String s) {
+		return CompletableFuture.supplyAsync(() -> readFile(s), io);
+	}
+
+	/**
+	 * @param s the file name, relative to the cache directory.
+	 * @param src the data to write.
+	 * @return a future completed once the file has been written, or has failed to.
+	 */
+	public static final CompletableFuture<Void> saveFileAsync(String s, byte[] src) {
+		return CompletableFuture.runAsync(() -> writeFile(s, src), io);
+	}
+
 	public static final byte[] loadFile(String s) {
 		if (!active) {
 			return null;
 		}
+		return loadFileAsync(s).join();
+	}
 
-		if (loadreq != null) {
-			return null;
+	public static final void saveFile(String string, byte[] is) {
+		if (active && is.length <= 2000000) {
+			saveFileAsync(string, is).join();
 		}
+	}
 
-		// TODO: loadreq = String.valueOf(gethash(s));
-		loadreq = s;
-		while (loadreq != null) {
-			try {
-				Thread.sleep(1L);
-			} catch (Exception exception) {
-				/* empty */
+	private static byte[] readFile(String s) {
+		byte[] data = null;
+
+		// attempt to load file relative to classpath (includes within .jar)
+		try (InputStream is = ClassLoader.getSystemResourceAsStream(s)) {
+			data = new byte[is.available()];
+			is.read(data, 0, data.length);
+		} catch (Exception e) {
+			// ignore: logger.log(Level.WARNING, "Error loading file as stream", e);
+		}
+
+		File f = new File(findCachePath(), s);
+
+		if (f.exists()) {
+			int i = (int) f.length();
+			data = new byte[i];
+			try (DataInputStream dis = new DataInputStream(new FileInputStream(f))) {
+				dis.readFully(data, 0, i);
+			} catch (Exception e) {
+				logger.log(Level.WARNING, "Error loading file", e);
 			}
 		}
-		return loadbuf;
+		return data;
 	}
 
-	public static final void saveFile(String string, byte[] is) {
-		if (active && savereq == null && is.length <= 2000000) {
-			savebuf = is;
-			savereq = String.valueOf(StringUtil.toBase37(string));
-			savereq = string;
-			while (savereq != null) {
-				try {
-					Thread.sleep(1L);
-				} catch (Exception e) {
-					/* empty */
-				}
-			}
+	private static void writeFile(String s, byte[] src) {
+		try (FileOutputStream fos = new FileOutputStream(new File(findCachePath(), s))) {
+			fos.write(src, 0, src.length);
+		} catch (Exception e) {
+			logger.log(Level.WARNING, "Error saving file", e);
 		}
 	}
 
@@ -305,7 +307,7 @@ public final class Signlink implements Runnable {
 		threadreq = runnable;
 	}
 
-	public static final DataInputStream openURL(String string) throws IOException {
+	public static final synchronized DataInputStream openURL(String string) throws IOException {
 		urlreq = string;
 		while (urlreq != null) {
 			try {
@@ -57,9 +57,9 @@ public class Sprite extends Graphics2D {
 	}
 
 	public Sprite(Archive archive, String name, int index) {
-		Buffer dat = new Buffer(archive.get(name + ".dat", null));
-		Buffer idx = new Buffer(archive.get("index.dat", null));
-		idx.position = dat.readUShort();
+		Buffer dat = archive.slice(name + ".dat");
+		Buffer idx = archive.slice(Archive.INDEX_HASH);
+		idx.position = idx.offset + dat.readUShort();
 
 		clipWidth = idx.readUShort();
 		clipHeight = idx.readUShort();
@@ -0,0 +1,200 @@
+package com.runescape;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.logging.*;
+
+/**
+ * Records the wall time, CPU time and bytes allocated by each phase of startup. CPU time and allocations are measured
+ * on the thread that ran the phase, so phases run by the archive loaders are accounted to their own thread.
+ *
+ * @author Dane
+ */
+public final class StartupProfiler {
+
+	private static final Logger logger = Logger.getLogger(StartupProfiler.class.getName());
+
+	/**
+	 * If set, {@link #finish()} also writes the phases as JSON to the file this system property names.
+	 */
+	public static final String JSON_PROPERTY = "rs.startup.profile";
+
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private static final List<Phase> phases = new ArrayList<>();
+	private static long startTime = System.nanoTime();
+
+	/**
+	 * The body of a phase timed by {@link #time(String, Action)}.
+	 *
+	 * @param <E> the exception the body may throw.
+	 */
+	public interface Action<E extends Exception> {
+
+		void run() throws E;
+	}
+
+	public static final class Phase {
+
+		public final String name;
+		public final String thread;
+		private final long wallStart;
+		private final long cpuStart;
+		private final long allocStart;
+		public long wallTime;
+		public long cpuTime;
+		public long allocated;
+
+		private Phase(String name) {
+			this.name = name;
+			this.thread = Thread.currentThread().getName();
+			this.wallStart = System.nanoTime();
+			this.cpuStart = getCpuTime();
+			this.allocStart = getAllocatedBytes();
+		}
+
+		/**
+		 * Ends the phase and records it.
+		 */
+		public void end() {
+			wallTime = System.nanoTime() - wallStart;
+			cpuTime = cpuStart < 0 ? -1 : getCpuTime() - cpuStart;
+			allocated = allocStart < 0 ? -1 : getAllocatedBytes() - allocStart;
+
+			synchronized (phases) {
+				phases.add(this);
+			}
+		}
+	}
+
+	/**
+	 * Clears any recorded phases and restarts the total startup clock.
+	 */
+	public static void reset() {
+		synchronized (phases) {
+			phases.clear();
+			startTime = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Starts a phase on the current thread. It must be ended in a <code>finally</code> block so the phase ends however
+	 * it's left; {@link #time(String, Action)} does this for bodies that don't return anything.
+	 *
+	 * @param name the phase name.
+	 * @return the phase.
+	 */
+	public static Phase begin(String name) {
+		return new Phase(name);
+	}
+
+	/**
+	 * Runs a phase on the current thread.
+	 *
+	 * @param <E> the exception the body may throw.
+	 * @param name the phase name.
+	 * @param action the body of the phase.
+	 * @throws E if the body throws.
+	 */
+	public static <E extends Exception> void time(String name, Action<E> action) throws E {
+		Phase p = begin(name);
+
+		try {
+			action.run();
+		} finally {
+			p.end();
+		}
+	}
+
+	/**
+	 * Logs the table of phases and writes them as JSON if {@link #JSON_PROPERTY} is set.
+	 */
+	public static void finish() {
+		long total = System.nanoTime() - startTime;
+		List<Phase> list;
+
+		synchronized (phases) {
+			list = new ArrayList<>(phases);
+		}
+
+		logger.log(Level.INFO, "Startup profile:\n{0}", getTable(list, total));
+
+		String path = System.getProperty(JSON_PROPERTY);
+
+		if (path != null) {
+			try (Writer w = new FileWriter(path)) {
+				w.write(getJSON(list, total));
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Error writing startup profile", e);
+			}
+		}
+	}
+
+	public static String getTable(List<Phase> list, long total) {
+		int width = 5;
+		for (Phase p : list) {
+			width = Math.max(width, p.name.length());
+		}
+
+		StringBuilder b = new StringBuilder();
+		String format = "%-" + width + "s  %-16s %10s %10s %12s%n";
+
+		b.append(String.format(format, "Phase", "Thread", "Wall ms", "CPU ms", "Alloc KB"));
+
+		for (Phase p : list) {
+			b.append(String.format(format, p.name, p.thread, p.wallTime / 1000000, p.cpuTime < 0 ? "-" : p.cpuTime / 1000000, p.allocated < 0 ? "-" : p.allocated / 1024));
+		}
+
+		b.append(String.format(format, "Total", "", total / 1000000, "", ""));
+		return b.toString();
+	}
+
+	public static String getJSON(List<Phase> list, long total) {
+		StringBuilder b = new StringBuilder();
+		b.append("{\"totalNanos\":").append(total).append(",\"phases\":[");
+
+		for (int n = 0; n < list.size(); n++) {
+			Phase p = list.get(n);
+
+			if (n > 0) {
+				b.append(',');
+			}
+
+			b.append("{\"name\":\"").append(escape(p.name));
+			b.append("\",\"thread\":\"").append(escape(p.thread));
+			b.append("\",\"wallNanos\":").append(p.wallTime);
+			b.append(",\"cpuNanos\":").append(p.cpuTime);
+			b.append(",\"allocatedBytes\":").append(p.allocated).append('}');
+		}
+
+		return b.append("]}").toString();
+	}
+
+	private static String escape(String s) {
+		return s.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	/**
+	 * @return the CPU time of the current thread in nanoseconds, or -1 if it can't be measured.
+	 */
+	private static long getCpuTime() {
+		if (!threads.isCurrentThreadCpuTimeSupported()) {
+			return -1;
+		}
+		return threads.getCurrentThreadCpuTime();
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread, or -1 if it can't be measured.
+	 */
+	private static long getAllocatedBytes() {
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) threads;
+
+			if (t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled()) {
+				return t.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+}
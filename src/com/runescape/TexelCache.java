@@ -0,0 +1,120 @@
+package com.runescape;
+
+/**
+ * The unpacked texels of the textures one {@link RenderContext} has drawn with. Each context owns its own, so a buffer
+ * is only ever recycled by the context that may still have triangles queued against it.
+ *
+ * A buffer is stale once {@link Graphics3D#updateTexture(int)} has been called for its texture, and is unpacked again
+ * the next time it's asked for.
+ *
+ * @author Dane
+ */
+public final class TexelCache {
+
+	/**
+	 * The number of buffers a cache holds when none is set with {@link #setup(int)}.
+	 */
+	public static final int DEFAULT_SIZE = 20;
+
+	/**
+	 * The unpacked texels of each texture, or null.
+	 */
+	public int[][] buffers = new int[50][];
+
+	/**
+	 * The {@link #cycle} each texture was last asked for on.
+	 */
+	public int[] cycles = new int[50];
+
+	/**
+	 * The {@link Graphics3D#getTextureRevision(int)} each buffer was unpacked at.
+	 */
+	public int[] revisions = new int[50];
+
+	/**
+	 * Will be true if a texture contains a pixel with the value 0x00000000.
+	 */
+	public boolean[] transparent = new boolean[50];
+
+	public int cycle;
+
+	/**
+	 * The most buffers this cache allocates before it recycles the least recently used one.
+	 */
+	private int size = DEFAULT_SIZE;
+	private int allocated;
+
+	/**
+	 * Sets how many buffers this cache may hold. Has no effect while it holds any.
+	 *
+	 * @param size the buffer count.
+	 */
+	public void setup(int size) {
+		if (allocated == 0) {
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Drops every buffer. The context must not have any triangles queued.
+	 */
+	public void clear() {
+		for (int n = 0; n < 50; n++) {
+			buffers[n] = null;
+		}
+		allocated = 0;
+	}
+
+	/**
+	 * Returns whether the texels of a texture are unpacked and up to date, meaning {@link #get(int)} won't write to
+	 * any buffer.
+	 *
+	 * @param textureIndex the texture index.
+	 * @return true if cached.
+	 */
+	public boolean contains(int textureIndex) {
+		return buffers[textureIndex] != null && revisions[textureIndex] == Graphics3D.getTextureRevision(textureIndex);
+	}
+
+	/**
+	 * Returns the texels of a texture, unpacking it into its stale buffer, a new one or the least recently used buffer if it isn't
+	 * cached. The context must have drawn every triangle using the replaced buffer first.
+	 *
+	 * @param textureIndex the texture index.
+	 * @return the INT24_RGB texels.
+	 */
+	public int[] get(int textureIndex) {
+		cycles[textureIndex] = cycle++;
+
+		int revision = Graphics3D.getTextureRevision(textureIndex);
+		int[] buffer = buffers[textureIndex];
+
+		if (buffer != null) {
+			if (revisions[textureIndex] == revision) {
+				return buffer;
+			}
+		} else if (allocated < size) {
+			buffer = new int[Graphics3D.lowmemory ? (128 * 128) : (256 * 256)];
+			allocated++;
+		} else {
+			// select the oldest pushed buffer
+			int oldestCycle = 0;
+			int index = -1;
+
+			for (int n = 0; n < 50; n++) {
+				if (buffers[n] != null && (cycles[n] < oldestCycle || index == -1)) {
+					oldestCycle = cycles[n];
+					index = n;
+				}
+			}
+
+			buffer = buffers[index];
+			buffers[index] = null;
+		}
+
+		transparent[textureIndex] = Graphics3D.unpackTexels(textureIndex, buffer);
+		revisions[textureIndex] = revision;
+		buffers[textureIndex] = buffer;
+		return buffer;
+	}
+}
@@ -19,12 +19,6 @@ public final class TileOverlay {
 	public int underlayRGB;
 	public int overlayRGB;
 
-	static int[] tmpScreenX = new int[6];
-	static int[] tmpScreenY = new int[6];
-	static int[] vertexSceneX = new int[6];
-	static int[] vertexSceneY = new int[6];
-	static int[] vertexSceneZ = new int[6];
-
 	// @formatter:off
 	public static final int[][] SHAPE_VERTICES = {
 		{1, 3, 5, 7},
@@ -50,11 +50,11 @@ public class Widget {
 		spriteCache = new LinkedList(50000);
 		modelCache = new LinkedList(50000);
 
-		Buffer b = new Buffer(interfaces.get("data", null));
+		Buffer b = interfaces.slice("data");
 		instances = new Widget[b.readUShort()];
 
 		int parent = -1;
-		while (b.position < b.data.length) {
+		while (b.position < b.offset + b.length) {
 			int index = b.readUShort();
 
 			if (index == 65535) {
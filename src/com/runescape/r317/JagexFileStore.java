@@ -1,22 +1,119 @@
 package com.runescape.r317;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
 
 public class JagexFileStore {
 
-	private static byte[] buffer = new byte[520];
+	private final byte[] buffer = new byte[520];
 	public RandomAccessFile data;
 	public RandomAccessFile index;
 	public int store;
 
+	private MappedByteBuffer mappedData;
+	private MappedByteBuffer mappedIndex;
+
 	public JagexFileStore(RandomAccessFile data, RandomAccessFile index, int store) {
 		this.store = store;
 		this.data = data;
 		this.index = index;
 	}
 
+	/**
+	 * Maps the data and index files into memory. Once mapped, {@link #read(int)} walks the sector chain straight out of
+	 * the mapped buffers without taking a lock, so any number of threads may read different files at once.
+	 *
+	 * @throws IOException if either file could not be mapped.
+	 */
+	public void map() throws IOException {
+		mappedData = data.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, data.length());
+		mappedIndex = index.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, index.length());
+	}
+
+	public boolean isMapped() {
+		return mappedData != null;
+	}
+
+	/**
+	 * @return the number of entries in the index file.
+	 * @throws IOException if the index length could not be read.
+	 */
+	public int getFileCount() throws IOException {
+		if (mappedIndex != null) {
+			return mappedIndex.capacity() / 6;
+		}
+		return (int) (index.length() / 6);
+	}
+
+	public byte[] read(int i) {
+		if (mappedData != null) {
+			return readMapped(i);
+		}
+
+		synchronized (this) {
+			return readFile(i);
+		}
+	}
+
+	private byte[] readMapped(int file) {
+		if (file < 0 || (file + 1) * 6 > mappedIndex.capacity()) {
+			return null;
+		}
+
+		int pos = file * 6;
+		int size = ((mappedIndex.get(pos) & 0xff) << 16) + ((mappedIndex.get(pos + 1) & 0xff) << 8) + (mappedIndex.get(pos + 2) & 0xff);
+		int sector = ((mappedIndex.get(pos + 3) & 0xff) << 16) + ((mappedIndex.get(pos + 4) & 0xff) << 8) + (mappedIndex.get(pos + 5) & 0xff);
+		int sectorCount = mappedData.capacity() / 520;
+
+		if (sector <= 0 || sector > sectorCount) {
+			return null;
+		}
+
+		// duplicates share content but not position, so concurrent readers don't step on each other.
+		ByteBuffer src = mappedData.duplicate();
+		byte[] dst = new byte[size];
+		int off = 0;
+
+		for (int part = 0; off < size; part++) {
+			if (sector == 0) {
+				return null;
+			}
+
+			int len = size - off;
+			if (len > 512) {
+				len = 512;
+			}
+
+			pos = sector * 520;
+
+			if (pos + 8 + len > src.capacity()) {
+				return null;
+			}
+
+			int sectorFile = ((src.get(pos) & 0xff) << 8) + (src.get(pos + 1) & 0xff);
+			int sectorPart = ((src.get(pos + 2) & 0xff) << 8) + (src.get(pos + 3) & 0xff);
+			int nextSector = ((src.get(pos + 4) & 0xff) << 16) + ((src.get(pos + 5) & 0xff) << 8) + (src.get(pos + 6) & 0xff);
+			int sectorStore = src.get(pos + 7) & 0xff;
+
+			if (sectorFile != file || sectorPart != part || sectorStore != store) {
+				return null;
+			}
+
+			if (nextSector < 0 || nextSector > sectorCount) {
+				return null;
+			}
+
+			src.position(pos + 8);
+			src.get(dst, off, len);
+			off += len;
+			sector = nextSector;
+		}
+		return dst;
+	}
+
 	//laziness drove me not to rename
-	public synchronized byte[] read(int i) {
+	private byte[] readFile(int i) {
 		try {
 			try {
 				index.seek(i * 6);
@@ -36,7 +133,9 @@ public class JagexFileStore {
 					return null;
 				}
 
-				if (sector <= 0 || sector > data.length() / 520L) {
+				long sectorCount = data.length() / 520L;
+
+				if (sector <= 0 || sector > sectorCount) {
 					return null;
 				}
 
@@ -76,7 +175,7 @@ public class JagexFileStore {
 						return null;
 					}
 
-					if (nextSector < 0 || nextSector > data.length() / 520L) {
+					if (nextSector < 0 || nextSector > sectorCount) {
 						return null;
 					}
 					for (int k3 = 0; k3 < i2; k3++) {
@@ -2,20 +2,55 @@ package com.runescape.r317;
 
 import com.runescape.*;
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.zip.*;
 
 public class ModelExtension {
 
+	/**
+	 * The largest inflated model accepted. The biggest 317 models are well under 100kb, so a GZIP trailer claiming
+	 * more than this is corrupt.
+	 */
+	private static final int MAX_INFLATED_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * Deflate can't compress better than about 1032:1, so a trailer claiming more than this many times the compressed
+	 * length is corrupt.
+	 */
+	private static final int MAX_INFLATE_RATIO = 1032;
+
 	static ModelExtensionInfo[] headers = new ModelExtensionInfo[2000]; // auto expands
 	static JagexFileStore store;
+	static ModelCache cache;
 	public static boolean loaded = false;
 
+	/**
+	 * Switches {@link #unpack()} to lazy mode. Instead of decoding every header at startup, headers are decoded the
+	 * first time {@link #get(int)} asks for them and kept in an LRU cache bounded by the size of their data. Evicted
+	 * headers are read back from the file store on their next request.
+	 *
+	 * @param maxWeight the maximum number of bytes of model data to keep cached.
+	 */
+	public static final void setLazy(int maxWeight) {
+		cache = new ModelCache(maxWeight);
+	}
+
+	public static final boolean isLazy() {
+		return cache != null;
+	}
+
 	public static final Model get(int index) {
-		if (headers == null) {
-			return null;
-		}
+		ModelExtensionInfo h;
 
-		ModelExtensionInfo h = headers[index];
+		if (cache != null) {
+			h = getLazy(index);
+		} else {
+			if (headers == null) {
+				return null;
+			}
+			h = headers[index];
+		}
 
 		if (h == null) {
 			// fall back
@@ -213,31 +248,58 @@ public class ModelExtension {
 		return m;
 	}
 
-	public static final void unpack() {
+	/**
+	 * Reads and decodes every model header in the model store. The index range is split across the common fork-join
+	 * pool and each worker keeps its own {@link Inflater} for the whole of its range.
+	 *
+	 * @return the unpack statistics, or {@code null} if the store could not be opened.
+	 */
+	public static final ModelUnpackResult unpack() {
 		try {
 			RandomAccessFile data = new RandomAccessFile(Signlink.getFile("main_file_cache.dat"), "r");
 			RandomAccessFile index = new RandomAccessFile(Signlink.getFile("main_file_cache.idx1"), "r");
 
 			store = new JagexFileStore(data, index, 2);
+			store.map();
 
-			System.out.println("Model indices: " + store.index.length() / 6);
+			ModelUnpackResult result = new ModelUnpackResult();
+			result.count = store.getFileCount();
 
-			int failed = 0;
-			for (int n = 0; n < store.index.length() / 6; n++) {
-				if (!unpack(n, store.read(n))) {
-					failed++;
-				}
+			if (cache != null) {
+				cache.clear();
+				result.lazy = true;
+				loaded = true;
+				return result;
 			}
 
-			System.out.println(failed + " models failed to load");
+			long start = System.nanoTime();
 
+			// presized so workers never have to grow it underneath each other
+			if (headers.length < result.count) {
+				headers = new ModelExtensionInfo[result.count];
+			}
+
+			ForkJoinPool.commonPool().invoke(new UnpackTask(result, 0, result.count));
+
+			result.wallTime = System.nanoTime() - start;
 			loaded = true;
+			return result;
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
+		return null;
 	}
 
 	public static final boolean unpack(int index, byte[] src) {
+		Inflater inflater = new Inflater(true);
+		try {
+			return unpack(index, src, inflater);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private static boolean unpack(int index, byte[] src, Inflater inflater) {
 		if (index >= headers.length) {
 			ModelExtensionInfo[] h = headers;
 			headers = new ModelExtensionInfo[index + 100];
@@ -245,31 +307,111 @@ public class ModelExtension {
 		}
 
 		if (src == null) {
-			ModelExtensionInfo h = headers[index] = new ModelExtensionInfo();
-			h.vertexCount = 0;
-			h.triangleCount = 0;
-			h.texturedCount = 0;
+			headers[index] = new ModelExtensionInfo();
+			return false;
+		}
+
+		src = inflate(src, inflater);
+
+		if (src == null) {
 			return false;
 		}
 
+		headers[index] = decode(src);
+		return true;
+	}
+
+	private static ModelExtensionInfo getLazy(int index) {
+		ModelExtensionInfo h = cache.get(index);
+
+		if (h != null) {
+			return h;
+		}
+
+		byte[] src = store.read(index);
+
+		if (src == null) {
+			h = new ModelExtensionInfo();
+		} else {
+			Inflater inflater = new Inflater(true);
+			try {
+				src = inflate(src, inflater);
+			} finally {
+				inflater.end();
+			}
+
+			if (src == null) {
+				return null;
+			}
+
+			h = decode(src);
+		}
+
+		cache.put(index, h);
+		return h;
+	}
+
+	/**
+	 * Inflates a GZIP member using the provided raw inflater. The uncompressed size is taken from the GZIP trailer so
+	 * the output is allocated once at its exact length. A size no model could have is rejected before allocating.
+	 *
+	 * @param src the GZIP data.
+	 * @param inflater a raw ({@code nowrap}) inflater.
+	 * @return the inflated data, or {@code null} if it was malformed.
+	 */
+	private static byte[] inflate(byte[] src, Inflater inflater) {
 		try {
-			byte[] buffer = new byte[1024];
-			int read;
+			if (src.length < 18 || (src[0] & 0xff) != 0x1f || (src[1] & 0xff) != 0x8b || src[2] != 8) {
+				return null;
+			}
+
+			int flags = src[3] & 0xff;
+			int pos = 10;
 
-			try (ByteArrayOutputStream baos = new ByteArrayOutputStream(); GZIPInputStream gzin = new GZIPInputStream(new ByteArrayInputStream(src))) {
-				while ((read = gzin.read(buffer)) != -1) {
-					baos.write(buffer, 0, read);
+			if ((flags & 4) != 0) {
+				pos += 2 + ((src[pos] & 0xff) | (src[pos + 1] & 0xff) << 8);
+			}
+
+			if ((flags & 8) != 0) {
+				while (src[pos++] != 0) {
 				}
-				src = baos.toByteArray();
 			}
-		} catch (Exception e) {
-			return false;
+
+			if ((flags & 16) != 0) {
+				while (src[pos++] != 0) {
+				}
+			}
+
+			if ((flags & 2) != 0) {
+				pos += 2;
+			}
+
+			int end = src.length - 8;
+			int size = (src[end + 4] & 0xff) | (src[end + 5] & 0xff) << 8 | (src[end + 6] & 0xff) << 16 | (src[end + 7] & 0xff) << 24;
+
+			if (size < 0 || size > MAX_INFLATED_SIZE || (long) size > (long) (end - pos) * MAX_INFLATE_RATIO) {
+				return null;
+			}
+
+			inflater.reset();
+			inflater.setInput(src, pos, end - pos);
+
+			byte[] dst = new byte[size];
+
+			if (inflater.inflate(dst) != size || !inflater.finished()) {
+				return null;
+			}
+			return dst;
+		} catch (DataFormatException | RuntimeException e) {
+			return null;
 		}
+	}
 
+	private static final ModelExtensionInfo decode(byte[] src) {
 		Buffer b = new Buffer(src);
 		b.position = src.length - 18;
 
-		ModelExtensionInfo h = headers[index] = new ModelExtensionInfo();
+		ModelExtensionInfo h = new ModelExtensionInfo();
 		h.data = src;
 		h.vertexCount = b.readUShort();
 		h.triangleCount = b.readUShort();
@@ -350,7 +492,121 @@ public class ModelExtension {
 
 		h.vertexZDataOffset = i;
 		i += zDataLen;
-		return true;
+		return h;
+	}
+
+	/**
+	 * A least recently used cache of decoded headers, bounded by the total length of their data rather than by count.
+	 */
+	static class ModelCache {
+
+		private final LinkedHashMap<Integer, ModelExtensionInfo> map = new LinkedHashMap<>(256, 0.75f, true);
+		private final int maxWeight;
+		private int weight;
+
+		ModelCache(int maxWeight) {
+			this.maxWeight = maxWeight;
+		}
+
+		synchronized ModelExtensionInfo get(int index) {
+			return map.get(index);
+		}
+
+		synchronized void put(int index, ModelExtensionInfo h) {
+			ModelExtensionInfo old = map.put(index, h);
+
+			if (old != null) {
+				weight -= weigh(old);
+			}
+
+			weight += weigh(h);
+
+			Iterator<ModelExtensionInfo> it = map.values().iterator();
+			while (weight > maxWeight && it.hasNext()) {
+				ModelExtensionInfo eldest = it.next();
+
+				// never evict what we've just put in, even if it alone is over budget
+				if (eldest == h) {
+					break;
+				}
+
+				weight -= weigh(eldest);
+				it.remove();
+			}
+		}
+
+		synchronized void clear() {
+			map.clear();
+			weight = 0;
+		}
+
+		private static int weigh(ModelExtensionInfo h) {
+			return h.data != null ? h.data.length : 0;
+		}
+	}
+
+	private static class UnpackTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -6514371203839046357L;
+		private static final int THRESHOLD = 256;
+
+		private final ModelUnpackResult result;
+		private final int start;
+		private final int end;
+
+		UnpackTask(ModelUnpackResult result, int start, int end) {
+			this.result = result;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start > THRESHOLD) {
+				int mid = (start + end) >>> 1;
+				invokeAll(new UnpackTask(result, start, mid), new UnpackTask(result, mid, end));
+				return;
+			}
+
+			Inflater inflater = new Inflater(true);
+			int failed = 0;
+			long readTime = 0;
+			long inflateTime = 0;
+			long parseTime = 0;
+
+			try {
+				for (int n = start; n < end; n++) {
+					long t0 = System.nanoTime();
+					byte[] src = store.read(n);
+					long t1 = System.nanoTime();
+
+					if (src == null) {
+						headers[n] = new ModelExtensionInfo();
+						failed++;
+						readTime += t1 - t0;
+						continue;
+					}
+
+					src = inflate(src, inflater);
+					long t2 = System.nanoTime();
+
+					if (src == null) {
+						failed++;
+					} else {
+						headers[n] = decode(src);
+					}
+
+					long t3 = System.nanoTime();
+					readTime += t1 - t0;
+					inflateTime += t2 - t1;
+					parseTime += t3 - t2;
+				}
+			} finally {
+				inflater.end();
+			}
+
+			result.add(failed, readTime, inflateTime, parseTime);
+		}
 	}
 
 }
@@ -0,0 +1,38 @@
+package com.runescape.r317;
+
+/**
+ * The outcome of {@link ModelExtension#unpack()}. Stage times are in nanoseconds and are summed across every worker,
+ * so on a multi-core machine they may add up to more than {@link #wallTime}.
+ *
+ * @author Dane
+ */
+public class ModelUnpackResult {
+
+	public int count;
+	public int failed;
+
+	/**
+	 * Whether the store was only mapped for lazy decoding, in which case nothing has been decoded yet.
+	 */
+	public boolean lazy;
+
+	public long readTime;
+	public long inflateTime;
+	public long parseTime;
+	public long wallTime;
+
+	synchronized void add(int failed, long readTime, long inflateTime, long parseTime) {
+		this.failed += failed;
+		this.readTime += readTime;
+		this.inflateTime += inflateTime;
+		this.parseTime += parseTime;
+	}
+
+	@Override
+	public String toString() {
+		if (lazy) {
+			return count + " models mapped, decoded on demand";
+		}
+		return (count - failed) + "/" + count + " models unpacked in " + (wallTime / 1000000) + "ms (read " + (readTime / 1000000) + "ms, inflate " + (inflateTime / 1000000) + "ms, parse " + (parseTime / 1000000) + "ms)";
+	}
+}
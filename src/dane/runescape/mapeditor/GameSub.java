@@ -24,8 +24,11 @@
 package dane.runescape.mapeditor;
 
 import com.runescape.*;
+import com.runescape.r317.*;
 import dane.runescape.mapeditor.event.*;
 import dane.runescape.mapeditor.util.*;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.logging.*;
 
 /**
@@ -38,45 +41,86 @@ public class GameSub extends Game implements MapPanelEventListener {
 
 	private static final Logger logger = Logger.getLogger(GameSub.class.getName());
 
+	/**
+	 * The number of bytes of extended model data kept decoded at once. A session only touches a fraction of the
+	 * models, so they're decoded on demand rather than all at startup.
+	 */
+	private static final int MODEL_CACHE_WEIGHT = 32 * 1024 * 1024;
+
+	/**
+	 * The number of bytes of map square files kept around for the prefetcher. A square is rarely over 20kb.
+	 */
+	private static final int REGION_CACHE_WEIGHT = 4 * 1024 * 1024;
+
 	public OrbitCamera camera;
+	public RegionPrefetcher prefetcher = new RegionPrefetcher(REGION_CACHE_WEIGHT);
+
+	/**
+	 * The scene of the loaded region, kept so edits can rebuild only what they touch.
+	 */
+	public Scene scene;
+
+	/**
+	 * Edits waiting to be applied on the game thread, which is the one drawing the graph.
+	 */
+	private final Queue<Runnable> edits = new ConcurrentLinkedQueue<>();
 
 	public GameSub() {
 		super();
 	}
 
 	@Override
-	public Archive loadArchive(String archiveName, String archiveFile, int crc, int percent) {
-		((GameShell) this).drawProgress("Requesting " + archiveName, percent);
-		return new Archive(Signlink.loadFile(archiveFile));
+	protected byte[] fetchArchive(String archiveName, String archiveFile, int crc, int percent) {
+		// the editor only works from the local cache
+		postProgress("Requesting " + archiveName, percent);
+		return Signlink.loadFile(archiveFile);
 	}
 
 	@Override
-	public void startup() {
-		try {
-			Game.setHighMemory();
+	protected void unpackTitle(Archive title) {
+		loadFonts(title);
+	}
+
+	@Override
+	protected boolean isUnpackingInterfaces() {
+		return false;
+	}
+
+	@Override
+	public void initSceneComponents() {
+		super.initSceneComponents();
+
+		// the editor camera sits still most of the time
+		graph.cacheProjections = true;
 
-			titleArchive = loadArchive("title", "title", 0, 10);
+		// so an edited location's neighbours can be merged with it again
+		graph.keepUnlitModels = true;
+	}
 
-			loadFonts(titleArchive);
+	@Override
+	public void loadModels(Archive models) {
+		ModelExtension.setLazy(MODEL_CACHE_WEIGHT);
+		super.loadModels(models);
+	}
 
-			Archive config = loadArchive("config", "config", archiveCRC[2], 20);
-			Archive media = loadArchive("2d graphics", "media", archiveCRC[4], 40);
-			Archive models = loadArchive("3d graphics", "models", archiveCRC[5], 50);
-			Archive textures = loadArchive("textures", "textures", archiveCRC[6], 60);
+	@Override
+	public void startup() {
+		try {
+			StartupProfiler.reset();
 
-			initSceneComponents();
+			Game.setHighMemory();
+			Graphics3D.setRasterThreads(Runtime.getRuntime().availableProcessors());
 
-			loadMedia(media);
-			loadTextures(textures);
-			loadModels(models);
-			loadConfigs(config);
+			loadArchives();
 
 			drawProgress("Preparing game engine", 95);
 			viewport = new ImageProducer(512, 334);
 			viewportOffsets = Graphics3D.prepareOffsets();
 
-			SceneGraph.init(512, 334, 500, 800);
-			loadRegion(50, 50);
+			StartupProfiler.time("SceneGraph.init", () -> SceneGraph.init(512, 334, 500, 800));
+			StartupProfiler.time("loadRegion", () -> loadRegion(50, 50));
+
+			StartupProfiler.finish();
 		} catch (Exception e) {
 			errorLoading = true;
 			logger.log(Level.SEVERE, "Error starting game", e);
@@ -99,10 +143,12 @@ public class GameSub extends Game implements MapPanelEventListener {
 		mapLocData = new byte[1][];
 		mapIndices = new int[]{(x << 8) | y};
 
-		Signlink.setLoopRate(1);
-		mapLandData[0] = Signlink.loadFile("maps/m" + x + "_" + y);
-		mapLocData[0] = Signlink.loadFile("maps/l" + x + "_" + y);
-		Signlink.setLoopRate(100);
+		RegionPrefetcher.MapSquare square = prefetcher.get(x, y).join();
+		mapLandData[0] = square.land;
+		mapLocData[0] = square.locs;
+
+		// get the neighbours on their way while we build this one
+		prefetcher.prefetchAround(x, y);
 
 		int deltaX = mapBaseX - mapLastBaseX;
 		int deltaY = mapBaseY - mapLastBaseZ;
@@ -111,11 +157,16 @@ public class GameSub extends Game implements MapPanelEventListener {
 
 		sceneState = 2;
 		Scene.builtPlane = currentPlane;
+		this.fireRegionChanging(x, y);
 		createScene();
 	}
 
 	@Override
 	public void update() {
+		for (Runnable edit; (edit = edits.poll()) != null;) {
+			edit.run();
+		}
+
 		updateCross();
 		updateOptionMenu();
 		updateLandscapeClick();
@@ -168,7 +219,7 @@ public class GameSub extends Game implements MapPanelEventListener {
 
 		int topPlane = updateCamera(camera.getCurrentX() >> 7, camera.getCurrentY() >> 7);
 
-		int startCycle = Graphics3D.cycle;
+		int startCycle = RenderContext.getDefault().texels.cycle;
 		Model.allowInput = true;
 		Model.hoverCount = 0;
 		Model.mouseX = mouseX;
@@ -182,8 +233,8 @@ public class GameSub extends Game implements MapPanelEventListener {
 		graph.draw(cameraX, cameraY, cameraZ, cameraPitch, cameraOrbitYaw, topPlane);
 		graph.clearFrameLocs();
 
-		for (int i = 0; i < SceneGraph.activeOccluderCount; i++) {
-			Occluder o = SceneGraph.activeOcludders[i];
+		for (int i = 0; i < graph.activeOccluderCount; i++) {
+			Occluder o = graph.activeOcludders[i];
 
 			setDrawPos(o.minX, o.minY, o.minZ);
 			Graphics2D.fillRect(viewportDrawX - 1, viewportDrawY - 1, 3, 3, 0xFF0000);
@@ -344,10 +395,65 @@ public class GameSub extends Game implements MapPanelEventListener {
 	@Override
 	public Scene createScene() {
 		Scene s = super.createScene();
+		this.scene = s;
 		this.fireSceneCreated(this.currentPlane, s, this.graph);
 		return s;
 	}
 
+	/**
+	 * Changes the floors of a tile. Only the tiles the change blends into are rebuilt.
+	 *
+	 * @param plane the plane.
+	 * @param tileX the tile x.
+	 * @param tileZ the tile z.
+	 * @param underlay the underlay floor index plus one, or 0 for none.
+	 * @param overlay the overlay floor index plus one, or 0 for none.
+	 * @param overlayType the overlay shape.
+	 * @param overlayRotation the overlay rotation.
+	 */
+	public void setFloor(int plane, int tileX, int tileZ, int underlay, int overlay, int overlayType, int overlayRotation) {
+		edits.add(() -> {
+			long start = System.nanoTime();
+			scene.planeUnderlayFloorIndices[plane][tileX][tileZ] = (byte) underlay;
+			scene.planeOverlayFloorIndices[plane][tileX][tileZ] = (byte) overlay;
+			scene.planeOverlayTypes[plane][tileX][tileZ] = (byte) overlayType;
+			scene.planeOverlayRotations[plane][tileX][tileZ] = (byte) overlayRotation;
+			scene.rebuildTiles(graph, plane, tileX, tileZ, tileX, tileZ);
+
+			// the underlay colors blend over five tiles each way
+			setMinimapDirty(plane, tileX - 5, tileZ - 5, tileX + 5, tileZ + 5);
+			logger.log(Level.FINE, "Rebuilt tile in {0} ms", (System.nanoTime() - start) / 1_000_000.0);
+			this.fireSceneTilesChanged(plane, scene, tileX, tileZ, tileX, tileZ);
+		});
+	}
+
+	/**
+	 * Replaces the location of a class on a tile, or removes it if the index is -1. The collision flags are updated in
+	 * place, and the locations around it are merged with the new one again and relit.
+	 *
+	 * @param plane the plane.
+	 * @param tileX the tile x.
+	 * @param tileZ the tile z.
+	 * @param index the location index, or -1.
+	 * @param type the location type.
+	 * @param rotation the rotation.
+	 */
+	public void setLoc(int plane, int tileX, int tileZ, int index, int type, int rotation) {
+		edits.add(() -> {
+			long start = System.nanoTime();
+			int size = addLoc(index, plane, tileX, tileZ, type, LocationInfo.TYPE_TO_CLASS[type], rotation);
+			Scene.relight(graph, tileX, tileZ, Math.min(tileX + size - 1, 103), Math.min(tileZ + size - 1, 103));
+			logger.log(Level.FINE, "Replaced location in {0} ms", (System.nanoTime() - start) / 1_000_000.0);
+			this.fireSceneTilesChanged(plane, scene, tileX, tileZ, tileX + size - 1, tileZ + size - 1);
+		});
+	}
+
+	protected void fireRegionChanging(int x, int y) {
+		for (GameListener l : this.listeners.getListeners(GameListener.class)) {
+			l.onRegionChanging(x, y);
+		}
+	}
+
 	protected void fireSceneCreated(int plane, Scene s, SceneGraph land) {
 		for (GameListener l : this.listeners.getListeners(GameListener.class)) {
 			l.onSceneLoaded(plane, s, land);
@@ -356,6 +462,12 @@ public class GameSub extends Game implements MapPanelEventListener {
 		land.addObject(new Model(0), 0, 21, 26, 400, 123);
 	}
 
+	protected void fireSceneTilesChanged(int plane, Scene s, int minTileX, int minTileZ, int maxTileX, int maxTileZ) {
+		for (GameListener l : this.listeners.getListeners(GameListener.class)) {
+			l.onSceneTilesChanged(plane, s, minTileX, minTileZ, maxTileX, maxTileZ);
+		}
+	}
+
 	/**
 	 * Adds a game listener.
 	 *
@@ -390,6 +502,18 @@ public class GameSub extends Game implements MapPanelEventListener {
 				this.camera.setZoom(this.camera.getZoom() + e.getZoomAdjustment());
 				break;
 			}
+			case REGION_CHANGE: {
+				edits.add(() -> loadRegion(e.getRegionX(), e.getRegionY()));
+				break;
+			}
+			case LOCATION_REMOVE: {
+				this.setLoc(e.getPlane(), e.getTileX(), e.getTileY(), -1, 10, 0);
+				break;
+			}
+			case FLOOR_CHANGE: {
+				this.setFloor(e.getPlane(), e.getTileX(), e.getTileY(), e.getUnderlay(), e.getOverlay(), e.getOverlayType(), e.getOverlayRotation());
+				break;
+			}
 		}
 	}
 }
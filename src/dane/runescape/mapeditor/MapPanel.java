@@ -49,6 +49,17 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 	public static final int TILE_SIZE = 15;
 	public static final int SIZE = MAPSQUARE_SIZE * TILE_SIZE;
 	public static final Color COLOR_HOVER = new Color(1f, 1f, 1f, 0.5f);
+	public static final int COLOR_BACKGROUND = 0x282018;
+
+	/**
+	 * The number of mouse wheel steps it takes to zoom out a whole world map level.
+	 */
+	public static final int ZOOM_STEPS_PER_LEVEL = 4;
+
+	/**
+	 * The number of world map tiles kept in memory, at 256kb each.
+	 */
+	private static final int WORLD_MAP_CACHE_TILES = 256;
 
 	public BufferedImage image;
 	public int[] pixels;
@@ -58,6 +69,10 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 	public int tileX, tileY;
 
 	public double angle = 0;
+
+	/**
+	 * The wheel steps zoomed out. At 0 the loaded map square is shown for editing, and above it the world map.
+	 */
 	public int zoom = 0;
 
 	public boolean isDragging;
@@ -69,6 +84,16 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 	private int imageOffsetY;
 
 	private SceneGraph graph;
+	private Scene scene;
+	private int plane;
+
+	private int regionX, regionY;
+
+	/**
+	 * The world tile at the center of the world map view.
+	 */
+	private double worldX, worldY;
+	private WorldMapRenderer worldMap;
 
 	public void assemble() {
 		this.setBackground(Color.black);
@@ -87,6 +112,8 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 
 		this.image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
 		this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+		this.worldMap = new WorldMapRenderer(WORLD_MAP_CACHE_TILES, this::repaint);
 	}
 
 	public void setScrollBars(JScrollBar vertical, JScrollBar horizontal) {
@@ -112,6 +139,24 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 		}
 	}
 
+	public void fireRegionChange(int newRegionX, int newRegionY) {
+		for (MapPanelEventListener l : this.getListeners()) {
+			l.onMapPanelEvent(new MapPanelEvent(this, MapPanelEvent.Type.REGION_CHANGE, newRegionX, newRegionY));
+		}
+	}
+
+	public void fireLocationRemove(int plane, int tileX, int tileY) {
+		for (MapPanelEventListener l : this.getListeners()) {
+			l.onMapPanelEvent(new MapPanelEvent(this, MapPanelEvent.Type.LOCATION_REMOVE, plane, tileX, tileY));
+		}
+	}
+
+	public void fireFloorChange(int plane, int tileX, int tileY, int underlay, int overlay, int overlayType, int overlayRotation) {
+		for (MapPanelEventListener l : this.getListeners()) {
+			l.onMapPanelEvent(new MapPanelEvent(this, plane, tileX, tileY, underlay, overlay, overlayType, overlayRotation));
+		}
+	}
+
 	/* Camera Event Listener */
 	public MapPanelEventListener[] getListeners() {
 		return listenerList.getListeners(MapPanelEventListener.class);
@@ -126,86 +171,155 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 	}
 
 	/* Scene Load Listener */
+	@Override
+	public void onRegionChanging(int regionX, int regionY) {
+		this.regionX = regionX;
+		this.regionY = regionY;
+	}
+
 	@Override
 	public void onSceneLoaded(int plane, Scene scene, SceneGraph graph) {
 		this.graph = graph;
+		this.scene = scene;
+		this.plane = plane;
 
-		byte[][] overlayTypes = scene.planeOverlayTypes[plane];
-		byte[][] overlayRotations = scene.planeOverlayRotations[plane];
-		byte[][] underlayFlos = scene.planeUnderlayFloorIndices[plane];
-		byte[][] overlayFlos = scene.planeOverlayFloorIndices[plane];
-
-		Arrays.fill(pixels, 0x282018);
+		Arrays.fill(pixels, COLOR_BACKGROUND);
 		Graphics g = this.image.getGraphics();
 
-		int h = (this.image.getHeight() - TILE_SIZE + 1);
-
 		for (int x = 0; x < MAPSQUARE_SIZE; x++) {
 			for (int y = 0; y < MAPSQUARE_SIZE; y++) {
-				int underlayFloId = underlayFlos[x][y];
-				int overlayFloId = overlayFlos[x][y];
+				drawTile(g, scene, this.plane, x, y);
+			}
+		}
 
-				FloorType underlayFlo = null;
-				FloorType overlayFlo = null;
+		g.setColor(Color.BLACK);
 
-				if (overlayFloId != 0) {
-					underlayFlo = FloorType.instances[overlayFloId - 1];
-				}
+		for (int x = 0; x < MAPSQUARE_SIZE; x++) {
+			for (int y = 0; y < MAPSQUARE_SIZE; y++) {
+				g.drawRect(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+			}
+		}
 
-				if (underlayFloId != 0) {
-					overlayFlo = FloorType.instances[underlayFloId - 1];
-				}
+		g.dispose();
+		this.repaint();
+	}
 
-				int drawX = (x * TILE_SIZE) + 1;
-				int drawY = h - (y * TILE_SIZE);
+	@Override
+	public void onSceneTilesChanged(int plane, Scene scene, int minTileX, int minTileZ, int maxTileX, int maxTileZ) {
+		if (plane != this.plane) {
+			return;
+		}
 
-				if (overlayFlo != null) {
-					if (overlayFlo.textureIndex >= 0) {
-						g.setColor(new Color(Graphics3D.getTextureColor(overlayFlo.textureIndex)));
-					} else {
-						g.setColor(new Color(overlayFlo.rgb));
-					}
+		minTileX = Math.max(minTileX, 0);
+		minTileZ = Math.max(minTileZ, 0);
+		maxTileX = Math.min(maxTileX, MAPSQUARE_SIZE - 1);
+		maxTileZ = Math.min(maxTileZ, MAPSQUARE_SIZE - 1);
 
-					g.fillRect(drawX, drawY, 14, 14);
-				}
+		if (minTileX > maxTileX || minTileZ > maxTileZ) {
+			return;
+		}
 
-				if (underlayFlo != null) {
-					if (underlayFlo.textureIndex >= 0) {
-						g.setColor(new Color(Graphics3D.getTextureColor(underlayFlo.textureIndex)));
-					} else {
-						g.setColor(new Color(underlayFlo.rgb));
-					}
+		// the tiles are drawn flipped vertically
+		int x0 = minTileX * TILE_SIZE;
+		int y0 = (MAPSQUARE_SIZE - 1 - maxTileZ) * TILE_SIZE;
+		int w = (maxTileX - minTileX + 1) * TILE_SIZE + 1;
+		int h = (maxTileZ - minTileZ + 1) * TILE_SIZE + 1;
 
-					// they draw 1 pixel off so we gotta counteract that.
-					drawX -= 1;
-					drawY -= 1;
+		Graphics g = this.image.getGraphics();
+		g.setClip(x0, y0, w, h);
+		g.setColor(new Color(COLOR_BACKGROUND));
+		g.fillRect(x0, y0, w, h);
 
-					g.translate(drawX, drawY);
-					g.fillPolygon(TileShape.getPolygon(overlayTypes[x][y] + 1, overlayRotations[x][y]));
-					g.translate(-drawX, -drawY);
-				}
+		for (int x = minTileX; x <= maxTileX; x++) {
+			for (int y = minTileZ; y <= maxTileZ; y++) {
+				drawTile(g, scene, this.plane, x, y);
 			}
 		}
 
 		g.setColor(Color.BLACK);
 
-		for (int x = 0; x < MAPSQUARE_SIZE; x++) {
-			for (int y = 0; y < MAPSQUARE_SIZE; y++) {
+		for (int x = minTileX; x <= maxTileX; x++) {
+			for (int y = MAPSQUARE_SIZE - 1 - maxTileZ; y <= MAPSQUARE_SIZE - 1 - minTileZ; y++) {
 				g.drawRect(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
 			}
 		}
 
 		g.dispose();
-		this.repaint();
+
+		if (this.zoom > 0) {
+			this.repaint();
+		} else {
+			this.repaint(this.imageOffsetX + x0, this.imageOffsetY + y0, w, h);
+		}
+	}
+
+	/**
+	 * Draws the floors of a tile onto an image {@link #SIZE} pixels across.
+	 *
+	 * @param g the graphics of the image.
+	 * @param scene the scene.
+	 * @param plane the plane.
+	 * @param x the tile x.
+	 * @param y the tile y.
+	 */
+	static void drawTile(Graphics g, Scene scene, int plane, int x, int y) {
+		int underlayFloId = scene.planeUnderlayFloorIndices[plane][x][y];
+		int overlayFloId = scene.planeOverlayFloorIndices[plane][x][y];
+
+		FloorType underlayFlo = null;
+		FloorType overlayFlo = null;
+
+		if (overlayFloId != 0) {
+			underlayFlo = FloorType.instances[overlayFloId - 1];
+		}
+
+		if (underlayFloId != 0) {
+			overlayFlo = FloorType.instances[underlayFloId - 1];
+		}
+
+		int drawX = (x * TILE_SIZE) + 1;
+		int drawY = (SIZE - TILE_SIZE + 1) - (y * TILE_SIZE);
+
+		if (overlayFlo != null) {
+			if (overlayFlo.textureIndex >= 0) {
+				g.setColor(new Color(Graphics3D.getTextureColor(overlayFlo.textureIndex)));
+			} else {
+				g.setColor(new Color(overlayFlo.rgb));
+			}
+
+			g.fillRect(drawX, drawY, 14, 14);
+		}
+
+		if (underlayFlo != null) {
+			if (underlayFlo.textureIndex >= 0) {
+				g.setColor(new Color(Graphics3D.getTextureColor(underlayFlo.textureIndex)));
+			} else {
+				g.setColor(new Color(underlayFlo.rgb));
+			}
+
+			// they draw 1 pixel off so we gotta counteract that.
+			drawX -= 1;
+			drawY -= 1;
+
+			g.translate(drawX, drawY);
+			g.fillPolygon(TileShape.getPolygon(scene.planeOverlayTypes[plane][x][y] + 1, scene.planeOverlayRotations[plane][x][y]));
+			g.translate(-drawX, -drawY);
+		}
 	}
 
 	@Override
 	public void onSceneTileClicked(Tile t) {
-		graph.removeLocations(t.x, t.plane, t.z);
+		// the graph belongs to the game thread, so the edit is queued there
+		this.fireLocationRemove(t.plane, t.x, t.z);
 	}
 
 	@Override
 	protected void paintComponent(Graphics g) {
+		if (this.zoom > 0) {
+			this.paintWorldMap(g);
+			return;
+		}
+
 		g.setColor(Color.BLACK);
 		g.fillRect(0, 0, getWidth(), getHeight());
 
@@ -241,6 +355,104 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 		g.translate(-this.imageOffsetX, -this.imageOffsetY);
 	}
 
+	/**
+	 * @param zoom the zoom.
+	 * @return the pixels per tile the world map is drawn at on the zoom.
+	 */
+	protected double getWorldScale(int zoom) {
+		return (WorldMapRenderer.TILE_PIXELS / (double) MAPSQUARE_SIZE) / Math.pow(2, (zoom - 1) / (double) ZOOM_STEPS_PER_LEVEL);
+	}
+
+	protected void paintWorldMap(Graphics g) {
+		Rectangle view = this.getVisibleRect();
+		g.setColor(Color.BLACK);
+		g.fillRect(view.x, view.y, view.width, view.height);
+
+		((Graphics2D) g).setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+		double scale = this.getWorldScale(this.zoom);
+		int level = Math.min((this.zoom - 1) / ZOOM_STEPS_PER_LEVEL, WorldMapRenderer.LEVELS - 1);
+		int span = MAPSQUARE_SIZE << level;
+		int count = WorldMapRenderer.getTileCount(level);
+
+		double centerX = view.getCenterX();
+		double centerY = view.getCenterY();
+
+		int minX = Math.max((int) Math.floor((this.worldX - (centerX - view.x) / scale) / span), 0);
+		int maxX = Math.min((int) Math.floor((this.worldX + (view.x + view.width - centerX) / scale) / span), count - 1);
+		int minY = Math.max((int) Math.floor((this.worldY - (view.y + view.height - centerY) / scale) / span), 0);
+		int maxY = Math.min((int) Math.floor((this.worldY + (centerY - view.y) / scale) / span), count - 1);
+
+		for (int x = minX; x <= maxX; x++) {
+			for (int y = minY; y <= maxY; y++) {
+				int x0 = (int) Math.floor(centerX + ((x * span) - this.worldX) * scale);
+				int x1 = (int) Math.floor(centerX + (((x + 1) * span) - this.worldX) * scale);
+				int y0 = (int) Math.floor(centerY - (((y + 1) * span) - this.worldY) * scale);
+				int y1 = (int) Math.floor(centerY - ((y * span) - this.worldY) * scale);
+				this.drawWorldTile(g, level, x, y, x0, y0, x1 - x0, y1 - y0);
+			}
+		}
+
+		// the loaded square is drawn from the editor so it shows unsaved changes
+		int x0 = (int) Math.floor(centerX + ((this.regionX * MAPSQUARE_SIZE) - this.worldX) * scale);
+		int x1 = (int) Math.floor(centerX + (((this.regionX + 1) * MAPSQUARE_SIZE) - this.worldX) * scale);
+		int y0 = (int) Math.floor(centerY - (((this.regionY + 1) * MAPSQUARE_SIZE) - this.worldY) * scale);
+		int y1 = (int) Math.floor(centerY - ((this.regionY * MAPSQUARE_SIZE) - this.worldY) * scale);
+
+		if (this.graph != null) {
+			g.drawImage(this.image, x0, y0, x1 - x0, y1 - y0, null);
+		}
+
+		g.setColor(Color.YELLOW);
+		g.drawRect(x0, y0, x1 - x0, y1 - y0);
+	}
+
+	/**
+	 * Draws a world map tile, or stretches whatever covers it from the levels around it if it hasn't loaded yet.
+	 */
+	private void drawWorldTile(Graphics g, int level, int x, int y, int drawX, int drawY, int drawWidth, int drawHeight) {
+		BufferedImage tile = this.worldMap.get(level, x, y);
+
+		if (tile != null) {
+			g.drawImage(tile, drawX, drawY, drawWidth, drawHeight, null);
+			return;
+		}
+
+		if (this.worldMap.isLoaded(level, x, y)) {
+			return;
+		}
+
+		for (int parent = level + 1; parent < WorldMapRenderer.LEVELS; parent++) {
+			int shift = parent - level;
+			tile = this.worldMap.peek(parent, x >> shift, y >> shift);
+
+			if (tile != null) {
+				int size = WorldMapRenderer.TILE_PIXELS >> shift;
+				int srcX = (x & ((1 << shift) - 1)) * size;
+				int srcY = ((1 << shift) - 1 - (y & ((1 << shift) - 1))) * size;
+				g.drawImage(tile, drawX, drawY, drawX + drawWidth, drawY + drawHeight, srcX, srcY, srcX + size, srcY + size, null);
+				return;
+			}
+		}
+
+		if (level > 0) {
+			int halfWidth = drawWidth / 2;
+			int halfHeight = drawHeight / 2;
+
+			for (int n = 0; n < 4; n++) {
+				tile = this.worldMap.peek(level - 1, (x * 2) + (n & 0x1), (y * 2) + (n >> 1));
+
+				if (tile != null) {
+					int dx = (n & 0x1) == 0 ? 0 : halfWidth;
+					int dy = (n >> 1) == 1 ? 0 : halfHeight;
+					int w = (n & 0x1) == 0 ? halfWidth : drawWidth - halfWidth;
+					int h = (n >> 1) == 1 ? halfHeight : drawHeight - halfHeight;
+					g.drawImage(tile, drawX + dx, drawY + dy, w, h, null);
+				}
+			}
+		}
+	}
+
 	protected void updateHover(int x, int y) {
 		int lastX = this.hoverX;
 		int lastY = this.hoverY;
@@ -267,6 +479,22 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 
 	@Override
 	public void mouseClicked(MouseEvent e) {
+		if (this.zoom > 0) {
+			if (SwingUtilities.isLeftMouseButton(e) && e.getClickCount() == 2) {
+				Rectangle view = this.getVisibleRect();
+				double scale = this.getWorldScale(this.zoom);
+				int x = (int) Math.floor((this.worldX + (e.getX() - view.getCenterX()) / scale) / MAPSQUARE_SIZE);
+				int y = (int) Math.floor((this.worldY - (e.getY() - view.getCenterY()) / scale) / MAPSQUARE_SIZE);
+
+				if (x >= 0 && x < 256 && y >= 0 && y < 256) {
+					this.zoom = 0;
+					this.fireRegionChange(x, y);
+					this.repaint();
+				}
+			}
+			return;
+		}
+
 		this.updateHover(e.getX(), e.getY());
 	}
 
@@ -275,7 +503,12 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 		this.grabX = e.getX();
 		this.grabY = e.getY();
 
-		if (SwingUtilities.isMiddleMouseButton(e)) {
+		if (this.zoom > 0) {
+			this.grabX = e.getXOnScreen();
+			this.grabY = e.getYOnScreen();
+			this.isDragging = true;
+			this.setCursor(Cursor.getPredefinedCursor(Cursor.MOVE_CURSOR));
+		} else if (SwingUtilities.isMiddleMouseButton(e)) {
 			this.grabX = e.getXOnScreen();
 			this.grabY = e.getYOnScreen();
 			this.isDragging = true;
@@ -286,6 +519,12 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 
 			this.fireTileChange(this.tileX, this.tileY);
 			this.repaint();
+		} else if (SwingUtilities.isRightMouseButton(e) && this.scene != null && this.tileX >= 0 && this.tileY >= 0) {
+			// paints the floors of the selected tile onto the one under the cursor
+			int p = this.plane;
+			int x = this.tileX;
+			int y = this.tileY;
+			this.fireFloorChange(p, this.hoverX, this.hoverY, this.scene.planeUnderlayFloorIndices[p][x][y], this.scene.planeOverlayFloorIndices[p][x][y], this.scene.planeOverlayTypes[p][x][y], this.scene.planeOverlayRotations[p][x][y]);
 		}
 	}
 
@@ -294,7 +533,7 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 		this.grabX = -1;
 		this.grabY = -1;
 
-		if (SwingUtilities.isMiddleMouseButton(e)) {
+		if (this.isDragging) {
 			this.isDragging = false;
 			this.setCursor(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR));
 		}
@@ -314,6 +553,22 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 
 	@Override
 	public void mouseDragged(MouseEvent e) {
+		if (this.zoom > 0) {
+			if (this.isDragging) {
+				int x = e.getXOnScreen();
+				int y = e.getYOnScreen();
+				double scale = this.getWorldScale(this.zoom);
+
+				this.worldX += (this.grabX - x) / scale;
+				this.worldY -= (this.grabY - y) / scale;
+
+				this.grabX = x;
+				this.grabY = y;
+				this.repaint();
+			}
+			return;
+		}
+
 		if (SwingUtilities.isLeftMouseButton(e)) {
 			if (this.grabX != -1) {
 				int x = this.imageOffsetX + (this.tileX * TILE_SIZE) + (TILE_SIZE / 2);
@@ -351,6 +606,30 @@ public class MapPanel extends JPanel implements GameListener, MouseListener, Mou
 
 	@Override
 	public void mouseWheelMoved(MouseWheelEvent e) {
+		int lastZoom = this.zoom;
+		this.zoom = Math.max(0, Math.min(this.zoom + e.getWheelRotation(), WorldMapRenderer.LEVELS * ZOOM_STEPS_PER_LEVEL));
+
+		if (this.zoom == lastZoom) {
+			return;
+		}
+
+		if (lastZoom == 0) {
+			// start on the loaded square
+			this.worldX = (this.regionX * MAPSQUARE_SIZE) + (MAPSQUARE_SIZE / 2);
+			this.worldY = (this.regionY * MAPSQUARE_SIZE) + (MAPSQUARE_SIZE / 2);
+		} else if (this.zoom > 0) {
+			// keep the tile under the mouse where it is
+			Rectangle view = this.getVisibleRect();
+			double dx = e.getX() - view.getCenterX();
+			double dy = e.getY() - view.getCenterY();
+			double lastScale = this.getWorldScale(lastZoom);
+			double scale = this.getWorldScale(this.zoom);
+
+			this.worldX += (dx / lastScale) - (dx / scale);
+			this.worldY -= (dy / lastScale) - (dy / scale);
+		}
+
+		this.repaint();
 	}
 
 }
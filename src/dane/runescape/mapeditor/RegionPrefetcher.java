@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Dane.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dane.runescape.mapeditor;
+
+import com.runescape.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Loads the landscape and loc files of map squares in the background and keeps them in a cache bounded by their total
+ * size, keyed the same way as {@link Game#mapIndices}. Prefetching the squares around the current one means moving to
+ * a neighbour doesn't have to wait on the disk.
+ *
+ * @author Dane
+ */
+public class RegionPrefetcher {
+
+	/**
+	 * The files of a single map square. Either may be null if the square has no such file.
+	 */
+	public static class MapSquare {
+
+		public final byte[] land;
+		public final byte[] locs;
+
+		public MapSquare(byte[] land, byte[] locs) {
+			this.land = land;
+			this.locs = locs;
+		}
+
+		public int getWeight() {
+			return (land != null ? land.length : 0) + (locs != null ? locs.length : 0);
+		}
+	}
+
+	/**
+	 * A cached square. The weight is -1 until its load has completed and been counted.
+	 */
+	private static class Entry {
+
+		final CompletableFuture<MapSquare> future;
+		int weight = -1;
+
+		Entry(CompletableFuture<MapSquare> future) {
+			this.future = future;
+		}
+	}
+
+	private final LinkedHashMap<Integer, Entry> squares = new LinkedHashMap<>(16, 0.75f, true);
+	private final int maxWeight;
+	private int weight;
+
+	/**
+	 * @param maxWeight the maximum number of bytes of map data to keep cached.
+	 */
+	public RegionPrefetcher(int maxWeight) {
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * @param x the map square x.
+	 * @param y the map square y.
+	 * @return the cached or in-flight load of the square, starting one if there's neither.
+	 */
+	public synchronized CompletableFuture<MapSquare> get(int x, int y) {
+		int index = (x << 8) | y;
+		Entry e = squares.get(index);
+
+		if (e != null) {
+			return e.future;
+		}
+
+		CompletableFuture<byte[]> land = Signlink.loadFileAsync("maps/m" + x + "_" + y);
+		CompletableFuture<byte[]> locs = Signlink.loadFileAsync("maps/l" + x + "_" + y);
+
+		Entry entry = new Entry(land.thenCombine(locs, MapSquare::new));
+		squares.put(index, entry);
+
+		entry.future.thenAccept(square -> loaded(entry, square));
+		return entry.future;
+	}
+
+	/**
+	 * Starts loading the 8 map squares surrounding the provided one.
+	 *
+	 * @param x the map square x.
+	 * @param y the map square y.
+	 */
+	public void prefetchAround(int x, int y) {
+		for (int dx = -1; dx <= 1; dx++) {
+			for (int dy = -1; dy <= 1; dy++) {
+				int nx = x + dx;
+				int ny = y + dy;
+
+				if ((dx != 0 || dy != 0) && nx >= 0 && nx < 256 && ny >= 0 && ny < 256) {
+					get(nx, ny);
+				}
+			}
+		}
+	}
+
+	private synchronized void loaded(Entry entry, MapSquare square) {
+		entry.weight = square.getWeight();
+		weight += entry.weight;
+
+		Iterator<Entry> it = squares.values().iterator();
+		while (weight > maxWeight && it.hasNext()) {
+			Entry e = it.next();
+
+			// in-flight loads haven't been weighed yet, and the newest square is always kept.
+			if (e.weight < 0 || e == entry) {
+				continue;
+			}
+
+			weight -= e.weight;
+			it.remove();
+		}
+	}
+}
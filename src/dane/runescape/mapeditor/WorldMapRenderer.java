@@ -0,0 +1,350 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2015 Dane.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package dane.runescape.mapeditor;
+
+import com.runescape.Scene;
+import com.runescape.Signlink;
+import java.awt.*;
+import java.awt.image.*;
+import java.io.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.logging.*;
+import javax.imageio.*;
+
+/**
+ * Draws the map squares of the world into square image tiles at several zoom levels. A tile of level 0 is a single
+ * map square, and every level above is made from the four tiles below it at half their size, so a tile of level n
+ * covers 2^n by 2^n squares. Tiles are drawn on background threads, kept in a cache bounded by their count and saved
+ * as PNG files in the cache directory so they only have to be drawn again when their map files change.
+ *
+ * @author Dane
+ */
+public class WorldMapRenderer {
+
+	private static final Logger logger = Logger.getLogger(WorldMapRenderer.class.getName());
+
+	/**
+	 * The width and height of a tile. A map square is drawn at 4 pixels per tile on level 0.
+	 */
+	public static final int TILE_PIXELS = 256;
+
+	/**
+	 * The number of zoom levels. A tile of the top level covers 32x32 map squares.
+	 */
+	public static final int LEVELS = 6;
+
+	/**
+	 * The directory in the cache directory the tiles are saved to.
+	 */
+	private static final String DIRECTORY = "worldmap";
+
+	/**
+	 * Stands in for a tile without any map squares in it. Those are saved as empty files, so most of the world isn't
+	 * looked through again every session.
+	 */
+	private static final BufferedImage EMPTY = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+
+	private final LinkedHashMap<Integer, CompletableFuture<BufferedImage>> tiles = new LinkedHashMap<>(64, 0.75f, true);
+	private final int maxTiles;
+	private final Runnable listener;
+	private final File directory;
+
+	private final ExecutorService renderers = Executors.newFixedThreadPool(Math.max(Runtime.getRuntime().availableProcessors() - 1, 1), r -> {
+		Thread t = new Thread(r, "worldmap-renderer");
+		t.setDaemon(true);
+		t.setPriority(Thread.MIN_PRIORITY);
+		return t;
+	});
+
+	/**
+	 * @param maxTiles the maximum number of tiles to keep in memory.
+	 * @param listener called from a background thread whenever a tile has finished loading.
+	 */
+	public WorldMapRenderer(int maxTiles, Runnable listener) {
+		this.maxTiles = maxTiles;
+		this.listener = listener;
+
+		File cache = Signlink.findCachePath();
+		this.directory = cache != null ? new File(cache, DIRECTORY) : null;
+	}
+
+	/**
+	 * Returns a tile if it has been loaded, and starts loading it otherwise.
+	 *
+	 * @param level the zoom level.
+	 * @param x the tile x.
+	 * @param y the tile y, increasing northward.
+	 * @return the tile, or <b>null</b> if it is still loading or has no map squares in it.
+	 */
+	public BufferedImage get(int level, int x, int y) {
+		BufferedImage image = getFuture(level, x, y).getNow(null);
+		return image != EMPTY ? image : null;
+	}
+
+	/**
+	 * Returns a tile only if it is already in memory, without loading it.
+	 *
+	 * @param level the zoom level.
+	 * @param x the tile x.
+	 * @param y the tile y.
+	 * @return the tile, or <b>null</b>.
+	 */
+	public synchronized BufferedImage peek(int level, int x, int y) {
+		int count = getTileCount(level);
+
+		if (level < 0 || level >= LEVELS || x < 0 || y < 0 || x >= count || y >= count) {
+			return null;
+		}
+
+		CompletableFuture<BufferedImage> f = tiles.get((level << 16) | (x << 8) | y);
+		BufferedImage image = f != null ? f.getNow(null) : null;
+		return image != EMPTY ? image : null;
+	}
+
+	/**
+	 * @param level the zoom level.
+	 * @param x the tile x.
+	 * @param y the tile y.
+	 * @return true if the tile has finished loading, even if it turned out empty.
+	 */
+	public boolean isLoaded(int level, int x, int y) {
+		return getFuture(level, x, y).isDone();
+	}
+
+	/**
+	 * @param level the zoom level.
+	 * @return the number of tiles across the world on the level.
+	 */
+	public static int getTileCount(int level) {
+		return 256 >> level;
+	}
+
+	private synchronized CompletableFuture<BufferedImage> getFuture(int level, int x, int y) {
+		int count = getTileCount(level);
+
+		if (level < 0 || level >= LEVELS || x < 0 || y < 0 || x >= count || y >= count) {
+			return CompletableFuture.completedFuture(EMPTY);
+		}
+
+		int key = (level << 16) | (x << 8) | y;
+		CompletableFuture<BufferedImage> f = tiles.get(key);
+
+		if (f != null) {
+			return f;
+		}
+
+		f = load(level, x, y);
+		tiles.put(key, f);
+		f.thenRun(this::loaded);
+		return f;
+	}
+
+	private CompletableFuture<BufferedImage> load(int level, int x, int y) {
+		return CompletableFuture.supplyAsync(() -> read(level, x, y), renderers).thenCompose(saved -> {
+			if (saved != null) {
+				return CompletableFuture.completedFuture(saved);
+			}
+
+			CompletableFuture<BufferedImage> drawn;
+
+			if (level == 0) {
+				drawn = Signlink.loadFileAsync("maps/m" + x + "_" + y).thenApplyAsync(this::drawSquare, renderers);
+			} else {
+				drawn = drawLevel(level, x, y);
+			}
+
+			return drawn.thenApplyAsync(image -> {
+				write(level, x, y, image);
+				return image;
+			}, renderers);
+		}).exceptionally(t -> {
+			// shown as empty, and not saved so it's drawn again next time
+			logger.log(Level.WARNING, "Error drawing world map tile " + level + ": " + x + ", " + y, t);
+			return EMPTY;
+		});
+	}
+
+	private void loaded() {
+		synchronized (this) {
+			Iterator<CompletableFuture<BufferedImage>> it = tiles.values().iterator();
+
+			// tiles still loading are kept, their parents are waiting on them.
+			while (tiles.size() > maxTiles && it.hasNext()) {
+				if (it.next().isDone()) {
+					it.remove();
+				}
+			}
+		}
+
+		listener.run();
+	}
+
+	/**
+	 * Draws the floors of plane 0 of a map square.
+	 *
+	 * @param land the compressed landscape file, or null if the square doesn't exist.
+	 * @return the image, or {@link #EMPTY} if there is nothing to draw.
+	 */
+	private BufferedImage drawSquare(byte[] land) {
+		if (land == null) {
+			return EMPTY;
+		}
+
+		Scene scene = new Scene(64, 64, new byte[4][64][64], new int[4][65][65]);
+
+		try {
+			scene.readLandscape(Signlink.getDecompressed(land), 0, 0, 0, 0);
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Error reading landscape", e);
+			return EMPTY;
+		}
+
+		BufferedImage image = new BufferedImage(TILE_PIXELS, TILE_PIXELS, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		g.setColor(new Color(MapPanel.COLOR_BACKGROUND));
+		g.fillRect(0, 0, TILE_PIXELS, TILE_PIXELS);
+		g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		g.scale((double) TILE_PIXELS / MapPanel.SIZE, (double) TILE_PIXELS / MapPanel.SIZE);
+
+		for (int x = 0; x < MapPanel.MAPSQUARE_SIZE; x++) {
+			for (int y = 0; y < MapPanel.MAPSQUARE_SIZE; y++) {
+				MapPanel.drawTile(g, scene, 0, x, y);
+			}
+		}
+
+		g.dispose();
+		return image;
+	}
+
+	/**
+	 * Draws a tile from the four tiles of the level below it once they have loaded.
+	 */
+	private CompletableFuture<BufferedImage> drawLevel(int level, int x, int y) {
+		List<CompletableFuture<BufferedImage>> children = new ArrayList<>(4);
+
+		for (int n = 0; n < 4; n++) {
+			children.add(getFuture(level - 1, (x * 2) + (n & 0x1), (y * 2) + (n >> 1)));
+		}
+
+		return CompletableFuture.allOf(children.toArray(new CompletableFuture<?>[4])).thenApplyAsync(v -> {
+			BufferedImage image = null;
+			Graphics2D g = null;
+			int half = TILE_PIXELS / 2;
+
+			for (int n = 0; n < 4; n++) {
+				BufferedImage child = children.get(n).join();
+
+				if (child == EMPTY) {
+					continue;
+				}
+
+				if (image == null) {
+					image = new BufferedImage(TILE_PIXELS, TILE_PIXELS, BufferedImage.TYPE_INT_RGB);
+					g = image.createGraphics();
+					g.setColor(new Color(MapPanel.COLOR_BACKGROUND));
+					g.fillRect(0, 0, TILE_PIXELS, TILE_PIXELS);
+					g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				}
+
+				// the northern children go on top
+				g.drawImage(child, (n & 0x1) * half, (1 - (n >> 1)) * half, half, half, null);
+			}
+
+			if (g == null) {
+				return EMPTY;
+			}
+
+			g.dispose();
+			return image;
+		}, renderers);
+	}
+
+	private File getFile(int level, int x, int y) {
+		return new File(directory, level + "/" + x + "_" + y + ".png");
+	}
+
+	/**
+	 * @return the last time a map file covered by the tile was modified.
+	 */
+	private long getLastModified(int level, int x, int y) {
+		File maps = new File(Signlink.findCachePath(), "maps");
+		int size = 1 << level;
+		long last = 0;
+
+		for (int sx = x * size; sx < (x + 1) * size; sx++) {
+			for (int sy = y * size; sy < (y + 1) * size; sy++) {
+				last = Math.max(last, new File(maps, "m" + sx + "_" + sy).lastModified());
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * @return the saved tile, or null if there isn't one or it is older than its map files.
+	 */
+	private BufferedImage read(int level, int x, int y) {
+		if (directory == null) {
+			return null;
+		}
+
+		File f = getFile(level, x, y);
+
+		if (!f.exists() || f.lastModified() < getLastModified(level, x, y)) {
+			return null;
+		}
+
+		if (f.length() == 0) {
+			return EMPTY;
+		}
+
+		try {
+			return ImageIO.read(f);
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Error reading world map tile", e);
+			return null;
+		}
+	}
+
+	private void write(int level, int x, int y, BufferedImage image) {
+		if (directory == null) {
+			return;
+		}
+
+		File f = getFile(level, x, y);
+
+		try {
+			f.getParentFile().mkdirs();
+
+			if (image == EMPTY) {
+				new FileOutputStream(f).close();
+			} else {
+				ImageIO.write(image, "png", f);
+			}
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Error saving world map tile", e);
+		}
+	}
+}
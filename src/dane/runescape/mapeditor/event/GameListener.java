@@ -34,6 +34,15 @@ import java.util.*;
  */
 public interface GameListener extends EventListener {
 
+	/**
+	 * Called when a map square is about to be loaded, before its scene is built. {@link #onSceneLoaded} follows once
+	 * it has been.
+	 *
+	 * @param regionX the map square x.
+	 * @param regionY the map square y.
+	 */
+	void onRegionChanging(int regionX, int regionY);
+
 	/**
 	 * Called when the scene has been loaded.
 	 *
@@ -43,6 +52,18 @@ public interface GameListener extends EventListener {
 	 */
 	void onSceneLoaded(int plane, Scene scene, SceneGraph graph);
 
+	/**
+	 * Called when an edit has changed tiles of the loaded scene.
+	 *
+	 * @param plane the plane of the edit.
+	 * @param scene the scene.
+	 * @param minTileX the min tile x.
+	 * @param minTileZ the min tile z.
+	 * @param maxTileX the max tile x.
+	 * @param maxTileZ the max tile z.
+	 */
+	void onSceneTilesChanged(int plane, Scene scene, int minTileX, int minTileZ, int maxTileX, int maxTileZ);
+
 	/**
 	 * Called when a tile in the scene has been clicked.
 	 *
@@ -35,11 +35,15 @@ public class MapPanelEvent extends EventObject {
 
 	public enum Type {
 
-		TILE_CHANGE, ZOOM_ADJUST, ANGLE_CHANGE;
+		TILE_CHANGE, ZOOM_ADJUST, ANGLE_CHANGE, REGION_CHANGE, LOCATION_REMOVE, FLOOR_CHANGE;
 	}
 
+	private int plane;
 	private int tileX, tileY;
+	private int regionX, regionY;
 	private int zoomAdjustment;
+	private int underlay, overlay;
+	private int overlayType, overlayRotation;
 	private double angle;
 	private Type type;
 
@@ -59,6 +63,27 @@ public class MapPanelEvent extends EventObject {
 		this.angle = angle;
 	}
 
+	public MapPanelEvent(Object source, Type type, int regionX, int regionY) {
+		this(source, type);
+		this.regionX = regionX;
+		this.regionY = regionY;
+	}
+
+	public MapPanelEvent(Object source, Type type, int plane, int tileX, int tileY) {
+		this(source, type);
+		this.plane = plane;
+		this.tileX = tileX;
+		this.tileY = tileY;
+	}
+
+	public MapPanelEvent(Object source, int plane, int tileX, int tileY, int underlay, int overlay, int overlayType, int overlayRotation) {
+		this(source, Type.FLOOR_CHANGE, plane, tileX, tileY);
+		this.underlay = underlay;
+		this.overlay = overlay;
+		this.overlayType = overlayType;
+		this.overlayRotation = overlayRotation;
+	}
+
 	private MapPanelEvent(Object source, Type type) {
 		super(source);
 		this.type = type;
@@ -72,6 +97,10 @@ public class MapPanelEvent extends EventObject {
 		return this.angle;
 	}
 
+	public int getPlane() {
+		return this.plane;
+	}
+
 	public int getTileX() {
 		return this.tileX;
 	}
@@ -80,7 +109,31 @@ public class MapPanelEvent extends EventObject {
 		return tileY;
 	}
 
+	public int getRegionX() {
+		return this.regionX;
+	}
+
+	public int getRegionY() {
+		return this.regionY;
+	}
+
 	public int getZoomAdjustment() {
 		return this.zoomAdjustment;
 	}
+
+	public int getUnderlay() {
+		return this.underlay;
+	}
+
+	public int getOverlay() {
+		return this.overlay;
+	}
+
+	public int getOverlayType() {
+		return this.overlayType;
+	}
+
+	public int getOverlayRotation() {
+		return this.overlayRotation;
+	}
 }